@@ -0,0 +1,19 @@
+#!/usr/bin/env bash
+# Runs the benchmarks (all of them, or the JMH arguments given) and writes the results
+# as JSON to results/<commit>.json; compare two runs with BenchmarkComparison:
+#
+#   ./run.sh UserMapperBenchmark KeycloakRoleConverterBenchmark
+#   java -cp target/benchmarks.jar com.hamid.usermanagement.BenchmarkComparison \
+#        results/<base>.json results/<head>.json
+set -euo pipefail
+cd "$(dirname "$0")"
+
+[[ -f target/benchmarks.jar ]] || { echo "build first, see README.md" >&2; exit 1; }
+
+# Uncommitted changes to the application or the benchmarks get their own file
+commit=$(git rev-parse --short HEAD)
+git diff --quiet HEAD -- ../src ../pom.xml src pom.xml || commit="$commit-dirty"
+
+mkdir -p results
+java -jar target/benchmarks.jar -rf json -rff "results/$commit.json" "$@"
+echo "Results written to results/$commit.json"
@@ -0,0 +1,91 @@
+package com.hamid.usermanagement;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Compares two JMH JSON result files (run.sh writes one per commit) and exits with 1
+// when a benchmark got slower by more than the threshold and by more than the sum
+// of both error margins, so noise alone does not fail a comparison.
+//
+//   java -cp target/benchmarks.jar com.hamid.usermanagement.BenchmarkComparison \
+//        results/<base>.json results/<head>.json [threshold-percent, default 10]
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <base.json> <head.json> [threshold-percent]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> base = read(Path.of(args[0]));
+        Map<String, JsonNode> head = read(Path.of(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "base", "head", "change");
+        for (Map.Entry<String, JsonNode> entry : head.entrySet()) {
+            JsonNode before = base.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14s %9s%n", entry.getKey(), "-", score(entry.getValue()), "new");
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double baseScore = before.at("/primaryMetric/score").asDouble();
+            double headScore = after.at("/primaryMetric/score").asDouble();
+            // thrpt: higher is better; avgt, sample, ss: lower is better
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            double change = (headScore - baseScore) / baseScore * 100;
+            double worse = higherIsBetter ? -change : change;
+            double noise = error(before) + error(after);
+            boolean regression = worse > threshold && Math.abs(headScore - baseScore) > noise;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-90s %14s %14s %+8.1f%%%s%n",
+                    entry.getKey(), score(before), score(after), change, regression ? "  REGRESSION" : "");
+        }
+        base.keySet().stream()
+                .filter(key -> !head.containsKey(key))
+                .forEach(key -> System.out.printf("%-90s %14s %14s %9s%n", key, score(base.get(key)), "-", "removed"));
+
+        if (regressions > 0) {
+            System.out.printf("%d regression(s) above %.0f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    // Keyed by benchmark, mode and parameters, e.g. "...UserMapperBenchmark.toResponse avgt roles=5"
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                    .append(' ').append(result.path("mode").asText());
+            Map<String, String> params = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = result.path("params").fields();
+            fields.forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            params.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            results.put(key.toString().replace("com.hamid.usermanagement.", ""), result);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.at("/primaryMetric/scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String score(JsonNode result) {
+        return String.format(Locale.ROOT, "%.3f %s",
+                result.at("/primaryMetric/score").asDouble(), result.at("/primaryMetric/scoreUnit").asText());
+    }
+}
@@ -0,0 +1,106 @@
+package com.hamid.usermanagement.audit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.hamid.usermanagement.security.AuthenticationFacade;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-request logging overhead of UserServiceImpl.getUserById: the two
+// synchronous INFO lines it used to write against one AuditLogger record,
+// enabled and disabled. Both paths end in the same Logback appender writing
+// to a discarding stream, so formatting and appender locking are included.
+// Run with -prof gc to compare allocations (gc.alloc.rate.norm).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditLoggerBenchmark {
+
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p --- [%t] %-40.40logger{39} : %m%n";
+
+    private final org.slf4j.Logger serviceLog = LoggerFactory.getLogger("com.hamid.usermanagement.service.UserServiceImpl");
+    private final AuthenticationFacade authenticationFacade = new AuthenticationFacade(new UserResponseFilter());
+
+    private AuditLogger enabledAudit;
+    private AuditLogger disabledAudit;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        routeLogsToNullAppender();
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("bench.user", null, List.of()));
+        enabledAudit = new AuditLogger(authenticationFacade, new SimpleMeterRegistry(), true, 1 << 16);
+        enabledAudit.start();
+        disabledAudit = new AuditLogger(authenticationFacade, new SimpleMeterRegistry(), false, 1 << 16);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        enabledAudit.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void synchronousLogLines() {
+        long userId = ++id;
+        String currentUser = authenticationFacade.getCurrentUsername();
+        serviceLog.info("User '{}' is retrieving user with id: {}", currentUser, userId);
+        serviceLog.info("Retrieving user with id: {}", userId);
+    }
+
+    @Benchmark
+    public void auditRecord() {
+        enabledAudit.record(AuditAction.GET_USER, ++id);
+    }
+
+    @Benchmark
+    public void auditDisabled() {
+        disabledAudit.record(AuditAction.GET_USER, ++id);
+    }
+
+    private static void routeLogsToNullAppender() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        root.addAppender(appender);
+        root.setLevel(Level.INFO);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hamid.usermanagement.config;
+
+import com.hamid.usermanagement.config.SecurityConfig.KeycloakRoleConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Authorities of one request's JWT: a token seen before (cache hit, the common
+// case: clients reuse a token for minutes) against one whose claims are parsed.
+// The parsed token is already expired, so the converter never caches it and every
+// call takes the parsing path; a first-seen valid token also pays one cache insert.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeycloakRoleConverterBenchmark {
+
+    private final KeycloakRoleConverter converter = new KeycloakRoleConverter(10_000);
+
+    private Jwt cachedToken;
+    private Jwt parsedToken;
+
+    @Setup
+    public void setUp() {
+        cachedToken = jwt("jti-cached", Instant.now().plusSeconds(3600));
+        parsedToken = jwt("jti-parsed", Instant.now().minusSeconds(1));
+        converter.convert(cachedToken);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convertCached() {
+        return converter.convert(cachedToken);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convertParsed() {
+        return converter.convert(parsedToken);
+    }
+
+    // Shape of a Keycloak access token: realm roles plus the demo-task client roles
+    private static Jwt jwt(String jti, Instant expiresAt) {
+        return Jwt.withTokenValue("token-" + jti)
+                .header("alg", "RS256")
+                .jti(jti)
+                .subject("alice")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .claim("realm_access", Map.of("roles", List.of("admin", "offline_access", "uma_authorization")))
+                .claim("resource_access", Map.of("demo-task", Map.of("roles",
+                        List.of("read_user", "create_user", "update_user", "delete_user"))))
+                .build();
+    }
+}
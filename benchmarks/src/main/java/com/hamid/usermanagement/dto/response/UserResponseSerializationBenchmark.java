@@ -0,0 +1,86 @@
+package com.hamid.usermanagement.dto.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.util.BlackholeOutputStream;
+import com.hamid.usermanagement.util.UserWireFormats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Jackson serialization of a List<UserResponse> body, as written by the message
+// converters: one user (GET /{id}), a default page (50), the largest page (500) and
+// a 10k-user stream, for each role view and wire format (JSON, CBOR, Smile; see
+// UserWireFormats). Prints the body size of every combination.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserResponseSerializationBenchmark {
+
+    @Param({"1", "50", "500", "10000"})
+    private int size;
+
+    @Param({"ADMIN", "OPERATOR", "BASIC"})
+    private String view;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private String format;
+
+    private List<UserResponse> responses;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        responses = IntStream.range(0, size)
+                .mapToObj(i -> UserResponse.builder()
+                        .id(1_000_000L + i)
+                        .username("user." + i)
+                        .email("user" + i + "@example.com")
+                        .taxCode("RSSMRA80A01H501" + (char) ('A' + i % 26))
+                        .firstName("First" + i % 1000)
+                        .lastName("Last" + i)
+                        .roles(EnumSet.of(Role.DEVELOPER, Role.REPORTER))
+                        .version((long) i % 10)
+                        .build())
+                .toList();
+        UserWireFormats wireFormats = new UserWireFormats(Jackson2ObjectMapperBuilder.json().build());
+        ObjectMapper objectMapper = wireFormats.mapperFor(switch (format) {
+            case "CBOR" -> MediaType.APPLICATION_CBOR;
+            case "SMILE" -> UserWireFormats.APPLICATION_SMILE;
+            default -> MediaType.APPLICATION_JSON;
+        });
+        writer = objectMapper.writerWithView(switch (view) {
+            case "ADMIN" -> UserViews.Admin.class;
+            case "OPERATOR" -> UserViews.Operator.class;
+            default -> UserViews.Basic.class;
+        });
+        System.out.printf("%nBody size (%d users, %s view, %s): %d bytes%n",
+                size, view, format, writer.writeValueAsBytes(responses).length);
+    }
+
+    @Benchmark
+    public void serialize(Blackhole blackhole) throws IOException {
+        writer.writeValue(new BlackholeOutputStream(blackhole), responses);
+    }
+}
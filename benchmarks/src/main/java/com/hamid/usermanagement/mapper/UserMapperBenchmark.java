@@ -0,0 +1,75 @@
+package com.hamid.usermanagement.mapper;
+
+import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Per-user cost of UserMapper in both directions. toResponse copies the role set
+// into an EnumSet (responses outlive the persistence context), so it is measured
+// with one role and with every role; the entity holds a HashSet, as Hibernate does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    @Param({"1", "5"})
+    private int roles;
+
+    private final UserMapper mapper = new UserMapper();
+
+    private User user;
+    private CreateUserRequest request;
+
+    @Setup
+    public void setUp() {
+        Set<Role> roleSet = new HashSet<>(Arrays.asList(Role.values()).subList(0, roles));
+        user = User.builder()
+                .id(42L)
+                .username("mario.rossi")
+                .email("mario.rossi@example.com")
+                .taxCode("RSSMRA80A01H501U")
+                .firstName("Mario")
+                .lastName("Rossi")
+                .roles(roleSet)
+                .version(3L)
+                .build();
+
+        request = new CreateUserRequest();
+        request.setUsername(user.getUsername());
+        request.setEmail(user.getEmail());
+        request.setTaxCode(user.getTaxCode());
+        request.setFirstName(user.getFirstName());
+        request.setLastName(user.getLastName());
+        request.setRoles(roleSet);
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return mapper.toResponse(user);
+    }
+
+    @Benchmark
+    public User toEntity() {
+        return mapper.toEntity(request);
+    }
+}
@@ -0,0 +1,103 @@
+package com.hamid.usermanagement.repository;
+
+import com.hamid.usermanagement.UsermanagementApplication;
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Latency of one page (50 users) of GET /api/v1/users/search minus HTTP and JSON:
+// UserService.searchUsers against the application's H2 database seeded with
+// 1M users (one role each). Sampled, so the output includes p50/p99/p99.9.
+//
+// Seeded names: first_name = First<x mod 1000> (1000 users each),
+// last_name = Last<x*7919 mod 100003> (~10 users each); "Last1234" therefore
+// matches ~110 users, "First12" ~11k.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class UserSearchBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"LAST_NAME_PREFIX", "ANY_FIELD_PREFIX", "ANY_FIELD_PREFIX_ROLE", "BROAD_PREFIX", "LAST_NAME_CONTAINS"})
+    public String scenario;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserSearch search;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(UsermanagementApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:searchbench;DB_CLOSE_DELAY=-1",
+                        "audit.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        userService = context.getBean(UserService.class);
+        seed(context.getBean(JdbcTemplate.class));
+
+        search = switch (scenario) {
+            case "LAST_NAME_PREFIX" -> UserSearch.builder()
+                    .term("Last1234")
+                    .fields(EnumSet.of(UserSearch.Field.LAST_NAME))
+                    .build();
+            case "ANY_FIELD_PREFIX" -> UserSearch.builder().term("Last1234").build();
+            case "ANY_FIELD_PREFIX_ROLE" -> UserSearch.builder().term("Last1234").role(Role.OWNER).build();
+            case "BROAD_PREFIX" -> UserSearch.builder().term("First12").build();
+            case "LAST_NAME_CONTAINS" -> UserSearch.builder()
+                    .term("st1234")
+                    .fields(EnumSet.of(UserSearch.Field.LAST_NAME))
+                    .match(UserSearch.Match.CONTAINS)
+                    .build();
+            default -> throw new IllegalArgumentException(scenario);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserResponse> searchFirstPage() {
+        return userService.searchUsers(search, null, PAGE_SIZE);
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.execute("insert into users (id, username, email, tax_code, first_name, last_name, version) "
+                + "select x, 'user' || x, 'user' || x || '@example.com', 'TAX' || x, "
+                + "'First' || mod(x, 1000), 'Last' || mod(x * 7919, 100003), 0 "
+                + "from system_range(1, " + USERS + ")");
+        jdbc.execute("insert into user_roles (user_id, role) "
+                + "select x, case mod(x, 5) when 0 then 'OWNER' when 1 then 'OPERATOR' when 2 then 'MAINTAINER' "
+                + "when 3 then 'DEVELOPER' else 'REPORTER' end "
+                + "from system_range(1, " + USERS + ")");
+        jdbc.execute("analyze");
+    }
+}
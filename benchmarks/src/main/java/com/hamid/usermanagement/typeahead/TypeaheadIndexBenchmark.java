@@ -0,0 +1,128 @@
+package com.hamid.usermanagement.typeahead;
+
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
+import com.hamid.usermanagement.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Latency of one autocomplete request (10 suggestions) on an index of 1M users:
+// prefixes of increasing length against the compacted snapshot, and the same
+// lookups with 1% of the users changed since the last compaction (overlay).
+// Setup prints the heap used by the snapshot, computed from its arrays and
+// measured as the heap growth while building it.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TypeaheadIndexBenchmark {
+
+    private static final int USERS = 1_000_000;
+    private static final int SUGGESTIONS = 10;
+
+    private static final String[] FIRST_NAMES = {
+            "Alessandro", "Alice", "Andrea", "Anna", "Antonio", "Aurora", "Beatrice", "Camilla", "Chiara", "Davide",
+            "Elena", "Emma", "Federico", "Francesca", "Francesco", "Gabriele", "Giada", "Giorgia", "Giovanni", "Giulia",
+            "Greta", "Leonardo", "Lorenzo", "Luca", "Ludovica", "Marco", "Maria", "Martina", "Matteo", "Mattia",
+            "Noemi", "Paolo", "Riccardo", "Sara", "Simone", "Sofia", "Stefano", "Tommaso", "Valentina", "Vittoria"};
+    private static final String[] LAST_NAMES = {
+            "Barbieri", "Bianchi", "Bruno", "Caruso", "Colombo", "Conti", "Costa", "De Luca", "Esposito", "Ferrara",
+            "Ferrari", "Fontana", "Galli", "Gallo", "Giordano", "Greco", "Lombardi", "Mancini", "Marino", "Martinelli",
+            "Mariani", "Moretti", "Ricci", "Rinaldi", "Rizzo", "Romano", "Rossi", "Russo", "Santoro", "Villa"};
+
+    // "m": ~30% of the users; "mar": ~15%; "marco.ros": ~800 users; "zzz": no match
+    @Param({"m", "mar", "marco.ros", "zzz"})
+    public String prefix;
+
+    private TypeaheadIndex compacted;
+    private TypeaheadIndex withOverlay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        long heapBefore = usedHeap();
+        compacted = new TypeaheadIndex(null, meterRegistry, Integer.MAX_VALUE);
+        compacted.install(snapshot());
+        long heapAfter = usedHeap();
+        System.out.printf("%nTypeahead snapshot for %,d users: %,d bytes computed, %,d bytes measured%n",
+                USERS, compacted.memoryBytes(), heapAfter - heapBefore);
+
+        withOverlay = new TypeaheadIndex(null, meterRegistry, Integer.MAX_VALUE);
+        withOverlay.install(snapshot());
+        SplittableRandom random = new SplittableRandom(7);
+        List<User> changed = new ArrayList<>();
+        for (int i = 0; i < USERS / 100; i++) {
+            changed.add(user(random.nextInt(1, USERS + 1)));
+        }
+        withOverlay.put(changed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        compacted.stop();
+        withOverlay.stop();
+    }
+
+    @Benchmark
+    public List<TypeaheadSuggestion> lookupCompacted() {
+        return compacted.lookup(prefix, SUGGESTIONS);
+    }
+
+    @Benchmark
+    public List<TypeaheadSuggestion> lookupWithOverlay() {
+        return withOverlay.lookup(prefix, SUGGESTIONS);
+    }
+
+    private static TypeaheadSnapshot snapshot() {
+        TypeaheadSnapshot.Builder builder = new TypeaheadSnapshot.Builder();
+        for (long id = 1; id <= USERS; id++) {
+            User user = user(id);
+            builder.add(id, TypeaheadField.USERNAME, user.getUsername())
+                    .add(id, TypeaheadField.EMAIL, user.getEmail())
+                    .add(id, TypeaheadField.FIRST_NAME, user.getFirstName())
+                    .add(id, TypeaheadField.LAST_NAME, user.getLastName());
+        }
+        return builder.build();
+    }
+
+    // Usernames like "marco.rossi123456", emails like "marco.rossi123456@example.com":
+    // 4 terms and ~64 bytes of text per user
+    private static User user(long id) {
+        String firstName = FIRST_NAMES[(int) (id % FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[(int) ((id / FIRST_NAMES.length) % LAST_NAMES.length)];
+        String username = (firstName + "." + lastName).toLowerCase().replace(" ", "") + id;
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .firstName(firstName)
+                .lastName(lastName)
+                .build();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
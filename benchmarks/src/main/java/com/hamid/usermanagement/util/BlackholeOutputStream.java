@@ -0,0 +1,26 @@
+package com.hamid.usermanagement.util;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.OutputStream;
+
+// Serialization target that only hands the bytes to JMH: no buffer growth or copy in the measurement
+public final class BlackholeOutputStream extends OutputStream {
+
+    private final Blackhole blackhole;
+
+    public BlackholeOutputStream(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void write(int b) {
+        blackhole.consume(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        blackhole.consume(b);
+        blackhole.consume(len);
+    }
+}
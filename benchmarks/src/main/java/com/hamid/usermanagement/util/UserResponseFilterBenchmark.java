@@ -0,0 +1,118 @@
+package com.hamid.usermanagement.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+// Role-based redaction of a list response for non-admin callers: the previous
+// implementation (one builder copy per element) against the Jackson view chosen
+// once per request by UserResponseFilter. Both variants are measured alone and
+// followed by serialization, which is where the view does its work.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserResponseFilterBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    @Param({"ROLE_OPERATOR", "ROLE_USER"})
+    private String role;
+
+    private final UserResponseFilter filter = new UserResponseFilter();
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<UserResponse> responses;
+    private Collection<GrantedAuthority> authorities;
+    private Authentication authentication;
+    private ObjectWriter plainWriter;
+
+    @Setup
+    public void setUp() {
+        responses = IntStream.range(0, size)
+                .mapToObj(i -> UserResponse.builder()
+                        .id((long) i)
+                        .username("user." + i)
+                        .email("user" + i + "@example.com")
+                        .taxCode("TAXCODE" + i)
+                        .firstName("First" + i)
+                        .lastName("Last" + i)
+                        .roles(Set.of(Role.DEVELOPER, Role.REPORTER))
+                        .build())
+                .toList();
+        authorities = List.of(new SimpleGrantedAuthority(role), new SimpleGrantedAuthority("read_user"));
+        authentication = UsernamePasswordAuthenticationToken.authenticated("alice", null, authorities);
+        plainWriter = objectMapper.writer();
+    }
+
+    @Benchmark
+    public List<UserResponse> copyPerElement() {
+        return copyingFilter(responses, authorities);
+    }
+
+    @Benchmark
+    public Class<?> resolveView() {
+        return filter.resolveView(authorities);
+    }
+
+    // Overload used by the reactive module (ReactiveSecurityContextHolder)
+    @Benchmark
+    public Class<?> resolveViewFromAuthentication() {
+        return filter.resolveView(authentication);
+    }
+
+    @Benchmark
+    public void copyPerElementAndSerialize(Blackhole blackhole) throws IOException {
+        plainWriter.writeValue(new BlackholeOutputStream(blackhole), copyingFilter(responses, authorities));
+    }
+
+    @Benchmark
+    public void viewAndSerialize(Blackhole blackhole) throws IOException {
+        objectMapper.writerWithView(filter.resolveView(authorities))
+                .writeValue(new BlackholeOutputStream(blackhole), responses);
+    }
+
+    private static List<UserResponse> copyingFilter(List<UserResponse> responses,
+                                                    Collection<? extends GrantedAuthority> authorities) {
+        boolean operator = authorities.contains(new SimpleGrantedAuthority("ROLE_OPERATOR"));
+        return responses.stream()
+                .map(response -> UserResponse.builder()
+                        .id(response.getId())
+                        .username(response.getUsername())
+                        .email(response.getEmail())
+                        .taxCode(null)
+                        .firstName(response.getFirstName())
+                        .lastName(response.getLastName())
+                        .roles(operator ? response.getRoles() : null)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# End-to-end load test, offline: generates a signing key (MockIdp), starts the service
+# trusting only that key, seeds users and runs the mixed read/write workload
+# (MixedLoadTest) at each concurrency level. Results go to results/mixed.csv.
+#
+#   ./e2e.sh
+#   CONNECTIONS=100 MIX=get:80,update:20 PROFILES=roles-bitmask ./e2e.sh
+set -euo pipefail
+cd "$(dirname "$0")"
+
+APP_JAR=${APP_JAR:-../target/usermanagement-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8080}
+PROFILES=${PROFILES:-default}
+CONNECTIONS=${CONNECTIONS:-50,200}
+WARMUP=${WARMUP:-10s}
+DURATION=${DURATION:-30s}
+SEED_USERS=${SEED_USERS:-10000}
+MIX=${MIX:-list:30,get:40,search:10,create:10,update:10}
+TOKENS=${TOKENS:-100}
+APP_JAVA_OPTS=${APP_JAVA_OPTS:--Xms256m -Xmx512m}
+RESULTS=${RESULTS:-results/mixed.csv}
+ISSUER=http://localhost/realms/loadtest
+
+[[ -f "$APP_JAR" ]] || (cd .. && ./mvnw -B -q package -DskipTests)
+[[ -f target/loadtest.jar ]] || ../mvnw -B -q package
+
+LOGS=$(dirname "$RESULTS")
+IDP="$LOGS/idp"
+mkdir -p "$LOGS"
+rm -f "$RESULTS"
+java -cp target/loadtest.jar com.hamid.usermanagement.loadtest.MockIdp --dir="$IDP" --issuer="$ISSUER" > /dev/null
+
+# Il servizio legge le chiavi dal file (jwk-set-uri file:), nessuna chiamata a Keycloak
+# shellcheck disable=SC2086
+java $APP_JAVA_OPTS -jar "$APP_JAR" \
+  --spring.profiles.active="$PROFILES" \
+  --server.port="$PORT" \
+  --spring.security.oauth2.resourceserver.jwt.issuer-uri="$ISSUER" \
+  --spring.security.oauth2.resourceserver.jwt.jwk-set-uri="file:$(cd "$IDP" && pwd)/jwks.json" \
+  --security.jwt.jwks.cache-file="$IDP/jwks-cache.json" \
+  --audit.enabled=false \
+  --logging.level.root=WARN > "$LOGS/app-e2e.log" 2>&1 &
+app=$!
+trap 'kill $app 2>/dev/null || true' EXIT
+
+until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+  kill -0 $app 2>/dev/null || { echo "service exited, see $LOGS/app-e2e.log" >&2; exit 1; }
+  sleep 1
+done
+
+java -cp target/loadtest.jar com.hamid.usermanagement.loadtest.MixedLoadTest \
+  --url="http://localhost:$PORT" \
+  --idp="$IDP" \
+  --issuer="$ISSUER" \
+  --connections="$CONNECTIONS" \
+  --warmup="$WARMUP" \
+  --duration="$DURATION" \
+  --seed="$SEED_USERS" \
+  --mix="$MIX" \
+  --tokens="$TOKENS" \
+  --mode="$PROFILES" \
+  --out="$RESULTS"
+
+echo "Results written to $RESULTS"
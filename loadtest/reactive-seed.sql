@@ -0,0 +1,8 @@
+-- Users of the reactive mode (run.sh replaces :users with SEED_USERS): same shape as
+-- the users LoadTest creates through POST /api/v1/users/batch in the servlet modes
+INSERT INTO users (id, username, email, tax_code, first_name, last_name, version)
+SELECT X, 'load.' || X, 'load.' || X || '@example.com', 'LOAD' || LPAD(X, 8, '0'), 'First' || MOD(X, 1000), 'Last' || X, 0
+FROM SYSTEM_RANGE(1, :users);
+
+INSERT INTO user_roles (user_id, role)
+SELECT X, 'DEVELOPER' FROM SYSTEM_RANGE(1, :users);
@@ -0,0 +1,110 @@
+#!/usr/bin/env bash
+# Compares the execution modes: starts the service once per mode with the same JVM limits,
+# runs LoadTest at each concurrency level and writes results/results.csv.
+#   platform  servlet application, Tomcat thread pool
+#   virtual   servlet application, virtual-threads profile (JDK 21+ "java" on the PATH)
+#   reactive  WebFlux + R2DBC module (reactive/), GET endpoints only
+#
+#   ./run.sh                                        tokens from the mock IdP (MockIdp), offline
+#   LOADTEST_TOKEN=<Keycloak access token> ./run.sh  tokens verified against Keycloak
+set -euo pipefail
+cd "$(dirname "$0")"
+
+APP_JAR=${APP_JAR:-../target/usermanagement-0.0.1-SNAPSHOT.jar}
+REACTIVE_JAR=${REACTIVE_JAR:-../reactive/target/usermanagement-reactive-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8080}
+TARGET_PATH=${TARGET_PATH:-/api/v1/users?limit=20}
+CONNECTIONS=${CONNECTIONS:-1000,5000,10000}
+WARMUP=${WARMUP:-10s}
+DURATION=${DURATION:-30s}
+SEED_USERS=${SEED_USERS:-10000}
+MODES=${MODES:-platform virtual}
+# Same limits as docker-compose.yml: one CPU, 512m heap
+APP_JAVA_OPTS=${APP_JAVA_OPTS:--Xms256m -Xmx512m -XX:ActiveProcessorCount=1}
+RESULTS=${RESULTS:-results/results.csv}
+
+if [[ "$TARGET_PATH" != /api/* ]]; then
+  SEED_USERS=0
+fi
+[[ -f "$APP_JAR" ]] || (cd .. && ./mvnw -B -q package -DskipTests)
+if [[ " $MODES " == *" reactive "* && ! -f "$REACTIVE_JAR" ]]; then
+  (cd .. && ./mvnw -B -q -Pbenchmarks install -DskipTests && cd reactive && ../mvnw -B -q package -DskipTests)
+fi
+[[ -f target/loadtest.jar ]] || ../mvnw -B -q package
+
+LOGS=$(dirname "$RESULTS")
+mkdir -p "$LOGS"
+rm -f "$RESULTS"
+
+# Without a real token the services trust a locally generated key instead of Keycloak
+idp_args=()
+if [[ "$TARGET_PATH" == /api/* && -z "${LOADTEST_TOKEN:-}" ]]; then
+  IDP="$LOGS/idp"
+  ISSUER=http://localhost/realms/loadtest
+  LOADTEST_TOKEN=$(java -cp target/loadtest.jar com.hamid.usermanagement.loadtest.MockIdp --dir="$IDP" --issuer="$ISSUER")
+  idp_args=(
+    --spring.security.oauth2.resourceserver.jwt.issuer-uri="$ISSUER"
+    --spring.security.oauth2.resourceserver.jwt.jwk-set-uri="file:$(cd "$IDP" && pwd)/jwks.json"
+    --security.jwt.jwks.cache-file="$IDP/jwks-cache.json"
+  )
+fi
+export LOADTEST_TOKEN
+
+# 10k client connections plus 10k server sockets on the same host
+ulimit -n 65536 2>/dev/null || echo "warning: cannot raise the open files limit ($(ulimit -n))" >&2
+
+for mode in $MODES; do
+  jar=$APP_JAR
+  profiles=default
+  seed=$SEED_USERS
+  extra_args=(${idp_args[@]+"${idp_args[@]}"})
+  [[ "$mode" == virtual ]] && profiles=virtual-threads
+  if [[ "$mode" == reactive ]]; then
+    # Read-only API: same number of users, inserted by SQL at startup instead of POST /batch
+    jar=$REACTIVE_JAR
+    seed=0
+    if [[ "$SEED_USERS" -gt 0 ]]; then
+      sed "s/:users/$SEED_USERS/g" reactive-seed.sql > "$LOGS/reactive-seed.sql"
+      extra_args+=(--spring.sql.init.data-locations="file:$LOGS/reactive-seed.sql")
+    fi
+  fi
+  echo "== $mode (spring.profiles.active=$profiles)"
+  # Sotto Java 21 Boot ignora spring.threads.virtual.enabled: il confronto non avrebbe senso
+  if [[ "$mode" == virtual ]] && ! java -XshowSettings:properties -version 2>&1 \
+      | grep -Eq 'java\.specification\.version = (2[1-9]|[3-9][0-9])'; then
+    echo "virtual mode needs a JDK 21+ java on the PATH" >&2
+    exit 1
+  fi
+
+  # Stesse soglie di Tomcat nelle due modalita' servlet: cambia solo chi esegue le richieste
+  # shellcheck disable=SC2086
+  java $APP_JAVA_OPTS -jar "$jar" \
+    --spring.profiles.active="$profiles" \
+    --server.port="$PORT" \
+    --server.tomcat.max-connections=20000 \
+    --server.tomcat.accept-count=1000 \
+    --audit.enabled=false \
+    --logging.level.root=WARN ${extra_args[@]+"${extra_args[@]}"} > "$LOGS/app-$mode.log" 2>&1 &
+  app=$!
+  trap 'kill $app 2>/dev/null || true' EXIT
+
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+    kill -0 $app 2>/dev/null || { echo "service exited, see $LOGS/app-$mode.log" >&2; exit 1; }
+    sleep 1
+  done
+
+  java -jar target/loadtest.jar \
+    --url="http://localhost:$PORT$TARGET_PATH" \
+    --connections="$CONNECTIONS" \
+    --warmup="$WARMUP" \
+    --duration="$DURATION" \
+    --mode="$mode" \
+    --seed="$seed" \
+    --out="$RESULTS"
+
+  kill $app
+  wait $app 2>/dev/null || true
+  trap - EXIT
+done
+
+echo "Results written to $RESULTS"
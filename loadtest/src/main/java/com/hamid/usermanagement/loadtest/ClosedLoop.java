@@ -0,0 +1,95 @@
+package com.hamid.usermanagement.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Closed-loop load at a fixed concurrency: each connection sends the next request
+// as soon as the previous response arrives, so exactly `connections` requests are
+// in flight. Latency is recorded per response; when the server saturates, waiting
+// requests are not issued (coordinated omission), so compare modes at the same
+// concurrency rather than reading p99 as user-facing latency at a given rate.
+final class ClosedLoop {
+
+    private final HttpClient client;
+    private final HttpRequest request;
+    private final int connections;
+
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder errors = new LongAdder();
+    private final CountDownLatch stopped;
+    private volatile boolean running = true;
+
+    ClosedLoop(HttpClient client, HttpRequest request, int connections) {
+        this.client = client;
+        this.request = request;
+        this.connections = connections;
+        this.stopped = new CountDownLatch(connections);
+    }
+
+    Result run(Duration warmup, Duration duration, Duration drainTimeout) throws InterruptedException {
+        for (int i = 0; i < connections; i++) {
+            send();
+        }
+        // Warmup: connection setup, JIT and pool growth stay out of the measurement
+        Thread.sleep(warmup.toMillis());
+        recorder.reset();
+        errors.reset();
+
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        Histogram latencies = recorder.getIntervalHistogram();
+        long failed = errors.sum();
+        long elapsed = System.nanoTime() - start;
+
+        running = false;
+        if (!stopped.await(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            System.err.printf("%d requests still in flight after %s%n", stopped.getCount(), drainTimeout);
+        }
+        return new Result(connections, latencies, failed, elapsed);
+    }
+
+    private void send() {
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error == null && response.statusCode() < 400) {
+                        recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    } else {
+                        errors.increment();
+                    }
+                    if (running) {
+                        send();
+                    } else {
+                        stopped.countDown();
+                    }
+                });
+    }
+
+    // Latencies in microseconds; errors are timeouts, connection failures and 4xx/5xx responses
+    record Result(int connections, Histogram latencies, long errors, long elapsedNanos) {
+
+        long requests() {
+            return latencies.getTotalCount();
+        }
+
+        double throughput() {
+            return requests() / (elapsedNanos / 1e9);
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        double maxMillis() {
+            return latencies.getMaxValue() / 1000.0;
+        }
+    }
+}
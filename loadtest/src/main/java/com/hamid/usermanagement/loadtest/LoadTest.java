@@ -0,0 +1,179 @@
+package com.hamid.usermanagement.loadtest;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Runs one closed loop per concurrency level against a running instance of the
+// service and prints throughput and latency percentiles; run.sh starts the service
+// once per execution mode and calls this with --mode=platform / --mode=virtual.
+//
+//   java -jar target/loadtest.jar --url=http://localhost:8080/api/v1/users?limit=20 \
+//        --connections=1000,5000,10000 --warmup=10s --duration=30s --mode=platform \
+//        --token=$LOADTEST_TOKEN --seed=10000 --out=results/results.csv
+public final class LoadTest {
+
+    private static final int SEED_BATCH_SIZE = 5_000;
+    // Id of each created user in the batch response ("user" is omitted for rejected items)
+    private static final Pattern CREATED_ID = Pattern.compile("\"user\":\\{\"id\":(\\d+)");
+    private static final String CSV_HEADER = "mode,connections,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI url = URI.create(required(options, "url"));
+        List<Integer> levels = Arrays.stream(options.getOrDefault("connections", "1000,5000,10000").split(","))
+                .map(String::strip)
+                .map(Integer::parseInt)
+                .toList();
+        Duration warmup = duration(options.getOrDefault("warmup", "10s"));
+        Duration measurement = duration(options.getOrDefault("duration", "30s"));
+        Duration timeout = duration(options.getOrDefault("timeout", "30s"));
+        String mode = options.getOrDefault("mode", "unnamed");
+        String token = options.getOrDefault("token", System.getenv("LOADTEST_TOKEN"));
+        int seed = Integer.parseInt(options.getOrDefault("seed", "0"));
+
+        // Pochi thread lato client: le connessioni sono gestite dal selector di HttpClient
+        ExecutorService callbacks = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(callbacks)
+                .build();
+
+        if (seed > 0) {
+            seed(client, url, token, seed, timeout);
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(url).timeout(timeout).GET();
+        if (token != null && !token.isBlank()) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        System.out.printf("%-10s %11s %10s %8s %10s %9s %9s %9s %9s%n",
+                "mode", "connections", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (int connections : levels) {
+            ClosedLoop.Result result = new ClosedLoop(client, request.build(), connections)
+                    .run(warmup, measurement, timeout);
+            System.out.printf(Locale.ROOT, "%-10s %11d %10d %8d %10.0f %9.2f %9.2f %9.2f %9.2f%n",
+                    mode, connections, result.requests(), result.errors(), result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                    result.maxMillis());
+            if (options.containsKey("out")) {
+                append(Path.of(options.get("out")), mode, result);
+            }
+        }
+        callbacks.shutdownNow();
+    }
+
+    // Users created through POST /api/v1/users/batch, so list and search pages are not empty;
+    // returns their ids (MixedLoadTest reads and updates them)
+    static List<Long> seed(HttpClient client, URI url, String token, int users, Duration timeout)
+            throws IOException, InterruptedException {
+        URI batch = url.resolve("/api/v1/users/batch");
+        List<Long> ids = new ArrayList<>(users);
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int from = 0; from < users; from += SEED_BATCH_SIZE) {
+            String body = IntStream.range(from, Math.min(users, from + SEED_BATCH_SIZE))
+                    .mapToObj(i -> String.format(Locale.ROOT,
+                            "{\"username\":\"load.%s.%d\",\"email\":\"load.%s.%d@example.com\",\"taxCode\":\"LOAD%s%08d\","
+                                    + "\"firstName\":\"First%d\",\"lastName\":\"Last%d\",\"roles\":[\"DEVELOPER\"]}",
+                            run, i, run, i, run.toUpperCase(Locale.ROOT), i, i % 1000, i))
+                    .collect(Collectors.joining(",", "{\"users\":[", "]}"));
+            HttpRequest.Builder request = HttpRequest.newBuilder(batch)
+                    .timeout(timeout.multipliedBy(4))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            if (token != null && !token.isBlank()) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode() + ": " + response.body());
+            }
+            Matcher id = CREATED_ID.matcher(response.body());
+            while (id.find()) {
+                ids.add(Long.parseLong(id.group(1)));
+            }
+        }
+        System.out.printf("Seeded %d users%n", ids.size());
+        return ids;
+    }
+
+    private static void append(Path out, String mode, ClosedLoop.Result result) throws IOException {
+        boolean header = !Files.exists(out);
+        if (out.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(out.toAbsolutePath().getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) {
+                writer.println(CSV_HEADER);
+            }
+            writer.printf(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                    mode, result.connections(), result.requests(), result.errors(), result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                    result.maxMillis());
+        }
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name);
+        }
+        return value;
+    }
+
+    // 500ms, 30s, 2m, 1h
+    static Duration duration(String value) {
+        String text = value.strip().toLowerCase(Locale.ROOT);
+        if (text.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2)));
+        }
+        long amount = Long.parseLong(text.substring(0, text.length() - 1));
+        return switch (text.charAt(text.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration: " + value);
+        };
+    }
+}
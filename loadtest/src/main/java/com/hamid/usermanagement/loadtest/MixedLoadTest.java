@@ -0,0 +1,209 @@
+package com.hamid.usermanagement.loadtest;
+
+import com.hamid.usermanagement.loadtest.MockIdp.Persona;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// End-to-end workload against a service that trusts MockIdp (e2e.sh starts it):
+// seeds users with an ADMIN token, then runs a weighted mix of reads and writes
+// per concurrency level and prints throughput and latency percentiles per endpoint.
+// Reads are sent with ADMIN, OPERATOR and USER tokens, so every response view is
+// exercised; writes with the personas allowed to make them.
+//
+//   java -cp target/loadtest.jar com.hamid.usermanagement.loadtest.MixedLoadTest \
+//        --url=http://localhost:8080 --idp=results/idp --seed=10000 --connections=50,200 \
+//        --mix=list:30,get:40,search:10,create:10,update:10 --out=results/mixed.csv
+public final class MixedLoadTest {
+
+    private static final String DEFAULT_MIX = "list:30,get:40,search:10,create:10,update:10";
+    private static final String CSV_HEADER = "mode,connections,endpoint,requests,errors,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms";
+    private static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+
+    private final URI base;
+    private final Duration timeout;
+    private final List<Long> ids;
+    private final Map<Persona, List<String>> tokens;
+    private final String run = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong created = new AtomicLong();
+
+    private MixedLoadTest(URI base, Duration timeout, List<Long> ids, Map<Persona, List<String>> tokens) {
+        this.base = base;
+        this.timeout = timeout;
+        this.ids = ids;
+        this.tokens = tokens;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTest.parse(args);
+        URI base = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        MockIdp idp = MockIdp.open(Path.of(LoadTest.required(options, "idp")),
+                options.getOrDefault("issuer", MockIdp.DEFAULT_ISSUER));
+        List<Integer> levels = Arrays.stream(options.getOrDefault("connections", "50,200").split(","))
+                .map(String::strip)
+                .map(Integer::parseInt)
+                .toList();
+        Duration warmup = LoadTest.duration(options.getOrDefault("warmup", "10s"));
+        Duration measurement = LoadTest.duration(options.getOrDefault("duration", "30s"));
+        Duration timeout = LoadTest.duration(options.getOrDefault("timeout", "30s"));
+        String mode = options.getOrDefault("mode", "mixed");
+        int seed = Integer.parseInt(options.getOrDefault("seed", "10000"));
+        int tokensPerPersona = Integer.parseInt(options.getOrDefault("tokens", "100"));
+
+        // Tokens outlive the run: an expired token would turn into 401s halfway through
+        Duration ttl = warmup.plus(measurement).plus(timeout).multipliedBy(levels.size()).plusMinutes(10);
+        Map<Persona, List<String>> tokens = new EnumMap<>(Persona.class);
+        for (Persona persona : Persona.values()) {
+            List<String> minted = new ArrayList<>(tokensPerPersona);
+            for (int i = 0; i < tokensPerPersona; i++) {
+                minted.add(idp.mint("loadtest." + persona.name().toLowerCase(Locale.ROOT) + "." + i, persona, ttl));
+            }
+            tokens.put(persona, minted);
+        }
+
+        ExecutorService callbacks = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .executor(callbacks)
+                .build();
+
+        List<Long> ids = LoadTest.seed(client, base, tokens.get(Persona.ADMIN).get(0), seed, timeout);
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No users to read: run with --seed > 0");
+        }
+        MixedLoadTest test = new MixedLoadTest(base, timeout, ids, tokens);
+        List<MixedLoop.Endpoint> mix = test.endpoints(options.getOrDefault("mix", DEFAULT_MIX));
+
+        System.out.printf("%-10s %11s %-8s %10s %8s %10s %9s %9s %9s %9s%n",
+                "mode", "connections", "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (int connections : levels) {
+            MixedLoop loop = new MixedLoop(client, mix, connections);
+            Map<String, ClosedLoop.Result> results = loop.run(warmup, measurement, timeout);
+            for (Map.Entry<String, ClosedLoop.Result> entry : results.entrySet()) {
+                ClosedLoop.Result result = entry.getValue();
+                System.out.printf(Locale.ROOT, "%-10s %11d %-8s %10d %8d %10.0f %9.2f %9.2f %9.2f %9.2f%n",
+                        mode, connections, entry.getKey(), result.requests(), result.errors(), result.throughput(),
+                        result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                        result.maxMillis());
+            }
+            if (!loop.failures().isEmpty()) {
+                System.out.printf("%-10s %11d errors by cause: %s%n", mode, connections, loop.failures());
+            }
+            if (options.containsKey("out")) {
+                append(Path.of(options.get("out")), mode, results);
+            }
+        }
+        callbacks.shutdownNow();
+    }
+
+    // "list:30,get:40" -> endpoints drawn with probability 30/70 and 40/70
+    private List<MixedLoop.Endpoint> endpoints(String mix) {
+        List<MixedLoop.Endpoint> endpoints = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.strip().split(":");
+            String name = parts[0].strip().toLowerCase(Locale.ROOT);
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1].strip()) : 1;
+            if (weight > 0) {
+                endpoints.add(new MixedLoop.Endpoint(name, weight, requests(name)));
+            }
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Empty mix: " + mix);
+        }
+        return endpoints;
+    }
+
+    private Supplier<HttpRequest> requests(String endpoint) {
+        return switch (endpoint) {
+            // A page starting at a random user, so pages are not all served from the same rows
+            case "list" -> () -> get("/api/v1/users?limit=20&after=" + (randomId() - 1));
+            case "get" -> () -> get("/api/v1/users/" + randomId());
+            // Seeded last names are Last<i>: a three-digit prefix matches ~11 of 10,000 users
+            case "search" -> () -> get("/api/v1/users/search?fields=LAST_NAME&limit=20&q=Last"
+                    + ThreadLocalRandom.current().nextInt(100, 1000));
+            case "create" -> this::create;
+            case "update" -> this::update;
+            default -> throw new IllegalArgumentException("Unknown endpoint in mix: " + endpoint
+                    + " (expected list, get, search, create, update)");
+        };
+    }
+
+    private HttpRequest get(String path) {
+        Persona persona = Persona.values()[ThreadLocalRandom.current().nextInt(Persona.values().length)];
+        return request(path, persona).GET().build();
+    }
+
+    private HttpRequest create() {
+        long n = created.incrementAndGet();
+        String body = String.format(Locale.ROOT,
+                "{\"username\":\"mixed.%s.%d\",\"email\":\"mixed.%s.%d@example.com\",\"taxCode\":\"MIX%s%08d\","
+                        + "\"firstName\":\"Mixed%d\",\"lastName\":\"Created%d\",\"roles\":[\"DEVELOPER\"]}",
+                run, n, run, n, run.toUpperCase(Locale.ROOT), n, n, n);
+        return request("/api/v1/users", Persona.ADMIN)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    // Merge patch without If-Match: two connections updating the same user may get 409
+    private HttpRequest update() {
+        Persona persona = ThreadLocalRandom.current().nextBoolean() ? Persona.ADMIN : Persona.OPERATOR;
+        String body = "{\"firstName\":\"Updated" + ThreadLocalRandom.current().nextInt(1000) + "\"}";
+        return request("/api/v1/users/" + randomId(), persona)
+                .header("Content-Type", MERGE_PATCH_JSON)
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, Persona persona) {
+        List<String> minted = tokens.get(persona);
+        String token = minted.get(ThreadLocalRandom.current().nextInt(minted.size()));
+        return HttpRequest.newBuilder(base.resolve(path))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static void append(Path out, String mode, Map<String, ClosedLoop.Result> results) throws IOException {
+        boolean header = !Files.exists(out);
+        if (out.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(out.toAbsolutePath().getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND))) {
+            if (header) {
+                writer.println(CSV_HEADER);
+            }
+            results.forEach((endpoint, result) -> writer.printf(Locale.ROOT, "%s,%d,%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                    mode, result.connections(), endpoint, result.requests(), result.errors(), result.throughput(),
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(99.9),
+                    result.maxMillis()));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.hamid.usermanagement.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Closed loop like ClosedLoop, but each request is drawn from a weighted mix of
+// endpoints and latencies are recorded per endpoint. Same caveat: at saturation
+// the numbers compare configurations at equal concurrency, not user-facing latency.
+final class MixedLoop {
+
+    private final HttpClient client;
+    private final List<Endpoint> endpoints;
+    private final int totalWeight;
+    private final int connections;
+
+    private final Map<Endpoint, Recorder> recorders = new LinkedHashMap<>();
+    private final Map<Endpoint, LongAdder> errors = new LinkedHashMap<>();
+    // "GET 404", "PATCH 409", "POST timeout": why requests failed, all endpoints together
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final CountDownLatch stopped;
+    private volatile boolean running = true;
+
+    MixedLoop(HttpClient client, List<Endpoint> endpoints, int connections) {
+        this.client = client;
+        this.endpoints = endpoints;
+        this.totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+        this.connections = connections;
+        this.stopped = new CountDownLatch(connections);
+        for (Endpoint endpoint : endpoints) {
+            recorders.put(endpoint, new Recorder(3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    // One result per endpoint, in the order of the mix
+    Map<String, ClosedLoop.Result> run(Duration warmup, Duration duration, Duration drainTimeout) throws InterruptedException {
+        for (int i = 0; i < connections; i++) {
+            send();
+        }
+        Thread.sleep(warmup.toMillis());
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        failures.clear();
+
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        Map<String, ClosedLoop.Result> results = new LinkedHashMap<>();
+        long elapsed = System.nanoTime() - start;
+        for (Endpoint endpoint : endpoints) {
+            results.put(endpoint.name(), new ClosedLoop.Result(connections,
+                    recorders.get(endpoint).getIntervalHistogram(), errors.get(endpoint).sum(), elapsed));
+        }
+
+        running = false;
+        if (!stopped.await(drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            System.err.printf("%d requests still in flight after %s%n", stopped.getCount(), drainTimeout);
+        }
+        return results;
+    }
+
+    Map<String, Long> failures() {
+        Map<String, Long> counts = new TreeMap<>();
+        failures.forEach((reason, count) -> counts.put(reason, count.sum()));
+        return counts;
+    }
+
+    private void send() {
+        Endpoint endpoint = pick();
+        HttpRequest request = endpoint.requests().get();
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    if (error == null && response.statusCode() < 400) {
+                        recorders.get(endpoint).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                    } else {
+                        errors.get(endpoint).increment();
+                        String reason = error == null ? String.valueOf(response.statusCode()) : error.getClass().getSimpleName();
+                        failures.computeIfAbsent(request.method() + " " + reason, key -> new LongAdder()).increment();
+                    }
+                    if (running) {
+                        send();
+                    } else {
+                        stopped.countDown();
+                    }
+                });
+    }
+
+    private Endpoint pick() {
+        int draw = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            draw -= endpoint.weight();
+            if (draw < 0) {
+                return endpoint;
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    // Weight is relative to the other endpoints; requests builds the next request (target, token, body)
+    record Endpoint(String name, int weight, Supplier<HttpRequest> requests) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.hamid.usermanagement.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Stands in for Keycloak during load tests: a local RSA key whose public half is
+// written as a JWKS file, which the service reads through
+// spring.security.oauth2.resourceserver.jwt.jwk-set-uri=file:... (CachedJwkSource
+// loads file URLs like any other), and tokens carrying the same claims as the
+// demo-interview realm, so KeycloakRoleConverter sees realistic authorities.
+//
+//   java -cp target/loadtest.jar com.hamid.usermanagement.loadtest.MockIdp --dir=results/idp
+//
+// creates the key when missing and prints an ADMIN token with every permission.
+public final class MockIdp {
+
+    public static final String DEFAULT_ISSUER = "http://localhost/realms/loadtest";
+    static final String CLIENT_ID = "demo-task";
+
+    private static final String SIGNING_KEY_FILE = "signing-key.json";
+    private static final String JWKS_FILE = "jwks.json";
+
+    private final RSAKey key;
+    private final String issuer;
+
+    private MockIdp(RSAKey key, String issuer) {
+        this.key = key;
+        this.issuer = issuer;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = LoadTest.parse(args);
+        Path dir = Path.of(LoadTest.required(options, "dir"));
+        MockIdp idp = open(dir, options.getOrDefault("issuer", DEFAULT_ISSUER));
+        Duration ttl = LoadTest.duration(options.getOrDefault("ttl", "1h"));
+        System.out.println(idp.mint("loadtest", Persona.ADMIN, ttl));
+    }
+
+    // Reuses the key in dir, so a running service keeps accepting new tokens
+    public static MockIdp open(Path dir, String issuer) throws IOException, JOSEException, ParseException {
+        Path signingKey = dir.resolve(SIGNING_KEY_FILE);
+        RSAKey key;
+        if (Files.exists(signingKey)) {
+            key = RSAKey.parse(Files.readString(signingKey));
+        } else {
+            key = new RSAKeyGenerator(2048).keyID("loadtest-" + UUID.randomUUID()).generate();
+            Files.createDirectories(dir);
+            Files.writeString(signingKey, key.toJSONString());
+            Files.writeString(dir.resolve(JWKS_FILE), new JWKSet(key).toPublicJWKSet().toString(false));
+        }
+        return new MockIdp(key, issuer);
+    }
+
+    public static Path jwksFile(Path dir) {
+        return dir.resolve(JWKS_FILE);
+    }
+
+    // Every token has its own jti: the service caches authorities per token,
+    // so the number of distinct tokens decides its cache hit ratio
+    public String mint(String subject, Persona persona, Duration ttl) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(subject)
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(ttl)))
+                .claim("preferred_username", subject)
+                .claim("realm_access", Map.of("roles", List.of(persona.realmRole)))
+                .claim("resource_access", Map.of(CLIENT_ID, Map.of("roles", persona.permissions)))
+                .build();
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(),
+                claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    // Realm role (response view, see UserResponseFilter) and demo-task permissions of the realm's users
+    public enum Persona {
+        ADMIN("admin", List.of("read_user", "create_user", "update_user", "delete_user")),
+        OPERATOR("operator", List.of("read_user", "update_user")),
+        USER("user", List.of("read_user"));
+
+        private final String realmRole;
+        private final List<String> permissions;
+
+        Persona(String realmRole, List<String> permissions) {
+            this.realmRole = realmRole;
+            this.permissions = permissions;
+        }
+    }
+}
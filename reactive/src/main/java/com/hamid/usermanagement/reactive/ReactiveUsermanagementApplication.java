@@ -0,0 +1,18 @@
+package com.hamid.usermanagement.reactive;
+
+import com.hamid.usermanagement.mapper.UserMapper;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+// Scans com.hamid.usermanagement.reactive only: the shared classes of the servlet
+// application (UserMapper, UserResponseFilter, ...) are imported explicitly
+@SpringBootApplication
+@Import({UserMapper.class, UserResponseFilter.class})
+public class ReactiveUsermanagementApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveUsermanagementApplication.class, args);
+    }
+}
@@ -0,0 +1,67 @@
+package com.hamid.usermanagement.reactive.config;
+
+import com.hamid.usermanagement.config.JwtAuthenticationConfig;
+import com.hamid.usermanagement.security.CachedJwkSource;
+import com.hamid.usermanagement.security.CallerAuthenticationConverter;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverterAdapter;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Flux;
+
+// Same rules as SecurityConfig/JwtDecoderConfig on the WebFlux chain: stateless
+// JWT authentication with the CachedJwkSource and CallerAuthenticationConverter
+// of JwtAuthenticationConfig (shared with the servlet application). GET endpoints
+// need 'read_user', as the @PreAuthorize annotations of UserController.
+@Configuration
+@EnableWebFluxSecurity
+@Import(JwtAuthenticationConfig.class)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         CallerAuthenticationConverter jwtAuthenticationConverter) {
+        return http
+                .csrf(csrf -> csrf.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        // Probes stay open; metrics need ROLE_ADMIN, as in SecurityConfig
+                        .pathMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .pathMatchers(HttpMethod.GET, "/api/v1/users/**").hasAuthority("read_user")
+                        .anyExchange().authenticated()
+                )
+                .oauth2ResourceServer(oauth2 -> oauth2
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(
+                                new ReactiveJwtAuthenticationConverterAdapter(jwtAuthenticationConverter)))
+                )
+                .build();
+    }
+
+    // Key lookup is an in-memory read of the cached JWKS: it never blocks the event loop
+    @Bean
+    public ReactiveJwtDecoder reactiveJwtDecoder(CachedJwkSource cachedJwkSource,
+                                                 @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuer) {
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder
+                .withJwkSource(jwt -> Flux.fromIterable(
+                        cachedJwkSource.get(new JWKSelector(JWKMatcher.forJWSHeader(jwt.getHeader())), null)))
+                .jwsAlgorithm(SignatureAlgorithm.RS256)
+                .jwsAlgorithm(SignatureAlgorithm.RS384)
+                .jwsAlgorithm(SignatureAlgorithm.RS512)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuer));
+        return decoder;
+    }
+}
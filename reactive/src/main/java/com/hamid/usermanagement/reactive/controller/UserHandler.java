@@ -0,0 +1,100 @@
+package com.hamid.usermanagement.reactive.controller;
+
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.reactive.service.ReactiveUserService;
+import com.hamid.usermanagement.util.ETags;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2CodecSupport;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+// Functional handlers rather than @RestController: ServerResponse carries the
+// Jackson view as a per-response hint, resolved from the reactive security
+// context with the same rule as UserResponseFilter/UserResponseViewAdvice
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserHandler {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final ReactiveUserService userService;
+    private final UserResponseFilter responseFilter;
+
+    // The page is written while rows are read: the next cursor is the id of the last user.
+    // Accept: application/x-ndjson gets one user per line instead of a JSON array
+    public Mono<ServerResponse> getUsers(ServerRequest request) {
+        return Mono.defer(() -> {
+            Role role = request.queryParam("role").map(Role::valueOf).orElse(null);
+            Long after = request.queryParam("after").map(Long::valueOf).orElse(null);
+            int limit = request.queryParam("limit").map(Integer::parseInt).orElse(DEFAULT_PAGE_SIZE);
+            if (limit < 1) {
+                throw new IllegalArgumentException("Limit must be greater than zero: " + limit);
+            }
+            log.debug("GET /api/v1/users - Retrieving users with role: {}, after: {}, limit: {}", role, after, limit);
+
+            MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                    ? MediaType.APPLICATION_NDJSON
+                    : MediaType.APPLICATION_JSON;
+            return view().flatMap(view -> withView(ServerResponse.ok(), view)
+                    .contentType(contentType)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .body(userService.getUsers(role, after, Math.min(limit, MAX_PAGE_SIZE)), UserResponse.class));
+        });
+    }
+
+    // Every user, one per line, with back-pressure down to the database
+    public Mono<ServerResponse> streamUsers(ServerRequest request) {
+        log.debug("GET /api/v1/users/stream - Streaming all users");
+        return view().flatMap(view -> withView(ServerResponse.ok(), view)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(userService.streamUsers(), UserResponse.class));
+    }
+
+    public Mono<ServerResponse> getUserById(ServerRequest request) {
+        return Mono.defer(() -> {
+            Long id = Long.valueOf(request.pathVariable("id"));
+            log.debug("GET /api/v1/users/{} - Retrieving user", id);
+
+            String ifNoneMatch = request.headers().firstHeader(HttpHeaders.IF_NONE_MATCH);
+            return userService.getUserById(id).zipWith(view(), (user, view) -> {
+                String etag = ETags.ofVersion(user.getVersion());
+                if (ETags.matchesAny(ifNoneMatch, etag)) {
+                    return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                            .eTag(etag)
+                            .varyBy(HttpHeaders.AUTHORIZATION)
+                            .build();
+                }
+                return withView(ServerResponse.ok(), view)
+                        .eTag(etag)
+                        .varyBy(HttpHeaders.AUTHORIZATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(user);
+            }).flatMap(response -> response);
+        });
+    }
+
+    // Empty when the exchange is not authenticated: no view, nothing hidden (as resolveCurrentView)
+    private Mono<Optional<Class<?>>> view() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> Optional.<Class<?>>ofNullable(responseFilter.resolveView(context.getAuthentication())))
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    private static ServerResponse.BodyBuilder withView(ServerResponse.BodyBuilder response, Optional<Class<?>> view) {
+        view.ifPresent(jsonView -> response.hint(Jackson2CodecSupport.JSON_VIEW_HINT, jsonView));
+        return response;
+    }
+}
@@ -0,0 +1,36 @@
+package com.hamid.usermanagement.reactive.controller;
+
+import com.hamid.usermanagement.exception.UserNotFoundException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+// Read endpoints of UserController, same paths and error bodies as GlobalExceptionHandler
+@Configuration
+public class UserRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> userRoutes(UserHandler handler) {
+        return RouterFunctions.route()
+                .path("/api/v1/users", users -> users
+                        .GET("/stream", handler::streamUsers)
+                        .GET("/{id}", handler::getUserById)
+                        .GET("", handler::getUsers))
+                .onError(UserNotFoundException.class, (e, request) -> error(HttpStatus.NOT_FOUND, e))
+                .onError(IllegalArgumentException.class, (e, request) -> error(HttpStatus.BAD_REQUEST, e))
+                .build();
+    }
+
+    private static Mono<ServerResponse> error(HttpStatus status, Throwable e) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("error", e.getMessage()));
+    }
+}
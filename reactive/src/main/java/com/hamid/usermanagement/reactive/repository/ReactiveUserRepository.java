@@ -0,0 +1,103 @@
+package com.hamid.usermanagement.reactive.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.RoleSetConverter;
+import com.hamid.usermanagement.entity.User;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Read side of the users tables over R2DBC. Rows become the same User objects the
+// servlet application loads through JPA, so UserMapper can be shared; the roles
+// column layout (user_roles table or roles_mask bitmask) follows user-roles.storage,
+// as META-INF/orm-roles-*.xml does for Hibernate.
+@Repository
+public class ReactiveUserRepository {
+
+    // Users whose roles are loaded with one user_roles query
+    static final int ROLES_BATCH_SIZE = 100;
+
+    private final DatabaseClient databaseClient;
+    private final boolean bitmaskRoles;
+    private final String columns;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient,
+                                  @Value("${user-roles.storage:table}") String rolesStorage) {
+        this.databaseClient = databaseClient;
+        this.bitmaskRoles = "bitmask".equalsIgnoreCase(rolesStorage);
+        this.columns = "u.id, u.username, u.email, u.tax_code, u.first_name, u.last_name, u.version"
+                + (bitmaskRoles ? ", u.roles_mask" : "");
+    }
+
+    public Mono<User> findById(Long id) {
+        Flux<User> user = databaseClient.sql("SELECT " + columns + " FROM users u WHERE u.id = :id")
+                .bind("id", id)
+                .map(this::toUser)
+                .all();
+        return withRoles(user).next();
+    }
+
+    // Keyset page ordered by id: rows are emitted as the driver reads them
+    public Flux<User> findPageAfter(Role role, long after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns).append(" FROM users u WHERE u.id > :after");
+        if (role != null) {
+            sql.append(bitmaskRoles
+                    ? " AND u.roles_mask IN (:masks)"
+                    : " AND EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.id AND r.role = :role)");
+        }
+        sql.append(" ORDER BY u.id LIMIT :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString())
+                .bind("after", after)
+                .bind("limit", limit);
+        if (role != null) {
+            spec = bitmaskRoles
+                    ? spec.bind("masks", Arrays.stream(RoleSetConverter.masksContaining(role)).boxed().toList())
+                    : spec.bind("role", role.name());
+        }
+        return withRoles(spec.map(this::toUser).all());
+    }
+
+    private Flux<User> withRoles(Flux<User> users) {
+        if (bitmaskRoles) {
+            return users;
+        }
+        // Una query user_roles per blocco di utenti, non una per utente
+        return users.buffer(ROLES_BATCH_SIZE).concatMap(this::loadRoles);
+    }
+
+    private Flux<User> loadRoles(List<User> users) {
+        Map<Long, User> byId = new LinkedHashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        return databaseClient.sql("SELECT user_id, role FROM user_roles WHERE user_id IN (:ids)")
+                .bind("ids", List.copyOf(byId.keySet()))
+                .map(row -> {
+                    byId.get(row.get("user_id", Long.class)).getRoles().add(Role.valueOf(row.get("role", String.class)));
+                    return Boolean.TRUE;
+                })
+                .all()
+                .thenMany(Flux.fromIterable(users));
+    }
+
+    private User toUser(Readable row) {
+        return User.builder()
+                .id(row.get("id", Long.class))
+                .username(row.get("username", String.class))
+                .email(row.get("email", String.class))
+                .taxCode(row.get("tax_code", String.class))
+                .firstName(row.get("first_name", String.class))
+                .lastName(row.get("last_name", String.class))
+                .roles(bitmaskRoles ? RoleSetConverter.fromMask(row.get("roles_mask", Integer.class)) : EnumSet.noneOf(Role.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+}
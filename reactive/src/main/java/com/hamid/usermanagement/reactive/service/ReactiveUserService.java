@@ -0,0 +1,12 @@
+package com.hamid.usermanagement.reactive.service;
+
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveUserService {
+    Flux<UserResponse> getUsers(Role role, Long after, int limit);
+    Flux<UserResponse> streamUsers();
+    Mono<UserResponse> getUserById(Long id);
+}
@@ -0,0 +1,58 @@
+package com.hamid.usermanagement.reactive.service;
+
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.User;
+import com.hamid.usermanagement.exception.UserNotFoundException;
+import com.hamid.usermanagement.mapper.UserMapper;
+import com.hamid.usermanagement.reactive.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    private final ReactiveUserRepository userRepository;
+    private final UserMapper userMapper;
+
+    @Override
+    public Flux<UserResponse> getUsers(Role role, Long after, int limit) {
+        if (limit < 1) {
+            return Flux.error(new IllegalArgumentException("Limit must be greater than zero: " + limit));
+        }
+        return userRepository.findPageAfter(role, after != null ? after : 0L, limit)
+                .map(userMapper::toResponse);
+    }
+
+    // Keyset chunks read on demand: the next chunk is queried only once the client
+    // has consumed the previous one, so a slow reader never buffers the table
+    @Override
+    public Flux<UserResponse> streamUsers() {
+        return chunksAfter(0L).map(userMapper::toResponse);
+    }
+
+    @Override
+    public Mono<UserResponse> getUserById(Long id) {
+        return userRepository.findById(id)
+                .map(userMapper::toResponse)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    private Flux<User> chunksAfter(long after) {
+        return userRepository.findPageAfter(null, after, STREAM_CHUNK_SIZE)
+                .collectList()
+                .flatMapMany(chunk -> {
+                    Flux<User> users = Flux.fromIterable(chunk);
+                    if (chunk.size() < STREAM_CHUNK_SIZE) {
+                        return users;
+                    }
+                    long last = chunk.get(chunk.size() - 1).getId();
+                    return users.concatWith(Flux.defer(() -> chunksAfter(last)));
+                });
+    }
+}
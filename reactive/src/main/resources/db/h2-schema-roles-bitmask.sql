@@ -0,0 +1,14 @@
+-- Development schema (in-memory H2) of the roles-bitmask profile: roles in
+-- users.roles_mask, one bit per Role.mask()
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL UNIQUE,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    tax_code   VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    roles_mask INTEGER      NOT NULL,
+    version    BIGINT       NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_users_roles_mask ON users (roles_mask);
@@ -0,0 +1,20 @@
+-- Development schema (in-memory H2) with the servlet application's default
+-- mapping: roles in the user_roles table. Against a shared database the
+-- schema belongs to the servlet application and this file is not used.
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT       NOT NULL PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL UNIQUE,
+    email      VARCHAR(255) NOT NULL UNIQUE,
+    tax_code   VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    version    BIGINT       NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT       NOT NULL REFERENCES users (id),
+    role    VARCHAR(255) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_roles_user_id ON user_roles (user_id);
+CREATE INDEX IF NOT EXISTS idx_user_roles_role ON user_roles (role);
@@ -0,0 +1,176 @@
+package com.hamid.usermanagement.reactive.controller;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.security.AuthorityPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@DisplayName("Reactive User Router Tests")
+class UserRouterTest {
+
+    private static final int USERS = 1_200;
+    private static final GrantedAuthority READ_USER = AuthorityPool.of("read_user");
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM user_roles").then()
+                .then(databaseClient.sql("DELETE FROM users").then())
+                .block();
+        // Piu' di STREAM_CHUNK_SIZE utenti: lo stream attraversa piu' blocchi
+        databaseClient.sql("INSERT INTO users (id, username, email, tax_code, first_name, last_name, version) "
+                        + "SELECT X, 'user' || X, 'user' || X || '@example.com', 'TAX' || X, 'First', 'Last', 3 "
+                        + "FROM SYSTEM_RANGE(1, " + USERS + ")")
+                .then()
+                .block();
+        databaseClient.sql("INSERT INTO user_roles (user_id, role) "
+                        + "SELECT X, CASE WHEN MOD(X, 2) = 0 THEN 'OWNER' ELSE 'DEVELOPER' END FROM SYSTEM_RANGE(1, " + USERS + ")")
+                .then()
+                .block();
+    }
+
+    @Test
+    @DisplayName("Should return a keyset page with every field for ADMIN")
+    void getUsers_AsAdmin_ShouldReturnFullPage() {
+
+        as(AuthorityPool.ROLE_ADMIN, READ_USER)
+                .get().uri("/api/v1/users?after=10&limit=3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(3)
+                .jsonPath("$[*].id").value(contains(11, 12, 13))
+                .jsonPath("$[0].taxCode").isEqualTo("TAX11")
+                .jsonPath("$[1].roles[0]").isEqualTo("OWNER");
+    }
+
+    @Test
+    @DisplayName("Should hide taxCode from OPERATOR and roles from plain users")
+    void getUsers_ShouldApplyRoleView() {
+
+        as(AuthorityPool.ROLE_OPERATOR, READ_USER)
+                .get().uri("/api/v1/users?role=OWNER&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[*].id").value(contains(2, 4))
+                .jsonPath("$[0].taxCode").doesNotExist()
+                .jsonPath("$[0].roles[0]").isEqualTo("OWNER");
+
+        as(READ_USER)
+                .get().uri("/api/v1/users?limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].username").isEqualTo("user1")
+                .jsonPath("$[0].taxCode").doesNotExist()
+                .jsonPath("$[0].roles").doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should stream every user as NDJSON across chunks")
+    void streamUsers_ShouldReturnAllUsers() {
+
+        List<String> lines = as(READ_USER)
+                .get().uri("/api/v1/users/stream")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody()
+                .lines()
+                .toList();
+
+        assertThat(lines).hasSize(USERS);
+        assertThat(lines.get(USERS - 1)).contains("\"id\":" + USERS).doesNotContain("taxCode");
+    }
+
+    @Test
+    @DisplayName("Should return a user with its version as ETag, 304 when unchanged")
+    void getUserById_ShouldHonorIfNoneMatch() {
+
+        as(AuthorityPool.ROLE_ADMIN, READ_USER)
+                .get().uri("/api/v1/users/7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"3\"")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION)
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("user7")
+                .jsonPath("$.roles[0]").isEqualTo(Role.DEVELOPER.name());
+
+        as(AuthorityPool.ROLE_ADMIN, READ_USER)
+                .get().uri("/api/v1/users/7")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should map missing users to 404 and invalid parameters to 400")
+    void errors_ShouldUseErrorBody() {
+
+        as(READ_USER)
+                .get().uri("/api/v1/users/99999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").value(containsString("User not found with id: 99999"));
+
+        as(READ_USER)
+                .get().uri("/api/v1/users?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").value(containsString("Limit"));
+
+        as(READ_USER)
+                .get().uri("/api/v1/users?role=NOBODY")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @DisplayName("Should require a token with read_user")
+    void security_ShouldRequireReadUser() {
+
+        webTestClient.get().uri("/api/v1/users")
+                .exchange()
+                .expectStatus().isUnauthorized();
+
+        as(AuthorityPool.of("create_user"))
+                .get().uri("/api/v1/users")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private WebTestClient as(GrantedAuthority... authorities) {
+        return webTestClient.mutateWith(SecurityMockServerConfigurers.mockJwt().authorities(authorities));
+    }
+}
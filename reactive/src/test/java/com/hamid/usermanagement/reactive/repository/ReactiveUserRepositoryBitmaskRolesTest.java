@@ -0,0 +1,72 @@
+package com.hamid.usermanagement.reactive.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.RoleSetConverter;
+import com.hamid.usermanagement.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.test.StepVerifier;
+
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest(properties = "spring.r2dbc.url=r2dbc:h2:mem:///bitmaskdb?options=DB_CLOSE_DELAY=-1")
+@Import(ReactiveUserRepository.class)
+@ActiveProfiles("roles-bitmask")
+@DisplayName("Reactive User Repository Tests (roles-bitmask profile)")
+class ReactiveUserRepositoryBitmaskRolesTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").then().block();
+        insert(1L, EnumSet.of(Role.OPERATOR, Role.REPORTER));
+        insert(2L, EnumSet.of(Role.DEVELOPER));
+        insert(3L, EnumSet.of(Role.OWNER, Role.OPERATOR));
+    }
+
+    @Test
+    @DisplayName("Should decode roles from the mask")
+    void findById_ShouldDecodeRolesMask() {
+
+        StepVerifier.create(userRepository.findById(1L))
+                .assertNext(user -> assertThat(user.getRoles()).containsExactlyInAnyOrder(Role.OPERATOR, Role.REPORTER))
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should page users having a role")
+    void findPageAfter_ShouldFilterOnMask() {
+
+        StepVerifier.create(userRepository.findPageAfter(Role.OPERATOR, 0L, 10).map(User::getId))
+                .expectNext(1L, 3L)
+                .verifyComplete();
+
+        StepVerifier.create(userRepository.findPageAfter(Role.OPERATOR, 1L, 10).map(User::getId))
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    private void insert(long id, EnumSet<Role> roles) {
+        databaseClient.sql("INSERT INTO users (id, username, email, tax_code, first_name, last_name, roles_mask, version) "
+                        + "VALUES (:id, :username, :email, 'TAX', 'First', 'Last', :mask, 0)")
+                .bind("id", id)
+                .bind("username", "user" + id)
+                .bind("email", "user" + id + "@example.com")
+                .bind("mask", RoleSetConverter.toMask(roles))
+                .then()
+                .block();
+    }
+}
@@ -0,0 +1,97 @@
+package com.hamid.usermanagement.reactive.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@Import(ReactiveUserRepository.class)
+@DisplayName("Reactive User Repository Tests")
+class ReactiveUserRepositoryTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM user_roles").then()
+                .then(databaseClient.sql("DELETE FROM users").then())
+                .block();
+        // Piu' utenti di ROLES_BATCH_SIZE: i ruoli arrivano da piu' query user_roles
+        for (long id = 1; id <= 150; id++) {
+            insert(id, id % 2 == 0 ? Role.OWNER : Role.DEVELOPER, Role.REPORTER);
+        }
+    }
+
+    @Test
+    @DisplayName("Should load a user with all its roles")
+    void findById_ShouldLoadRoles() {
+
+        StepVerifier.create(userRepository.findById(2L))
+                .assertNext(user -> {
+                    assertThat(user.getUsername()).isEqualTo("user2");
+                    assertThat(user.getTaxCode()).isEqualTo("TAX2");
+                    assertThat(user.getVersion()).isZero();
+                    assertThat(user.getRoles()).containsExactlyInAnyOrder(Role.OWNER, Role.REPORTER);
+                })
+                .verifyComplete();
+
+        StepVerifier.create(userRepository.findById(999L)).verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should page users after a cursor, in id order, across role batches")
+    void findPageAfter_ShouldReturnKeysetPage() {
+
+        StepVerifier.create(userRepository.findPageAfter(null, 20L, 120).map(User::getId).collectList())
+                .assertNext(ids -> {
+                    assertThat(ids).hasSize(120);
+                    assertThat(ids.get(0)).isEqualTo(21L);
+                    assertThat(ids).isSorted();
+                })
+                .verifyComplete();
+
+        StepVerifier.create(userRepository.findPageAfter(null, 20L, 120))
+                .thenConsumeWhile(user -> user.getRoles().contains(Role.REPORTER) && user.getRoles().size() == 2)
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should page users having a role")
+    void findPageAfter_ShouldFilterByRole() {
+
+        StepVerifier.create(userRepository.findPageAfter(Role.OWNER, 0L, 3).map(User::getId))
+                .expectNext(2L, 4L, 6L)
+                .verifyComplete();
+    }
+
+    private void insert(long id, Role... roles) {
+        databaseClient.sql("INSERT INTO users (id, username, email, tax_code, first_name, last_name, version) "
+                        + "VALUES (:id, :username, :email, :taxCode, 'First', 'Last', 0)")
+                .bind("id", id)
+                .bind("username", "user" + id)
+                .bind("email", "user" + id + "@example.com")
+                .bind("taxCode", "TAX" + id)
+                .then()
+                .block();
+        for (Role role : roles) {
+            databaseClient.sql("INSERT INTO user_roles (user_id, role) VALUES (:id, :role)")
+                    .bind("id", id)
+                    .bind("role", role.name())
+                    .then()
+                    .block();
+        }
+    }
+}
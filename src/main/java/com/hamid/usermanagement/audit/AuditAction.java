@@ -0,0 +1,18 @@
+package com.hamid.usermanagement.audit;
+
+public enum AuditAction {
+    LIST_USERS,
+    STREAM_USERS,
+    EXPORT_USERS,
+    SEARCH_USERS,
+    LIST_CHANGES,
+    STREAM_CHANGES,
+    GET_USER,
+    CREATE_USER,
+    CREATE_USERS,
+    UPDATE_USER,
+    DELETE_USER,
+    DELETE_USERS,
+    GRANT_ROLE,
+    REVOKE_ROLE
+}
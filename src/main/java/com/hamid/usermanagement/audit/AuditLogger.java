@@ -0,0 +1,112 @@
+package com.hamid.usermanagement.audit;
+
+import com.hamid.usermanagement.security.AuthenticationFacade;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.locks.LockSupport;
+
+// One audit record per service operation, written to the "audit" logger by a
+// background thread. Request threads only claim a preallocated slot: no
+// formatting, no I/O, and nothing at all when audit.enabled is false. Records
+// are dropped (and counted in audit.dropped) rather than blocking when the
+// buffer is full. The writer parks while the buffer is empty and is woken by
+// the next record, so an idle service does not keep it polling.
+@Component
+public class AuditLogger {
+
+    public static final long NO_TARGET = -1L;
+
+    private static final Logger AUDIT_LOG = LoggerFactory.getLogger("audit");
+    private static final int DRAIN_BATCH = 256;
+
+    private final AuthenticationFacade authenticationFacade;
+    private final boolean enabled;
+    private final AuditRingBuffer buffer;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    // Set by the writer before it parks; records seen after it unpark the writer
+    private volatile boolean parked;
+    private Thread writer;
+
+    public AuditLogger(AuthenticationFacade authenticationFacade,
+                       MeterRegistry meterRegistry,
+                       @Value("${audit.enabled:true}") boolean enabled,
+                       @Value("${audit.buffer-size:8192}") int bufferSize) {
+        this.authenticationFacade = authenticationFacade;
+        this.enabled = enabled;
+        this.buffer = enabled ? new AuditRingBuffer(bufferSize) : null;
+        this.dropped = Counter.builder("audit.dropped")
+                .description("Audit records dropped because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    public void record(AuditAction action, long target) {
+        record(action, target, null);
+    }
+
+    // target: id of the affected user (or item count for bulk actions);
+    // detail must be immutable, it is rendered later on the writer thread
+    public void record(AuditAction action, long target, Object detail) {
+        if (!enabled) {
+            return;
+        }
+        if (!buffer.offer(System.currentTimeMillis(), action, authenticationFacade.getCurrentUsername(), target, detail)) {
+            dropped.increment();
+        } else if (parked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (buffer.drain(this::write, DRAIN_BATCH) > 0) {
+                continue;
+            }
+            // Announce the park, then look again: a record offered meanwhile is
+            // either seen here or sees parked and unparks this thread
+            parked = true;
+            if (running && !buffer.hasPending()) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+        while (buffer.drain(this::write, DRAIN_BATCH) > 0) {
+            // flush what was recorded before shutdown
+        }
+    }
+
+    private void write(AuditRingBuffer.Slot slot) {
+        AUDIT_LOG.info("action={} actor={} target={} detail={} at={}",
+                slot.action, slot.actor, slot.target, slot.detail, Instant.ofEpochMilli(slot.timestamp));
+    }
+}
@@ -0,0 +1,88 @@
+package com.hamid.usermanagement.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Bounded multi-producer / single-consumer queue over preallocated slots
+// (Vyukov): each slot carries a sequence telling producers and the consumer
+// whose turn it is, so offering a record never allocates or blocks.
+final class AuditRingBuffer {
+
+    static final class Slot {
+        private volatile long sequence;
+        long timestamp;
+        AuditAction action;
+        String actor;
+        long target;
+        Object detail;
+    }
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    AuditRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Audit buffer size must be a power of two: " + capacity);
+        }
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            slots[i].sequence = i;
+        }
+        mask = capacity - 1;
+    }
+
+    // Returns false when the buffer is full: the caller drops the record
+    boolean offer(long timestamp, AuditAction action, String actor, long target, Object detail) {
+        long position = tail.get();
+        while (true) {
+            Slot slot = slots[(int) position & mask];
+            long difference = slot.sequence - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slot.timestamp = timestamp;
+                    slot.action = action;
+                    slot.actor = actor;
+                    slot.target = target;
+                    slot.detail = detail;
+                    slot.sequence = position + 1;
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    // Single consumer only. The slot is handed back to producers once consumed.
+    int drain(Consumer<Slot> consumer, int maxRecords) {
+        int drained = 0;
+        while (drained < maxRecords) {
+            Slot slot = slots[(int) head & mask];
+            if (slot.sequence != head + 1) {
+                break;
+            }
+            consumer.accept(slot);
+            slot.actor = null;
+            slot.detail = null;
+            slot.sequence = head + slots.length;
+            head++;
+            drained++;
+        }
+        return drained;
+    }
+
+    // Single consumer only: true when the next drain has a record to hand out
+    boolean hasPending() {
+        return slots[(int) head & mask].sequence == head + 1;
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+}
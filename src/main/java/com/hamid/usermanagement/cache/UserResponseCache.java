@@ -0,0 +1,85 @@
+package com.hamid.usermanagement.cache;
+
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.event.UserDeletedEvent;
+import com.hamid.usermanagement.event.UserUpdatedEvent;
+import com.hamid.usermanagement.event.UsersDeletedEvent;
+import com.hamid.usermanagement.event.UsersRoleChangedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Unfiltered UserResponse by id: role-based filtering is applied on every read.
+// Size/TTL and hit/miss/eviction stats come from spring.cache.caffeine.spec
+// (exposed as cache.* metrics on /actuator/metrics).
+// Each eviction bumps a stamp (striped by id): a read that loaded the user
+// before a concurrent update committed drops its put once the stamp moved,
+// instead of bringing the old profile back for the whole TTL.
+@Component
+public class UserResponseCache {
+
+    public static final String CACHE_NAME = "users";
+
+    private static final int STAMP_STRIPES = 1024;
+
+    private final Cache cache;
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+
+    public UserResponseCache(CacheManager cacheManager) {
+        this.cache = Objects.requireNonNull(cacheManager.getCache(CACHE_NAME), "Cache not configured: " + CACHE_NAME);
+    }
+
+    public UserResponse get(Long id) {
+        return cache.get(id, UserResponse.class);
+    }
+
+    // Read before loading the user, then passed to put
+    public long stamp(Long id) {
+        return stamps.get(stripe(id));
+    }
+
+    // Checked after the put: an eviction either runs after it (and removes it)
+    // or has already bumped the stamp, so the entry is removed here
+    public void put(UserResponse response, long stamp) {
+        Long id = response.getId();
+        cache.put(id, response);
+        if (stamps.get(stripe(id)) != stamp) {
+            cache.evict(id);
+        }
+    }
+
+    public void evict(Long id) {
+        stamps.incrementAndGet(stripe(id));
+        cache.evict(id);
+    }
+
+    private static int stripe(Long id) {
+        return Math.floorMod(id.hashCode(), STAMP_STRIPES);
+    }
+
+    // Runs in the writer's thread once the change is committed, before the service call returns
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        evict(event.getUser().getId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        evict(event.getUserId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsersDeleted(UsersDeletedEvent event) {
+        event.getUserIds().forEach(this::evict);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsersRoleChanged(UsersRoleChangedEvent event) {
+        event.getUserIds().forEach(this::evict);
+    }
+}
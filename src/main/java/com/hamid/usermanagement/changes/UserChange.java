@@ -0,0 +1,41 @@
+package com.hamid.usermanagement.changes;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Append-only log of user changes (GET /api/v1/users/changes). Rows are written
+// only by UserChangeLog from the outbox relay, which runs on a single instance,
+// one transaction per relayed batch. Ids are taken one at a time from the
+// sequence (no pooled blocks per instance), so they grow in commit order and
+// a reader's "since" cursor never skips a row.
+@Entity
+@Table(name = "user_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_changes_seq")
+    @SequenceGenerator(name = "user_changes_seq", sequenceName = "user_changes_seq", allocationSize = 1)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private UserChangeType type;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    // UserResponse snapshot of the outbox event; null for tombstones
+    @Lob
+    @Column(updatable = false)
+    private String payload;
+
+    @Column(name = "changed_at", nullable = false, updatable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,161 @@
+package com.hamid.usermanagement.changes;
+
+import com.hamid.usermanagement.audit.AuditAction;
+import com.hamid.usermanagement.audit.AuditLogger;
+import com.hamid.usermanagement.dto.response.UserChangeResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Push mode of the change feed (GET /api/v1/users/changes/stream): each subscriber
+// is an SSE stream with its own cursor. The log is polled for its latest id only
+// while someone is subscribed, so changes written by the relay instance reach
+// subscribers on every instance sharing the database. Events carry the change id,
+// so a client reconnecting after the stream timeout (or a network error) resumes
+// with Last-Event-ID.
+@Component
+@Slf4j
+public class UserChangeFeed {
+
+    private final UserChangeLog userChangeLog;
+    private final UserChangeRepository userChangeRepository;
+    private final AuditLogger auditLogger;
+    private final TaskExecutor taskExecutor;
+    private final Duration timeout;
+    private final int batchSize;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public UserChangeFeed(UserChangeLog userChangeLog,
+                          UserChangeRepository userChangeRepository,
+                          AuditLogger auditLogger,
+                          @Qualifier("applicationTaskExecutor") TaskExecutor taskExecutor,
+                          MeterRegistry meterRegistry,
+                          @Value("${user-changes.stream.timeout:15m}") Duration timeout,
+                          @Value("${user-changes.stream.batch-size:500}") int batchSize) {
+        this.userChangeLog = userChangeLog;
+        this.userChangeRepository = userChangeRepository;
+        this.auditLogger = auditLogger;
+        this.taskExecutor = taskExecutor;
+        this.timeout = timeout;
+        this.batchSize = batchSize;
+        Gauge.builder("user.changes.subscribers", subscriptions, Set::size)
+                .description("Open change feed streams")
+                .register(meterRegistry);
+    }
+
+    // The view is the subscriber's, resolved on the request thread: changes are
+    // sent from the task executor, where there is no security context
+    public SseEmitter subscribe(long since, Class<?> view) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(emitter, view, since);
+        subscriptions.add(subscription);
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscriptions.remove(subscription));
+        signal(subscription);
+        auditLogger.record(AuditAction.STREAM_CHANGES, since);
+        return emitter;
+    }
+
+    @Scheduled(initialDelayString = "${user-changes.stream.poll-interval:1s}",
+            fixedDelayString = "${user-changes.stream.poll-interval:1s}")
+    public void poll() {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Long latest = userChangeRepository.findLatestId();
+        if (latest == null) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            if (subscription.cursor < latest) {
+                signal(subscription);
+            }
+        }
+    }
+
+    // At most one task per subscriber: a signal arriving while it runs makes it read again
+    private void signal(Subscription subscription) {
+        subscription.pending.set(true);
+        if (subscription.running.compareAndSet(false, true)) {
+            taskExecutor.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        try {
+            while (subscription.pending.getAndSet(false)) {
+                if (!send(subscription)) {
+                    return;
+                }
+            }
+        } finally {
+            subscription.running.set(false);
+        }
+        if (subscription.pending.get()) {
+            signal(subscription);
+        }
+    }
+
+    // Every change after the cursor, one page at a time; false once the client is gone
+    private boolean send(Subscription subscription) {
+        try {
+            List<UserChangeResponse> changes;
+            do {
+                changes = userChangeLog.changesAfter(subscription.cursor, batchSize);
+                for (UserChangeResponse change : changes) {
+                    MappingJacksonValue data = new MappingJacksonValue(change);
+                    data.setSerializationView(subscription.view);
+                    subscription.emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getId()))
+                            .data(data, MediaType.APPLICATION_JSON));
+                    subscription.cursor = change.getId();
+                }
+            } while (changes.size() == batchSize);
+            return true;
+        } catch (IOException e) {
+            // Client disconnected: the container reports the error to the emitter
+            log.debug("Change feed subscriber dropped at {}: {}", subscription.cursor, e.getMessage());
+            subscriptions.remove(subscription);
+            return false;
+        } catch (RuntimeException e) {
+            // Not subscribed any more: the stream completed (timeout) while sending
+            if (subscriptions.remove(subscription)) {
+                log.warn("Change feed stream failed at {}", subscription.cursor, e);
+                subscription.emitter.completeWithError(e);
+            }
+            return false;
+        }
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final Class<?> view;
+        private final AtomicBoolean pending = new AtomicBoolean();
+        private final AtomicBoolean running = new AtomicBoolean();
+        // Written only by the task holding "running"
+        private volatile long cursor;
+
+        Subscription(SseEmitter emitter, Class<?> view, long cursor) {
+            this.emitter = emitter;
+            this.view = view;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.hamid.usermanagement.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamid.usermanagement.dto.response.UserChangeResponse;
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.outbox.OutboxEvent;
+import com.hamid.usermanagement.outbox.OutboxJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Writer and reader of user_changes. As an OutboxJournal it runs inside the
+// transaction that claims (SKIP LOCKED) a batch of unjournaled outbox rows and
+// marks them journaled: the batch is appended here atomically, so every change
+// is logged once, in the order of the single relay (see OutboxRelay). Sinks
+// are not waited for: a change is listed one relay poll after its commit.
+@Component
+@RequiredArgsConstructor
+public class UserChangeLog implements OutboxJournal {
+
+    private final UserChangeRepository userChangeRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void append(List<OutboxEvent> batch) {
+        List<UserChange> changes = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            UserChangeType type = switch (event.getType()) {
+                case OutboxEvent.USER_CREATED -> UserChangeType.CREATED;
+                case OutboxEvent.USER_UPDATED -> UserChangeType.UPDATED;
+                case OutboxEvent.USER_DELETED -> UserChangeType.DELETED;
+                default -> null;
+            };
+            if (type == null) {
+                continue;
+            }
+            changes.add(UserChange.builder()
+                    .type(type)
+                    .userId(event.getAggregateId())
+                    .payload(type == UserChangeType.DELETED ? null : event.getPayload())
+                    .changedAt(event.getCreatedAt())
+                    .build());
+        }
+        userChangeRepository.saveAll(changes);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserChangeResponse> changesAfter(long since, int limit) {
+        return userChangeRepository.findByIdGreaterThanOrderByIdAsc(since, Limit.of(limit))
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    private UserChangeResponse toResponse(UserChange change) {
+        return UserChangeResponse.builder()
+                .id(change.getId())
+                .type(change.getType())
+                .userId(change.getUserId())
+                .changedAt(change.getChangedAt())
+                .user(change.getPayload() != null ? readUser(change) : null)
+                .build();
+    }
+
+    private UserResponse readUser(UserChange change) {
+        try {
+            return objectMapper.readValue(change.getPayload(), UserResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload for user change " + change.getId(), e);
+        }
+    }
+}
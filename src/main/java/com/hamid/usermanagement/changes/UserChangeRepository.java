@@ -0,0 +1,14 @@
+package com.hamid.usermanagement.changes;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+    List<UserChange> findByIdGreaterThanOrderByIdAsc(Long since, Limit limit);
+
+    @Query("select max(c.id) from UserChange c")
+    Long findLatestId();
+}
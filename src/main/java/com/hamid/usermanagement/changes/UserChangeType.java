@@ -0,0 +1,8 @@
+package com.hamid.usermanagement.changes;
+
+// Kind of an entry of the user change log; DELETED entries are tombstones without a user
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -1,9 +1,84 @@
 package com.hamid.usermanagement.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
-@EnableAsync
+@EnableAsync(proxyTargetClass = true)
 public class AsyncConfig {
-}
\ No newline at end of file
+
+    public static final String USER_EVENT_EXECUTOR = "userEventExecutor";
+
+    // Pool dedicato agli eventi utente: coda limitata e, quando e' piena, il task
+    // gira sul thread che pubblica l'evento (back-pressure invece di accodare senza limiti).
+    // Pool size/active/queued sono esposti da Boot come executor.* con tag name=userEventExecutor.
+    @Bean(name = USER_EVENT_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor userEventExecutor(
+            @Value("${user-events.executor.core-size:4}") int coreSize,
+            @Value("${user-events.executor.max-size:8}") int maxSize,
+            @Value("${user-events.executor.queue-capacity:1000}") int queueCapacity,
+            MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("user-events-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setTaskDecorator(timingDecorator(meterRegistry));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // spring.threads.virtual.enabled su Java 21+: un virtual thread per evento, niente pool.
+    // Il limite di concorrenza sostituisce coda + CallerRunsPolicy: oltre il limite chi
+    // pubblica l'evento si blocca finche' un evento in corso non termina.
+    @Bean(name = USER_EVENT_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualUserEventExecutor(
+            @Value("${user-events.executor.virtual-concurrency-limit:1000}") int concurrencyLimit,
+            MeterRegistry meterRegistry) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("user-events-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskDecorator(timingDecorator(meterRegistry));
+        executor.setTaskTerminationTimeout(TimeUnit.SECONDS.toMillis(30));
+        return executor;
+    }
+
+    // user.events.wait: time spent in the queue (or blocked on the virtual-thread concurrency limit);
+    // user.events.execution: time spent running
+    private static TaskDecorator timingDecorator(MeterRegistry meterRegistry) {
+        Timer waitTimer = Timer.builder("user.events.wait")
+                .description("Time user events wait in the executor queue")
+                .register(meterRegistry);
+        Timer executionTimer = Timer.builder("user.events.execution")
+                .description("Time spent handling user events")
+                .register(meterRegistry);
+        return runnable -> {
+            long submittedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    runnable.run();
+                } finally {
+                    executionTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        };
+    }
+}
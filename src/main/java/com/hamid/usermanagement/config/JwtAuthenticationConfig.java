@@ -0,0 +1,53 @@
+package com.hamid.usermanagement.config;
+
+import com.hamid.usermanagement.config.SecurityConfig.KeycloakRoleConverter;
+import com.hamid.usermanagement.security.CachedJwkSource;
+import com.hamid.usermanagement.security.CallerAuthenticationConverter;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import com.nimbusds.jose.jwk.JWKSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// JWT setup shared by the servlet application and the reactive module (imported
+// by ReactiveUsermanagementApplication): signing keys from CachedJwkSource, Keycloak
+// roles and the caller context. Each stack only builds its own decoder and filter chain.
+@Configuration(proxyBeanMethods = false)
+public class JwtAuthenticationConfig {
+
+    private static final int JWKS_SIZE_LIMIT = 50 * 1024;
+
+    @Bean
+    public CachedJwkSource cachedJwkSource(
+            @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+            @Value("${security.jwt.jwks.cache-file}") Path cacheFile,
+            @Value("${security.jwt.jwks.refresh-interval:5m}") Duration refreshInterval,
+            @Value("${security.jwt.jwks.min-refresh-interval:30s}") Duration minRefreshInterval,
+            @Value("${security.jwt.jwks.timeout:2s}") Duration timeout,
+            MeterRegistry meterRegistry) throws Exception {
+        URL url = URI.create(jwkSetUri).toURL();
+        int timeoutMillis = (int) timeout.toMillis();
+        return new CachedJwkSource(() -> JWKSet.load(url, timeoutMillis, timeoutMillis, JWKS_SIZE_LIMIT),
+                cacheFile, refreshInterval, minRefreshInterval, meterRegistry);
+    }
+
+    @Bean
+    public KeycloakRoleConverter keycloakRoleConverter(
+            MeterRegistry meterRegistry,
+            @Value("${security.jwt.authorities-cache.maximum-size:10000}") long maximumSize) {
+        return new KeycloakRoleConverter(maximumSize).monitor(meterRegistry);
+    }
+
+    // Authorities from KeycloakRoleConverter plus the CallerContext (audit actor, response view) of the request
+    @Bean
+    public CallerAuthenticationConverter jwtAuthenticationConverter(KeycloakRoleConverter keycloakRoleConverter,
+                                                                    UserResponseFilter userResponseFilter) {
+        return new CallerAuthenticationConverter(keycloakRoleConverter, userResponseFilter);
+    }
+}
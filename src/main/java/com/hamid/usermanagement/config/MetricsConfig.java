@@ -0,0 +1,71 @@
+package com.hamid.usermanagement.config;
+
+import com.hamid.usermanagement.dto.response.UserViews;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Meters beside the ones Boot records (http.server.requests, spring.data.repository.invocations,
+// hibernate.*): user.service timers come from @Timed on UserServiceImpl, and every API
+// request is counted here by the caller's role. Histograms and percentiles are set
+// under management.metrics.distribution in application.yml.
+@Configuration
+public class MetricsConfig {
+
+    // Bean rather than a WebMvcConfigurer class: MVC slice tests (@WebMvcTest) have no MeterRegistry
+    @Bean
+    public WebMvcConfigurer roleRequestMetrics(MeterRegistry meterRegistry, UserResponseFilter userResponseFilter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new RoleRequestCounter(meterRegistry, userResponseFilter))
+                        .addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    // users.requests{role, method, uri}: the role is the one deciding the response view
+    // (ADMIN, OPERATOR, USER), so the counts match what UserResponseFilter serves.
+    // Requests rejected by the security filters (401) never reach the interceptor.
+    static class RoleRequestCounter implements HandlerInterceptor {
+
+        private final MeterRegistry meterRegistry;
+        private final UserResponseFilter userResponseFilter;
+
+        RoleRequestCounter(MeterRegistry meterRegistry, UserResponseFilter userResponseFilter) {
+            this.meterRegistry = meterRegistry;
+            this.userResponseFilter = userResponseFilter;
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                    Object handler, Exception ex) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Counter.builder("users.requests")
+                    .description("API requests by role of the caller")
+                    .tag("role", role(userResponseFilter.resolveCurrentView()))
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        private static String role(Class<?> view) {
+            if (view == UserViews.Admin.class) {
+                return "ADMIN";
+            }
+            if (view == UserViews.Operator.class) {
+                return "OPERATOR";
+            }
+            return view == UserViews.Basic.class ? "USER" : "NONE";
+        }
+    }
+}
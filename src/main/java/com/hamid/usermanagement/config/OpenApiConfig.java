@@ -57,11 +57,23 @@ public class OpenApiConfig {
                                 | reader_user | USER | read_user |
                                 
                                 ## Endpoints Authorization:
-                                - **GET /api/v1/users** - Requires: `read_user` (All roles)
+                                - **GET /api/v1/users** - Requires: `read_user` (All roles), keyset paginated with `limit`/`after`
+                                - **GET /api/v1/users/search** - Requires: `read_user` (All roles), prefix/contains search on names, username, email
+                                - **GET /api/v1/users/typeahead** - Requires: `read_user` (All roles), in-memory autocomplete
+                                - **GET /api/v1/users/stream** - Requires: `read_user` (All roles)
                                 - **GET /api/v1/users/{id}** - Requires: `read_user` (All roles)
                                 - **POST /api/v1/users** - Requires: `create_user` (ADMIN, OPERATOR)
+                                - **POST /api/v1/users/batch** - Requires: `create_user` (ADMIN, OPERATOR)
                                 - **PUT /api/v1/users/{id}** - Requires: `update_user` (ADMIN, OPERATOR)
+                                - **PATCH /api/v1/users/{id}** - Requires: `update_user` (ADMIN, OPERATOR), `application/merge-patch+json`
                                 - **DELETE /api/v1/users/{id}** - Requires: `delete_user` (ADMIN only)
+                                - **DELETE /api/v1/users?ids=** - Requires: `delete_user` (ADMIN only), bulk delete
+                                - **POST /api/v1/users/roles** - Requires: `update_user` (ADMIN, OPERATOR), bulk grant/revoke of a role
+                                
+                                ## Conditional requests
+                                Users and pages of users carry an `ETag` (the user's version, or a digest of the versions of the page).
+                                Send it in `If-None-Match` on GET to get `304 Not Modified`, and in `If-Match` on PUT to get
+                                `412 Precondition Failed` instead of overwriting a newer version.
                                 """)
                         .version("1.0.0")
                         .contact(new Contact()
@@ -1,5 +1,12 @@
 package com.hamid.usermanagement.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.hamid.usermanagement.security.AuthorityPool;
+import com.hamid.usermanagement.security.CallerAuthenticationConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
@@ -8,23 +15,26 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    public static final String SCRAPE_METRICS = "scrape_metrics";
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   CallerAuthenticationConverter jwtAuthenticationConverter) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session
@@ -33,38 +43,76 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/swagger-ui/**", "/api-docs/**", "/h2-console/**").permitAll()
                         .requestMatchers("/oauth/callback").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Probes stay open; the other endpoints (metrics, caches) read or clear internal state
+                        .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                        // Scraped by Prometheus with a service-account token carrying the scrape_metrics client role
+                        .requestMatchers("/actuator/prometheus").hasAnyAuthority(SCRAPE_METRICS, "ROLE_ADMIN")
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/v1/users/**").authenticated()
 
                         .anyRequest().authenticated()
                 )
                 .oauth2ResourceServer(oauth2 -> oauth2
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
                 )
                 .headers(headers -> headers.frameOptions(frame -> frame.sameOrigin()));
 
         return http.build();
     }
 
-    @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
-        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(new KeycloakRoleConverter());
-        return converter;
-    }
+    // Authorities parsed from a token are cached until the token expires:
+    // clients reuse the same token for minutes, so repeat requests get the
+    // same immutable, pooled (AuthorityPool) collection without re-parsing claims.
+    // Public: the reactive module (reactive/) authenticates with the same converter,
+    // registered for both by JwtAuthenticationConfig
+    public static class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+        // Tokens without "exp" (not issued by Keycloak) are cached briefly
+        private static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
 
-    static class KeycloakRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+        private final Cache<String, CachedAuthorities> cache;
+
+        public KeycloakRoleConverter(long maximumSize) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfter(new TokenExpiry())
+                    .recordStats()
+                    .build();
+        }
+
+        // Hit/miss/eviction counters as cache.* metrics, tag cache=jwtAuthorities
+        public KeycloakRoleConverter monitor(MeterRegistry meterRegistry) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtAuthorities");
+            return this;
+        }
 
         @Override
         public Collection<GrantedAuthority> convert(Jwt jwt) {
-            List<GrantedAuthority> authorities = new java.util.ArrayList<>();
+            // jti identifies a signed token; fall back to the raw token when missing
+            String key = jwt.getId() != null ? jwt.getId() : jwt.getTokenValue();
+            CachedAuthorities cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return cached.authorities();
+            }
+
+            List<GrantedAuthority> authorities = parseAuthorities(jwt);
+            Duration ttl = jwt.getExpiresAt() != null
+                    ? Duration.between(Instant.now(), jwt.getExpiresAt())
+                    : DEFAULT_TTL;
+            if (!ttl.isNegative() && !ttl.isZero()) {
+                cache.put(key, new CachedAuthorities(authorities, ttl.toNanos()));
+            }
+            return authorities;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<GrantedAuthority> parseAuthorities(Jwt jwt) {
+            List<GrantedAuthority> authorities = new ArrayList<>();
 
             Map<String, Object> realmAccess = jwt.getClaimAsMap("realm_access");
             if (realmAccess != null && realmAccess.containsKey("roles")) {
                 List<String> realmRoles = (List<String>) realmAccess.get("roles");
-                authorities.addAll(realmRoles.stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                        .collect(Collectors.toList()));
+                realmRoles.forEach(role -> authorities.add(AuthorityPool.of("ROLE_" + role.toUpperCase())));
             }
 
             Map<String, Object> resourceAccess = jwt.getClaimAsMap("resource_access");
@@ -72,13 +120,32 @@ public class SecurityConfig {
                 Map<String, Object> demoTask = (Map<String, Object>) resourceAccess.get("demo-task");
                 if (demoTask != null && demoTask.containsKey("roles")) {
                     List<String> clientRoles = (List<String>) demoTask.get("roles");
-                    authorities.addAll(clientRoles.stream()
-                            .map(SimpleGrantedAuthority::new)
-                            .collect(Collectors.toList()));
+                    clientRoles.forEach(role -> authorities.add(AuthorityPool.of(role)));
                 }
             }
 
-            return authorities;
+            return List.copyOf(authorities);
+        }
+
+        private record CachedAuthorities(List<GrantedAuthority> authorities, long ttlNanos) {
+        }
+
+        private static class TokenExpiry implements Expiry<String, CachedAuthorities> {
+
+            @Override
+            public long expireAfterCreate(String key, CachedAuthorities value, long currentTime) {
+                return value.ttlNanos();
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, CachedAuthorities value, long currentTime, long currentDuration) {
+                return value.ttlNanos();
+            }
+
+            @Override
+            public long expireAfterRead(String key, CachedAuthorities value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
         }
     }
 }
@@ -0,0 +1,26 @@
+package com.hamid.usermanagement.config;
+
+import com.hamid.usermanagement.util.UserWireFormats;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+// Converters for the binary formats of UserWireFormats, replacing the ones Spring MVC
+// would build with a default ObjectMapper. Accept: application/cbor or
+// application/x-jackson-smile selects them for any body of UserController, and
+// UserResponseViewAdvice applies the role view to them as it does to JSON.
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(UserWireFormats wireFormats) {
+        return new MappingJackson2CborHttpMessageConverter(wireFormats.mapperFor(MediaType.APPLICATION_CBOR));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(UserWireFormats wireFormats) {
+        return new MappingJackson2SmileHttpMessageConverter(wireFormats.mapperFor(UserWireFormats.APPLICATION_SMILE));
+    }
+}
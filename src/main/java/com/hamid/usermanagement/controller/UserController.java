@@ -1,8 +1,29 @@
 package com.hamid.usermanagement.controller;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hamid.usermanagement.changes.UserChangeFeed;
+import com.hamid.usermanagement.dto.request.BatchCreateUsersRequest;
+import com.hamid.usermanagement.dto.request.BulkLimits;
+import com.hamid.usermanagement.dto.request.BulkRoleRequest;
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.request.PatchUserRequest;
 import com.hamid.usermanagement.dto.request.UpdateUserRequest;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse;
+import com.hamid.usermanagement.dto.response.BulkOperationResponse;
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
+import com.hamid.usermanagement.dto.response.UserChangeResponse;
 import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.repository.UserSearch;
+import com.hamid.usermanagement.repository.UserSelection;
+import com.hamid.usermanagement.repository.UserVersion;
 import com.hamid.usermanagement.service.UserService;
+import com.hamid.usermanagement.util.ETags;
+import com.hamid.usermanagement.util.ResponseCompression;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import com.hamid.usermanagement.util.UserWireFormats;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,12 +35,22 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/users")
@@ -29,41 +60,335 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class UserController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
+    static final String MERGE_PATCH_JSON = "application/merge-patch+json";
+    static final int DEFAULT_CHANGES_PAGE_SIZE = 500;
+    static final int MAX_CHANGES_PAGE_SIZE = 5000;
+
     private final UserService userService;
+    private final UserResponseFilter responseFilter;
+    private final UserWireFormats wireFormats;
+    private final UserChangeFeed userChangeFeed;
 
     @GetMapping
     @PreAuthorize("hasAuthority('read_user')")
     @Operation(
-            summary = "Get all users",
-            description = "Retrieve a list of all users. Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+            summary = "Get users (keyset paginated)",
+            description = "Retrieve a page of users ordered by id. Pass the id of the last user received as 'after' to get the next page. "
+                    + "Optionally filter by role. The next cursor is also returned in the X-Next-Cursor and Link headers. "
+                    + "Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page"),
+            @ApiResponse(responseCode = "304", description = "Page unchanged since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission")
+    })
+    public ResponseEntity<List<UserResponse>> getUsers(
+            @Parameter(description = "Only return users having this role")
+            @RequestParam(required = false) Role role,
+            @Parameter(description = "Id of the last user of the previous page (exclusive)")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of users to return (max " + MAX_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit,
+            @Parameter(description = "ETag of a previously received copy of this page")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("GET /api/v1/users - Retrieving users with role: {}, after: {}, limit: {}", role, after, limit);
+
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        // Revalidation only needs ids and versions: nothing is loaded, mapped or serialized
+        if (ifNoneMatch != null) {
+            String etag = ETags.ofPage(userService.getUserVersions(role, after, pageSize));
+            if (ETags.matchesAny(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
+
+        List<UserResponse> users = userService.getUsers(role, after, pageSize);
+        List<UserVersion> versions = users.stream()
+                .map(user -> new UserVersion(user.getId(), user.getVersion()))
+                .toList();
+        return page(users, pageSize, ETags.ofPage(versions));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAuthority('read_user')")
+    @Operation(
+            summary = "Search users (keyset paginated)",
+            description = "Search users whose first name, last name, username or email matches 'q'. With match=PREFIX (default) "
+                    + "the comparison is case-sensitive and served by the column indexes; match=CONTAINS is case-insensitive "
+                    + "and scans the table. Optionally restrict the fields and filter by role. Results are ordered by id and "
+                    + "paginated like GET /api/v1/users. Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved page"),
+            @ApiResponse(responseCode = "400", description = "Missing search term or invalid parameters"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission")
+    })
+    public ResponseEntity<List<UserResponse>> searchUsers(
+            @Parameter(description = "Search term", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Fields to match (default: all)")
+            @RequestParam(required = false) Set<UserSearch.Field> fields,
+            @Parameter(description = "PREFIX (default, indexed) or CONTAINS")
+            @RequestParam(defaultValue = "PREFIX") UserSearch.Match match,
+            @Parameter(description = "Only return users having this role")
+            @RequestParam(required = false) Role role,
+            @Parameter(description = "Id of the last user of the previous page (exclusive)")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Maximum number of users to return (max " + MAX_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("GET /api/v1/users/search - Searching users with q: {}, fields: {}, match: {}, role: {}, after: {}, limit: {}",
+                q, fields, match, role, after, limit);
+
+        UserSearch.UserSearchBuilder search = UserSearch.builder().term(q).match(match).role(role);
+        if (fields != null && !fields.isEmpty()) {
+            search.fields(EnumSet.copyOf(fields));
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        return page(userService.searchUsers(search.build(), after, pageSize), pageSize, null);
+    }
+
+    @GetMapping("/typeahead")
+    @PreAuthorize("hasAuthority('read_user')")
+    @Operation(
+            summary = "Autocomplete users",
+            description = "Suggest users whose username, email, first name or last name starts with 'q' (case-insensitive for ASCII letters), "
+                    + "one suggestion per user, ordered by the matching value. Served from an in-memory index, meant to be called on every keystroke. "
+                    + "Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved list"),
+            @ApiResponse(responseCode = "200", description = "Suggestions returned"),
+            @ApiResponse(responseCode = "400", description = "Missing prefix or invalid limit"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
             @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission")
     })
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        log.info("GET /api/v1/users - Retrieving all users");
-        return ResponseEntity.ok(userService.getAllUsers());
+    public ResponseEntity<List<TypeaheadSuggestion>> suggestUsers(
+            @Parameter(description = "Prefix typed so far", required = true)
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of suggestions (max " + MAX_SUGGESTIONS + ")")
+            @RequestParam(defaultValue = "" + DEFAULT_SUGGESTIONS) int limit) {
+        log.debug("GET /api/v1/users/typeahead - Suggesting users for q: {}, limit: {}", q, limit);
+        return ResponseEntity.ok(userService.suggestUsers(q, Math.min(limit, MAX_SUGGESTIONS)));
+    }
+
+    // A full page means there may be more: the cursor of the next page is the last id
+    private static ResponseEntity<List<UserResponse>> page(List<UserResponse> users, int pageSize, String etag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT);
+        if (users.size() == pageSize) {
+            Long nextCursor = users.get(users.size() - 1).getId();
+            String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", nextCursor)
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor))
+                    .header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+        }
+        return response.body(users);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    @GetMapping(value = "/stream", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            UserWireFormats.APPLICATION_SMILE_VALUE})
+    @PreAuthorize("hasAuthority('read_user')")
+    @Operation(
+            summary = "Stream all users",
+            description = "Stream every user as a JSON array, written while rows are read so memory stays flat regardless of table size. "
+                    + "Send Accept: application/cbor or application/x-jackson-smile for the same array in a binary encoding. "
+                    + "Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users streamed"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission")
+    })
+    public ResponseEntity<StreamingResponseBody> streamUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        log.debug("GET /api/v1/users/stream - Streaming all users");
+        MediaType format = wireFormats.negotiate(accept);
+        ObjectMapper mapper = wireFormats.mapperFor(format);
+        ObjectWriter writer = mapper.writerFor(UserResponse.class)
+                .withView(responseFilter.resolveCurrentView())
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.writeStartArray();
+                userService.streamUsers(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('read_user')")
+    @Operation(
+            summary = "Export all users (NDJSON)",
+            description = "Export every user as newline-delimited JSON, one user per line, read from a single database cursor "
+                    + "so memory stays flat regardless of table size. Compressed with zstd or gzip when listed in Accept-Encoding. "
+                    + "Fields are redacted per role as in the other endpoints. "
+                    + "Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users exported"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission")
+    })
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("GET /api/v1/users/export - Exporting all users");
+        ResponseCompression compression = ResponseCompression.negotiate(acceptEncoding);
+        ObjectMapper mapper = wireFormats.mapperFor(MediaType.APPLICATION_JSON);
+        ObjectWriter writer = mapper.writerFor(UserResponse.class)
+                .withView(responseFilter.resolveCurrentView())
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (OutputStream encoded = compression.wrap(outputStream);
+                 JsonGenerator generator = mapper.getFactory().createGenerator(encoded)
+                         .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.setRootValueSeparator(null);
+                userService.exportUsers(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_ENCODING);
+        if (compression.coding() != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, compression.coding());
+        }
+        return response.body(body);
+    }
+
+    @GetMapping("/changes")
+    @PreAuthorize("hasAuthority('read_user')")
+    @Operation(
+            summary = "Get user changes (keyset paginated)",
+            description = "Retrieve the changes (CREATED, UPDATED, DELETED) recorded after the cursor 'since', oldest first, "
+                    + "each with a snapshot of the user (none for deletions). Store the X-Next-Cursor header and send it back "
+                    + "as 'since' to get only what changed in the meantime. Changes appear once journaled by the outbox "
+                    + "relay, within one relay poll (outbox.relay.poll-interval, 1s by default) of the commit, whatever the "
+                    + "event listeners are doing. Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved changes"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission")
+    })
+    public ResponseEntity<List<UserChangeResponse>> getChanges(
+            @Parameter(description = "Id of the last change received (exclusive); omit to read the log from the start")
+            @RequestParam(required = false) Long since,
+            @Parameter(description = "Maximum number of changes to return (max " + MAX_CHANGES_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "" + DEFAULT_CHANGES_PAGE_SIZE) int limit) {
+        log.debug("GET /api/v1/users/changes - Retrieving changes since: {}, limit: {}", since, limit);
+
+        int pageSize = Math.min(limit, MAX_CHANGES_PAGE_SIZE);
+        List<UserChangeResponse> changes = userService.getChanges(since, pageSize);
+
+        // The cursor is sent even on an empty page: it is where the next poll starts
+        long nextCursor = changes.isEmpty() ? (since != null ? since : 0L) : changes.get(changes.size() - 1).getId();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT)
+                .header(NEXT_CURSOR_HEADER, String.valueOf(nextCursor));
+        if (changes.size() == pageSize) {
+            String nextLink = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("since", nextCursor)
+                    .replaceQueryParam("limit", pageSize)
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + nextLink + ">; rel=\"next\"");
+        }
+        return response.body(changes);
+    }
+
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAuthority('read_user')")
+    @Operation(
+            summary = "Stream user changes (Server-Sent Events)",
+            description = "Send every change after 'since' (or the Last-Event-ID header), then keep the connection open and push "
+                    + "new changes as they are recorded. Each event's id is the change cursor, so a reconnecting client resumes "
+                    + "where it stopped. The stream is closed after a while and must be reopened with a valid token. "
+                    + "Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission")
+    })
+    public SseEmitter streamChanges(
+            @Parameter(description = "Id of the last change received (exclusive)")
+            @RequestParam(required = false) Long since,
+            @Parameter(description = "Set by EventSource when reconnecting; takes precedence over 'since'")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.debug("GET /api/v1/users/changes/stream - Streaming changes since: {}", lastEventId != null ? lastEventId : since);
+        long cursor = lastEventId != null ? lastEventId : since != null ? since : 0L;
+        return userChangeFeed.subscribe(cursor, responseFilter.resolveCurrentView());
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAuthority('read_user')")
     @Operation(
             summary = "Get user by ID",
-            description = "Retrieve a specific user by their ID. Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
+            description = "Retrieve a specific user by their ID. The ETag is the user's version: send it back in If-None-Match "
+                    + "to get 304 while the user is unchanged, or in If-Match to update it. "
+                    + "Requires 'read_user' permission. Available to: ADMIN, OPERATOR, USER roles."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved user"),
+            @ApiResponse(responseCode = "304", description = "User unchanged since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
             @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'read_user' permission"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
     public ResponseEntity<UserResponse> getUserById(
             @Parameter(description = "ID of the user to retrieve", required = true)
-            @PathVariable Long id) {
-        log.info("GET /api/v1/users/{} - Retrieving user", id);
-        return ResponseEntity.ok(userService.getUserById(id));
+            @PathVariable Long id,
+            @Parameter(description = "ETag of a previously received copy of this user")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("GET /api/v1/users/{} - Retrieving user", id);
+
+        if (ifNoneMatch != null) {
+            String etag = ETags.ofVersion(userService.getUserVersion(id));
+            if (ETags.matchesAny(ifNoneMatch, etag)) {
+                return notModified(etag);
+            }
+        }
+
+        UserResponse user = userService.getUserById(id);
+        return ResponseEntity.ok()
+                .eTag(ETags.ofVersion(user.getVersion()))
+                .varyBy(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT)
+                .body(user);
     }
 
     @PostMapping
@@ -86,31 +411,99 @@ public class UserController {
     public ResponseEntity<UserResponse> createUser(
             @Parameter(description = "User details", required = true)
             @Valid @RequestBody CreateUserRequest request) {
-        log.info("POST /api/v1/users - Creating new user with username: {}", request.getUsername());
+        log.debug("POST /api/v1/users - Creating new user with username: {}", request.getUsername());
         UserResponse response = userService.createUser(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .eTag(ETags.ofVersion(response.getVersion()))
+                .body(response);
+    }
+
+    @PostMapping("/batch")
+    @PreAuthorize("hasAuthority('create_user')")
+    @Operation(
+            summary = "Create users in batch",
+            description = "Create up to " + BatchCreateUsersRequest.MAX_USERS + " users in one request. Users whose email or username "
+                    + "is already taken (or repeated in the batch) are rejected individually; the others are created. "
+                    + "Returns one result per item, in request order. Requires 'create_user' permission. Available to: ADMIN, OPERATOR roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see the per-item results",
+                    content = @Content(schema = @Schema(implementation = BatchCreateUsersResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid request body"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'create_user' permission")
+    })
+    public ResponseEntity<BatchCreateUsersResponse> createUsers(
+            @Parameter(description = "Users to create", required = true)
+            @Valid @RequestBody BatchCreateUsersRequest request) {
+        log.debug("POST /api/v1/users/batch - Creating {} users", request.getUsers().size());
+        return ResponseEntity.ok(userService.createUsers(request.getUsers()));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasAuthority('update_user')")
     @Operation(
             summary = "Update a user",
-            description = "Update an existing user. Email cannot be changed. Requires 'update_user' permission. Available to: ADMIN, OPERATOR roles."
+            description = "Update an existing user. Email cannot be changed. Send the ETag of the user in If-Match to update only if "
+                    + "nobody changed it in the meantime (412 otherwise). Requires 'update_user' permission. Available to: ADMIN, OPERATOR roles."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request body"),
             @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
             @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'update_user' permission"),
-            @ApiResponse(responseCode = "404", description = "User not found")
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "409", description = "User modified concurrently (request without If-Match)"),
+            @ApiResponse(responseCode = "412", description = "User changed since the ETag sent in If-Match")
     })
     public ResponseEntity<UserResponse> updateUser(
             @Parameter(description = "ID of the user to update", required = true)
             @PathVariable Long id,
             @Parameter(description = "Updated user details", required = true)
-            @Valid @RequestBody UpdateUserRequest request) {
-        log.info("PUT /api/v1/users/{} - Updating user", id);
-        return ResponseEntity.ok(userService.updateUser(id, request));
+            @Valid @RequestBody UpdateUserRequest request,
+            @Parameter(description = "ETag of the version being updated, or *")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("PUT /api/v1/users/{} - Updating user", id);
+        UserResponse response = userService.updateUser(id, request, ETags.parseVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.ofVersion(response.getVersion()))
+                .body(response);
+    }
+
+    @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON)
+    @PreAuthorize("hasAuthority('update_user')")
+    @Operation(
+            summary = "Partially update a user",
+            description = "Apply a JSON Merge Patch (" + MERGE_PATCH_JSON + "): only the fields present are changed and only the "
+                    + "changed columns are written; 'roles' replaces the role set, writing just the roles added or removed. "
+                    + "Fields cannot be removed (null) and email cannot be changed. Supports If-Match like PUT. "
+                    + "Requires 'update_user' permission. Available to: ADMIN, OPERATOR roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "User updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid patch (null or blank field, empty roles)"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'update_user' permission"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "409", description = "User modified concurrently (request without If-Match)"),
+            @ApiResponse(responseCode = "412", description = "User changed since the ETag sent in If-Match"),
+            @ApiResponse(responseCode = "415", description = "Content type is not " + MERGE_PATCH_JSON)
+    })
+    public ResponseEntity<UserResponse> patchUser(
+            @Parameter(description = "ID of the user to update", required = true)
+            @PathVariable Long id,
+            @Parameter(description = "Fields to change", required = true)
+            @Valid @RequestBody PatchUserRequest patch,
+            @Parameter(description = "ETag of the version being updated, or *")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("PATCH /api/v1/users/{} - Patching user", id);
+        UserResponse response = userService.patchUser(id, patch, ETags.parseVersion(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(ETags.ofVersion(response.getVersion()))
+                .body(response);
     }
 
     @DeleteMapping("/{id}")
@@ -128,8 +521,67 @@ public class UserController {
     public ResponseEntity<Void> deleteUser(
             @Parameter(description = "ID of the user to delete", required = true)
             @PathVariable Long id) {
-        log.info("DELETE /api/v1/users/{} - Deleting user", id);
+        log.debug("DELETE /api/v1/users/{} - Deleting user", id);
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping
+    @PreAuthorize("hasAuthority('delete_user')")
+    @Operation(
+            summary = "Delete users in bulk",
+            description = "Delete up to " + BulkLimits.MAX_IDS + " users by id with a few set-based statements. Unknown ids are ignored; "
+                    + "the response counts the users found (matched) and deleted (affected). "
+                    + "Requires 'delete_user' permission. Available to: ADMIN role ONLY."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users deleted"),
+            @ApiResponse(responseCode = "400", description = "Missing ids or too many ids"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'delete_user' permission")
+    })
+    public ResponseEntity<BulkOperationResponse> deleteUsers(
+            @Parameter(description = "IDs of the users to delete (comma separated)", required = true)
+            @RequestParam Set<Long> ids) {
+        log.debug("DELETE /api/v1/users - Deleting {} users", ids.size());
+        if (ids.size() > BulkLimits.MAX_IDS) {
+            throw new IllegalArgumentException("At most " + BulkLimits.MAX_IDS + " ids per request: " + ids.size());
+        }
+        return ResponseEntity.ok(userService.deleteUsers(ids));
+    }
+
+    @PostMapping("/roles")
+    @PreAuthorize("hasAuthority('update_user')")
+    @Operation(
+            summary = "Grant or revoke a role in bulk",
+            description = "Grant or revoke 'role' for the users selected by 'ids' and/or a filter ('hasRole', and 'q' with optional "
+                    + "'fields' and 'match' as in GET /api/v1/users/search); all the given criteria must hold. Runs as a few set-based "
+                    + "statements. Users already having (grant) or lacking (revoke) the role are skipped, as are users for whom it is "
+                    + "the only role (revoke). Requires 'update_user' permission. Available to: ADMIN, OPERATOR roles."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Roles changed, see the matched/affected counters"),
+            @ApiResponse(responseCode = "400", description = "Invalid request body or no selection criterion"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - User does not have 'update_user' permission")
+    })
+    public ResponseEntity<BulkOperationResponse> changeRole(
+            @Parameter(description = "Role change and user selection", required = true)
+            @Valid @RequestBody BulkRoleRequest request) {
+        log.debug("POST /api/v1/users/roles - {} {} for ids: {}, hasRole: {}, q: {}",
+                request.getOperation(), request.getRole(), request.getIds(), request.getHasRole(), request.getQ());
+
+        UserSelection.UserSelectionBuilder selection = UserSelection.builder()
+                .ids(request.getIds())
+                .role(request.getHasRole())
+                .term(request.getQ());
+        if (request.getFields() != null && !request.getFields().isEmpty()) {
+            selection.fields(EnumSet.copyOf(request.getFields()));
+        }
+        if (request.getMatch() != null) {
+            selection.match(request.getMatch());
+        }
+        boolean grant = request.getOperation() == BulkRoleRequest.Operation.GRANT;
+        return ResponseEntity.ok(userService.changeRole(request.getRole(), grant, selection.build()));
+    }
 }
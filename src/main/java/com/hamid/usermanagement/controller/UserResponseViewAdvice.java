@@ -0,0 +1,29 @@
+package com.hamid.usermanagement.controller;
+
+import com.hamid.usermanagement.util.UserResponseFilter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+// Applies the role-based serialization view to every body returned by UserController
+@RestControllerAdvice(assignableTypes = UserController.class)
+@RequiredArgsConstructor
+public class UserResponseViewAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    private final UserResponseFilter responseFilter;
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        Class<?> view = responseFilter.resolveCurrentView();
+        if (view != null) {
+            bodyContainer.setSerializationView(view);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.hamid.usermanagement.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BatchCreateUsersRequest {
+
+    public static final int MAX_USERS = 50_000;
+
+    @NotEmpty(message = "At least one user is required")
+    @Size(max = MAX_USERS, message = "At most " + MAX_USERS + " users per batch")
+    private List<@Valid CreateUserRequest> users;
+}
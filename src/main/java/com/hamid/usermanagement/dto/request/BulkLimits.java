@@ -0,0 +1,11 @@
+package com.hamid.usermanagement.dto.request;
+
+// Limits shared by the bulk endpoints (DELETE /api/v1/users, POST /api/v1/users/roles)
+public final class BulkLimits {
+
+    // Ids accepted in one bulk request
+    public static final int MAX_IDS = 1000;
+
+    private BulkLimits() {
+    }
+}
@@ -0,0 +1,37 @@
+package com.hamid.usermanagement.dto.request;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.repository.UserSearch;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.Set;
+
+// Grants or revokes one role for the users selected by ids and/or a filter
+// (current role, search term as in GET /api/v1/users/search): at least one
+// criterion is required, all of them must hold
+@Data
+public class BulkRoleRequest {
+
+    public enum Operation {
+        GRANT,
+        REVOKE
+    }
+
+    @NotNull(message = "Operation is required")
+    private Operation operation;
+
+    @NotNull(message = "Role is required")
+    private Role role;
+
+    @Size(max = BulkLimits.MAX_IDS, message = "At most " + BulkLimits.MAX_IDS + " ids per request")
+    private Set<Long> ids;
+
+    private Role hasRole;
+
+    private String q;
+
+    private Set<UserSearch.Field> fields;
+
+    private UserSearch.Match match;
+}
@@ -0,0 +1,39 @@
+package com.hamid.usermanagement.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.annotation.Nulls;
+import com.hamid.usermanagement.entity.Role;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import java.util.Set;
+
+// JSON Merge Patch (RFC 7396) of a user: a missing member is left untouched.
+// Every member is mandatory on the user, so an explicit null (which would
+// remove it) is rejected, as are blank values.
+@Data
+public class PatchUserRequest {
+
+    private static final String NOT_BLANK = ".*\\S.*";
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = NOT_BLANK, message = "Username must not be blank")
+    private String username;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = NOT_BLANK, message = "Tax code must not be blank")
+    private String taxCode;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = NOT_BLANK, message = "First name must not be blank")
+    private String firstName;
+
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Pattern(regexp = NOT_BLANK, message = "Last name must not be blank")
+    private String lastName;
+
+    // Replaces the whole set, as merge patch does with arrays
+    @JsonSetter(nulls = Nulls.FAIL)
+    @Size(min = 1, message = "At least one role is required")
+    private Set<Role> roles;
+}
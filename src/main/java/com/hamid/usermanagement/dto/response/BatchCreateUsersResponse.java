@@ -0,0 +1,38 @@
+package com.hamid.usermanagement.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonView;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@Builder
+public class BatchCreateUsersResponse {
+    @JsonView(UserViews.Basic.class)
+    private int created;
+    @JsonView(UserViews.Basic.class)
+    private int rejected;
+    @JsonView(UserViews.Basic.class)
+    private List<ItemResult> results;
+
+    public enum ItemStatus {
+        CREATED,
+        REJECTED
+    }
+
+    // One entry per request item, in request order
+    @Data
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemResult {
+        @JsonView(UserViews.Basic.class)
+        private int index;
+        @JsonView(UserViews.Basic.class)
+        private ItemStatus status;
+        @JsonView(UserViews.Basic.class)
+        private UserResponse user;
+        @JsonView(UserViews.Basic.class)
+        private String error;
+    }
+}
@@ -0,0 +1,16 @@
+package com.hamid.usermanagement.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import lombok.Builder;
+import lombok.Data;
+
+// matched: users selected by the request; affected: users actually changed
+// (e.g. a grant skips the users already having the role)
+@Data
+@Builder
+public class BulkOperationResponse {
+    @JsonView(UserViews.Basic.class)
+    private long matched;
+    @JsonView(UserViews.Basic.class)
+    private long affected;
+}
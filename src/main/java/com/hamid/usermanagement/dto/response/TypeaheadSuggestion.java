@@ -0,0 +1,18 @@
+package com.hamid.usermanagement.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.hamid.usermanagement.typeahead.TypeaheadField;
+import lombok.Builder;
+import lombok.Data;
+
+// One autocomplete match: the user and the attribute whose value starts with the query
+@Data
+@Builder
+public class TypeaheadSuggestion {
+    @JsonView(UserViews.Basic.class)
+    private Long id;
+    @JsonView(UserViews.Basic.class)
+    private TypeaheadField field;
+    @JsonView(UserViews.Basic.class)
+    private String value;
+}
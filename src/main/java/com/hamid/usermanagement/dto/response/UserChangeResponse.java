@@ -0,0 +1,24 @@
+package com.hamid.usermanagement.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonView;
+import com.hamid.usermanagement.changes.UserChangeType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+// One entry of the change feed: id is the cursor to resume from, user is null for deletions
+@Data
+@Builder
+public class UserChangeResponse {
+    @JsonView(UserViews.Basic.class)
+    private Long id;
+    @JsonView(UserViews.Basic.class)
+    private UserChangeType type;
+    @JsonView(UserViews.Basic.class)
+    private Long userId;
+    @JsonView(UserViews.Basic.class)
+    private Instant changedAt;
+    @JsonView(UserViews.Basic.class)
+    private UserResponse user;
+}
@@ -1,18 +1,30 @@
 package com.hamid.usermanagement.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonView;
 import com.hamid.usermanagement.entity.Role;
 import lombok.Builder;
 import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
 import java.util.Set;
 
 @Data
 @Builder
+@Jacksonized
 public class UserResponse {
+    @JsonView(UserViews.Basic.class)
     private Long id;
+    @JsonView(UserViews.Basic.class)
     private String username;
+    @JsonView(UserViews.Basic.class)
     private String email;
+    @JsonView(UserViews.Admin.class)
     private String taxCode;
+    @JsonView(UserViews.Basic.class)
     private String firstName;
+    @JsonView(UserViews.Basic.class)
     private String lastName;
+    @JsonView(UserViews.Operator.class)
     private Set<Role> roles;
-}
\ No newline at end of file
+    @JsonView(UserViews.Basic.class)
+    private Long version;
+}
@@ -0,0 +1,21 @@
+package com.hamid.usermanagement.dto.response;
+
+// Jackson serialization views used for role-based redaction of UserResponse:
+// the view is chosen once per request by UserResponseFilter, no response is copied.
+public final class UserViews {
+
+    private UserViews() {
+    }
+
+    // USER: tax code and roles hidden
+    public interface Basic {
+    }
+
+    // OPERATOR: tax code hidden
+    public interface Operator extends Basic {
+    }
+
+    // ADMIN: every field
+    public interface Admin extends Operator {
+    }
+}
@@ -5,5 +5,11 @@ public enum Role {
     OPERATOR,
     MAINTAINER,
     DEVELOPER,
-    REPORTER
-}
\ No newline at end of file
+    REPORTER;
+
+    // Bit used by the roles_mask column (roles-bitmask profile): it follows the
+    // declaration order, so new roles must only be appended
+    public int mask() {
+        return 1 << ordinal();
+    }
+}
@@ -0,0 +1,57 @@
+package com.hamid.usermanagement.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Converter
+public class RoleSetConverter implements AttributeConverter<Set<Role>, Integer> {
+
+    private static final Role[] ROLES = Role.values();
+
+    @Override
+    public Integer convertToDatabaseColumn(Set<Role> roles) {
+        return toMask(roles);
+    }
+
+    @Override
+    public Set<Role> convertToEntityAttribute(Integer mask) {
+        return fromMask(mask != null ? mask : 0);
+    }
+
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        if (roles != null) {
+            for (Role role : roles) {
+                mask |= role.mask();
+            }
+        }
+        return mask;
+    }
+
+    public static EnumSet<Role> fromMask(int mask) {
+        EnumSet<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : ROLES) {
+            if ((mask & role.mask()) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
+    // Every mask value containing the role: "roles_mask IN (...)" can use a plain index
+    public static int[] masksContaining(Role role) {
+        int combinations = 1 << ROLES.length;
+        int[] masks = new int[combinations / 2];
+        int i = 0;
+        for (int mask = 0; mask < combinations; mask++) {
+            if ((mask & role.mask()) != 0) {
+                masks[i++] = mask;
+            }
+        }
+        return masks;
+    }
+}
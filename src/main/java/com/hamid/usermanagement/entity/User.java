@@ -2,11 +2,19 @@ package com.hamid.usermanagement.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+// UPDATEs list only the changed columns: most updates touch a single field
+@DynamicUpdate
+// username and email already have unique indexes; names are indexed for
+// prefix search (GET /api/v1/users/search)
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_first_name", columnList = "first_name"),
+        @Index(name = "idx_users_last_name", columnList = "last_name")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,8 +22,11 @@ import java.util.Set;
 @Builder
 public class User {
 
+    // Pooled sequence: ids are known before the insert, so Hibernate can batch
+    // inserts (IDENTITY forces one round-trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -33,9 +44,12 @@ public class User {
     @Column(nullable = false)
     private String lastName;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
-    @Enumerated(EnumType.STRING)
-    @Column(name = "role")
+    // Mapped in META-INF/orm-roles-*.xml: user_roles join table (default) or a
+    // single roles_mask bitmask column (roles-bitmask profile)
     private Set<Role> roles = new HashSet<>();
+
+    // Optimistic locking; also the ETag of the user resource
+    @Version
+    @Column(nullable = false)
+    private Long version;
 }
\ No newline at end of file
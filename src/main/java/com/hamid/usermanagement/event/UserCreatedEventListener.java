@@ -1,47 +1,78 @@
 package com.hamid.usermanagement.event;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamid.usermanagement.config.AsyncConfig;
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.outbox.OutboxEvent;
+import com.hamid.usermanagement.outbox.OutboxSink;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.concurrent.CompletableFuture;
 
+// Riceve gli utenti creati dall'OutboxRelay, quindi solo dopo il commit e come
+// snapshot JSON (mai l'entity gestita). L'elaborazione gira sul userEventExecutor:
+// quando e' saturo il relay rallenta (CallerRunsPolicy). Il future restituito
+// si completa a elaborazione finita: solo allora il relay cancella l'evento.
 @Component
+@RequiredArgsConstructor
 @Slf4j
-public class UserCreatedEventListener {
+public class UserCreatedEventListener implements OutboxSink {
 
-    @EventListener
-    @Async
-    public void handleUserCreatedEvent(UserCreatedEvent event) {
+    private final ObjectMapper objectMapper;
 
-        LocalDateTime eventTime = LocalDateTime.ofInstant(
-                Instant.ofEpochMilli(event.getTimestamp()),
-                ZoneId.systemDefault()
-        );
+    @Value("${user-events.processing-delay:2s}")
+    private Duration processingDelay;
+
+    @Override
+    public boolean accepts(OutboxEvent event) {
+        return OutboxEvent.USER_CREATED.equals(event.getType());
+    }
+
+    @Override
+    @Async(AsyncConfig.USER_EVENT_EXECUTOR)
+    public CompletableFuture<Void> deliver(OutboxEvent event) {
+        UserResponse user = readUser(event);
+
+        LocalDateTime eventTime = LocalDateTime.ofInstant(event.getCreatedAt(), ZoneId.systemDefault());
 
         log.info("┌─────────────────────────────────────────┐");
         log.info("│      USER CREATED EVENT RECEIVED        │");
         log.info("├─────────────────────────────────────────┤");
         log.info("│ Event Time: {}", eventTime);
-        log.info("│ User ID: {}", event.getUser().getId());
-        log.info("│ Username: {}", event.getUser().getUsername());
-        log.info("│ Email: {}", event.getUser().getEmail());
-        log.info("│ First Name: {}", event.getUser().getFirstName());
-        log.info("│ Last Name: {}", event.getUser().getLastName());
-        log.info("│ Roles: {}", event.getUser().getRoles());
+        log.info("│ User ID: {}", user.getId());
+        log.info("│ Username: {}", user.getUsername());
+        log.info("│ Email: {}", user.getEmail());
+        log.info("│ First Name: {}", user.getFirstName());
+        log.info("│ Last Name: {}", user.getLastName());
+        log.info("│ Roles: {}", user.getRoles());
         log.info("└─────────────────────────────────────────┘");
 
         // Simula elaborazione asincrona
         try {
-            log.info("🔄 Starting async processing for user: {}", event.getUser().getUsername());
-            Thread.sleep(2000); // Simula operazione lunga
-            log.info("✅ Async processing completed for user: {}", event.getUser().getUsername());
+            log.info("🔄 Starting async processing for user: {}", user.getUsername());
+            Thread.sleep(processingDelay.toMillis()); // Simula operazione lunga
+            log.info("✅ Async processing completed for user: {}", user.getUsername());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             log.error("❌ Error during async processing", e);
+            return CompletableFuture.failedFuture(e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private UserResponse readUser(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), UserResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload for outbox event " + event.getId(), e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.hamid.usermanagement.event;
+
+import com.hamid.usermanagement.entity.User;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+// Published once per bulk creation instead of one UserCreatedEvent per user
+@Getter
+public class UsersCreatedEvent extends ApplicationEvent {
+
+    private final List<User> users;
+
+    public UsersCreatedEvent(Object source, List<User> users) {
+        super(source);
+        this.users = List.copyOf(users);
+    }
+}
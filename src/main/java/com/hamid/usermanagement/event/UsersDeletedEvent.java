@@ -0,0 +1,18 @@
+package com.hamid.usermanagement.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+// Published once per bulk deletion instead of one UserDeletedEvent per user
+@Getter
+public class UsersDeletedEvent extends ApplicationEvent {
+
+    private final List<Long> userIds;
+
+    public UsersDeletedEvent(Object source, List<Long> userIds) {
+        super(source);
+        this.userIds = List.copyOf(userIds);
+    }
+}
@@ -0,0 +1,23 @@
+package com.hamid.usermanagement.event;
+
+import com.hamid.usermanagement.entity.Role;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+// Published once per bulk grant or revoke, with the users whose roles changed
+@Getter
+public class UsersRoleChangedEvent extends ApplicationEvent {
+
+    private final List<Long> userIds;
+    private final Role role;
+    private final boolean granted;
+
+    public UsersRoleChangedEvent(Object source, List<Long> userIds, Role role, boolean granted) {
+        super(source);
+        this.userIds = List.copyOf(userIds);
+        this.role = role;
+        this.granted = granted;
+    }
+}
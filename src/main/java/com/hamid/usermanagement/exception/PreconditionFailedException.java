@@ -0,0 +1,8 @@
+package com.hamid.usermanagement.exception;
+
+// A conditional request (If-Match) does not match the current state of the resource
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -2,9 +2,14 @@ package com.hamid.usermanagement.mapper;
 
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
 import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
 import com.hamid.usermanagement.entity.User;
 import org.springframework.stereotype.Component;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 @Component
 public class UserMapper {
 
@@ -27,7 +32,18 @@ public class UserMapper {
                 .taxCode(user.getTaxCode())
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
-                .roles(user.getRoles())
+                .roles(copyRoles(user.getRoles()))
+                .version(user.getVersion())
                 .build();
     }
+
+    // Responses outlive the persistence context (UserResponseCache): never hand out the managed collection
+    private static Set<Role> copyRoles(Set<Role> roles) {
+        if (roles == null) {
+            return null;
+        }
+        EnumSet<Role> copy = EnumSet.noneOf(Role.class);
+        copy.addAll(roles);
+        return Collections.unmodifiableSet(copy);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.hamid.usermanagement.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Outbox event that failed outbox.relay.max-attempts deliveries: parked here so
+// the rest of the outbox keeps flowing. It was journaled (change log) before
+// the first attempt; only the sinks missed it.
+@Entity
+@Table(name = "outbox_dead_letters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxDeadLetter {
+
+    static final int ERROR_LENGTH = 1000;
+
+    // Id of the outbox event
+    @Id
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String type;
+
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private Long aggregateId;
+
+    @Lob
+    @Column(nullable = false, updatable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false, updatable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = ERROR_LENGTH, updatable = false)
+    private String lastError;
+
+    @Column(name = "failed_at", nullable = false, updatable = false)
+    private Instant failedAt;
+
+    static OutboxDeadLetter of(OutboxEvent event, Instant failedAt) {
+        return OutboxDeadLetter.builder()
+                .id(event.getId())
+                .type(event.getType())
+                .aggregateId(event.getAggregateId())
+                .payload(event.getPayload())
+                .createdAt(event.getCreatedAt())
+                .attempts(event.getAttempts())
+                .lastError(event.getLastError())
+                .failedAt(failedAt)
+                .build();
+    }
+}
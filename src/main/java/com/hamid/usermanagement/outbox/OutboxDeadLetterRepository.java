@@ -0,0 +1,6 @@
+package com.hamid.usermanagement.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface OutboxDeadLetterRepository extends JpaRepository<OutboxDeadLetter, Long> {
+}
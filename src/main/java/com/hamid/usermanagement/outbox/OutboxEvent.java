@@ -0,0 +1,59 @@
+package com.hamid.usermanagement.outbox;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// Event recorded in the same transaction as the change it describes. OutboxRelay
+// journals it first, then deletes it once every OutboxSink has processed it
+// (or moves it to outbox_dead_letters after too many failed attempts).
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final String USER_CREATED = "UserCreated";
+    public static final String USER_UPDATED = "UserUpdated";
+    public static final String USER_DELETED = "UserDeleted";
+
+    // Taken one at a time from the sequence: with pooled blocks each instance would
+    // hand out its own range, and the relay would journal one user's events in
+    // block order instead of the order they were recorded in
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_events_seq")
+    @SequenceGenerator(name = "outbox_events_seq", sequenceName = "outbox_events_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String type;
+
+    @Column(name = "aggregate_id", nullable = false, updatable = false)
+    private Long aggregateId;
+
+    // JSON snapshot taken at commit time, never a live entity; only the id for deletions
+    @Lob
+    @Column(nullable = false, updatable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Appended to every OutboxJournal (change log); delivery to the sinks comes after
+    @Column(nullable = false)
+    private boolean journaled;
+
+    // Failed deliveries so far; the event is not handed to the sinks again before nextAttemptAt
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = OutboxDeadLetter.ERROR_LENGTH)
+    private String lastError;
+}
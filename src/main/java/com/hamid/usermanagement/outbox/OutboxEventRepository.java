@@ -0,0 +1,34 @@
+package com.hamid.usermanagement.outbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // FOR UPDATE SKIP LOCKED (lock timeout -2): rows locked by another relay are
+    // left out, so an event is journaled by one transaction only
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from OutboxEvent e where e.journaled = false order by e.id")
+    List<OutboxEvent> claimUnjournaled(Limit limit);
+
+    // Journaled events due for delivery, paged by id (OutboxRelay skips those in flight)
+    @Query("select e from OutboxEvent e where e.journaled = true and e.id > :after "
+            + "and (e.nextAttemptAt is null or e.nextAttemptAt <= :now) order by e.id")
+    List<OutboxEvent> findDeliverable(@Param("after") long after, @Param("now") Instant now, Limit limit);
+
+    @Query("select count(e) from OutboxEvent e where e.journaled = false")
+    long countUnjournaled();
+
+    List<OutboxEvent> findByIdIn(Collection<Long> ids);
+}
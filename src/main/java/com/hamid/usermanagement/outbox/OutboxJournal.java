@@ -0,0 +1,9 @@
+package com.hamid.usermanagement.outbox;
+
+import java.util.List;
+
+// Records relayed events in the transaction that marks them journaled in the
+// outbox: a batch is appended once, before (and whatever) the sinks do with it
+public interface OutboxJournal {
+    void append(List<OutboxEvent> batch);
+}
@@ -0,0 +1,122 @@
+package com.hamid.usermanagement.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamid.usermanagement.entity.User;
+import com.hamid.usermanagement.event.UserCreatedEvent;
+import com.hamid.usermanagement.event.UserDeletedEvent;
+import com.hamid.usermanagement.event.UserUpdatedEvent;
+import com.hamid.usermanagement.event.UsersCreatedEvent;
+import com.hamid.usermanagement.event.UsersDeletedEvent;
+import com.hamid.usermanagement.event.UsersRoleChangedEvent;
+import com.hamid.usermanagement.mapper.UserMapper;
+import com.hamid.usermanagement.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+
+// Listener sincrono: gira nella transazione che ha pubblicato l'evento, quindi la
+// riga di outbox viene salvata (o annullata) insieme all'utente
+@Component
+@RequiredArgsConstructor
+public class OutboxRecorder {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUserCreated(UserCreatedEvent event) {
+        outboxEventRepository.save(snapshot(OutboxEvent.USER_CREATED, event.getUser()));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUsersCreated(UsersCreatedEvent event) {
+        persistAll(event.getUsers(), user -> snapshot(OutboxEvent.USER_CREATED, user));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUserUpdated(UserUpdatedEvent event) {
+        outboxEventRepository.save(snapshot(OutboxEvent.USER_UPDATED, event.getUser()));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUserDeleted(UserDeletedEvent event) {
+        outboxEventRepository.save(tombstone(event.getUserId()));
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUsersDeleted(UsersDeletedEvent event) {
+        persistAll(event.getUserIds(), this::tombstone);
+    }
+
+    // The bulk statements changed roles without loading users: the snapshots are
+    // read back one batch at a time, after the change
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordUsersRoleChanged(UsersRoleChangedEvent event) {
+        List<Long> ids = event.getUserIds();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<User> users = userRepository.findByIdInOrderByIdAsc(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            users.forEach(user -> entityManager.persist(snapshot(OutboxEvent.USER_UPDATED, user)));
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    // Same flush/clear rhythm as UserRepository.insertAll, so a 50k-user batch
+    // does not keep 50k outbox rows in the persistence context until commit
+    private <T> void persistAll(List<T> items, Function<T, OutboxEvent> toEvent) {
+        for (int i = 0; i < items.size(); i++) {
+            entityManager.persist(toEvent.apply(items.get(i)));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private OutboxEvent snapshot(String type, User user) {
+        try {
+            return event(type, user.getId(), objectMapper.writeValueAsString(userMapper.toResponse(user)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize outbox payload for user " + user.getId(), e);
+        }
+    }
+
+    private OutboxEvent tombstone(Long userId) {
+        return event(OutboxEvent.USER_DELETED, userId, "{\"id\":" + userId + "}");
+    }
+
+    private static OutboxEvent event(String type, Long userId, String payload) {
+        return OutboxEvent.builder()
+                .type(type)
+                .aggregateId(userId)
+                .payload(payload)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -0,0 +1,250 @@
+package com.hamid.usermanagement.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Drains outbox_events in two independent steps per poll:
+// - journal: new rows are appended to every OutboxJournal (change log) in id
+//   order, one transaction per batch, whatever the state of the sinks;
+// - deliver: journaled rows are handed to the sinks without waiting. Each event
+//   is tracked on its own: deleted once every sink processed it, retried with
+//   backoff when one failed, parked in outbox_dead_letters after max-attempts.
+// Runs on exactly one instance per database (outbox.relay.enabled=false on the
+// others): the change log relies on a single writer for its commit order.
+// Rows are claimed with SKIP LOCKED before being journaled, so a second relay
+// started by mistake cannot log an event twice.
+@Component
+@ConditionalOnProperty(name = "outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxDeadLetterRepository outboxDeadLetterRepository;
+    private final List<OutboxSink> sinks;
+    private final List<OutboxJournal> journals;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    // Events handed to the sinks whose outcome is not applied yet (lost on restart: redelivered)
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    // Filled by the sinks' completions, applied by the relay thread
+    private final Queue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+    private final Counter journaled;
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Counter deadLettered;
+    private final Timer lag;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxDeadLetterRepository outboxDeadLetterRepository,
+                       List<OutboxSink> sinks,
+                       List<OutboxJournal> journals,
+                       TransactionTemplate transactionTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.max-in-flight:1000}") int maxInFlight,
+                       @Value("${outbox.relay.max-attempts:5}") int maxAttempts,
+                       @Value("${outbox.relay.retry-backoff:1s}") Duration retryBackoff,
+                       @Value("${outbox.relay.max-retry-backoff:5m}") Duration maxRetryBackoff) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxDeadLetterRepository = outboxDeadLetterRepository;
+        this.sinks = sinks;
+        this.journals = journals;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.journaled = Counter.builder("outbox.relay.journaled")
+                .description("Outbox events appended to the journals (change log)")
+                .register(meterRegistry);
+        this.dispatched = Counter.builder("outbox.relay.dispatched")
+                .description("Outbox events delivered to every sink")
+                .register(meterRegistry);
+        this.failures = Counter.builder("outbox.relay.failures")
+                .description("Outbox event deliveries that failed and will be retried or dead-lettered")
+                .register(meterRegistry);
+        this.deadLettered = Counter.builder("outbox.relay.dead.lettered")
+                .description("Outbox events moved to outbox_dead_letters after max-attempts failures")
+                .register(meterRegistry);
+        this.lag = Timer.builder("outbox.relay.lag")
+                .description("Time between recording an outbox event and its delivery")
+                .register(meterRegistry);
+        Gauge.builder("outbox.pending", outboxEventRepository, OutboxEventRepository::count)
+                .description("Outbox events waiting for the relay")
+                .register(meterRegistry);
+        Gauge.builder("outbox.unjournaled", outboxEventRepository, OutboxEventRepository::countUnjournaled)
+                .description("Outbox events not yet in the change log")
+                .register(meterRegistry);
+        Gauge.builder("outbox.in.flight", inFlight, Set::size)
+                .description("Outbox events being processed by the sinks")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${outbox.relay.poll-interval:1s}", fixedDelayString = "${outbox.relay.poll-interval:1s}")
+    public void relay() {
+        try {
+            applyOutcomes();
+            int journaledNow;
+            do {
+                journaledNow = transactionTemplate.execute(status -> journalBatch());
+            } while (journaledNow == batchSize);
+            dispatch();
+            // Sinks that completed synchronously
+            applyOutcomes();
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, will resume at the next poll: {}", e.getMessage());
+        }
+    }
+
+    private int journalBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.claimUnjournaled(Limit.of(batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        journals.forEach(journal -> journal.append(batch));
+        // Managed entities: flushed with the journal entries at commit
+        batch.forEach(event -> event.setJournaled(true));
+        journaled.increment(batch.size());
+        return batch.size();
+    }
+
+    // Hands the due events, in id order, to the sinks up to max-in-flight
+    private void dispatch() {
+        Instant now = Instant.now();
+        long after = 0L;
+        List<OutboxEvent> page;
+        do {
+            if (inFlight.size() >= maxInFlight) {
+                return;
+            }
+            page = outboxEventRepository.findDeliverable(after, now, Limit.of(batchSize));
+            for (OutboxEvent event : page) {
+                after = event.getId();
+                if (inFlight.size() >= maxInFlight) {
+                    return;
+                }
+                if (inFlight.add(event.getId())) {
+                    deliver(event);
+                }
+            }
+        } while (page.size() == batchSize);
+    }
+
+    private void deliver(OutboxEvent event) {
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        try {
+            for (OutboxSink sink : sinks) {
+                if (sink.accepts(event)) {
+                    deliveries.add(sink.deliver(event));
+                }
+            }
+        } catch (RuntimeException e) {
+            deliveries.add(CompletableFuture.failedFuture(e));
+        }
+        CompletableFuture.allOf(deliveries.toArray(CompletableFuture[]::new))
+                .whenComplete((result, error) -> outcomes.add(new Outcome(event.getId(), event.getCreatedAt(), cause(error))));
+    }
+
+    // Deletes delivered events and schedules (or dead-letters) failed ones, in one transaction
+    private void applyOutcomes() {
+        List<Outcome> applied = new ArrayList<>();
+        for (Outcome outcome = outcomes.poll(); outcome != null; outcome = outcomes.poll()) {
+            applied.add(outcome);
+        }
+        if (applied.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(applied));
+        } finally {
+            // Even when applying failed: the rows are still there and will be delivered again
+            applied.forEach(outcome -> inFlight.remove(outcome.id()));
+        }
+    }
+
+    private void apply(List<Outcome> applied) {
+        Instant now = Instant.now();
+        List<Long> delivered = applied.stream().filter(outcome -> outcome.error() == null).map(Outcome::id).toList();
+        if (!delivered.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(delivered);
+            applied.stream()
+                    .filter(outcome -> outcome.error() == null)
+                    .forEach(outcome -> lag.record(Duration.between(outcome.createdAt(), now)));
+            dispatched.increment(delivered.size());
+        }
+
+        Map<Long, Throwable> failed = applied.stream()
+                .filter(outcome -> outcome.error() != null)
+                .collect(Collectors.toMap(Outcome::id, Outcome::error, (first, second) -> first));
+        if (failed.isEmpty()) {
+            return;
+        }
+        Map<Long, OutboxEvent> events = outboxEventRepository.findByIdIn(failed.keySet()).stream()
+                .collect(Collectors.toMap(OutboxEvent::getId, Function.identity()));
+        failed.forEach((id, error) -> {
+            failures.increment();
+            OutboxEvent event = events.get(id);
+            if (event == null) {
+                return;
+            }
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(truncate(String.valueOf(error)));
+            if (event.getAttempts() >= maxAttempts) {
+                log.error("Outbox event {} ({}) failed {} times, moved to outbox_dead_letters: {}",
+                        id, event.getType(), event.getAttempts(), error.getMessage());
+                outboxDeadLetterRepository.save(OutboxDeadLetter.of(event, now));
+                outboxEventRepository.delete(event);
+                deadLettered.increment();
+            } else {
+                log.warn("Outbox event {} ({}) failed, attempt {} of {}: {}",
+                        id, event.getType(), event.getAttempts(), maxAttempts, error.getMessage());
+                event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+            }
+        });
+    }
+
+    // retry-backoff doubled at each failure, capped at max-retry-backoff
+    private Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : backoff;
+    }
+
+    private static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static String truncate(String error) {
+        return error.length() > OutboxDeadLetter.ERROR_LENGTH ? error.substring(0, OutboxDeadLetter.ERROR_LENGTH) : error;
+    }
+
+    private record Outcome(Long id, Instant createdAt, Throwable error) {
+    }
+}
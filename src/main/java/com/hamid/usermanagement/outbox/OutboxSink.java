@@ -0,0 +1,18 @@
+package com.hamid.usermanagement.outbox;
+
+import java.util.concurrent.CompletableFuture;
+
+// Destination of the events drained by OutboxRelay. Delivery is at-least-once:
+// an event stays in the outbox until every returned future completed, and is
+// retried if any of them fails, so sinks must tolerate duplicates.
+public interface OutboxSink {
+
+    // Events not accepted are never handed to deliver (no task queued for them)
+    default boolean accepts(OutboxEvent event) {
+        return true;
+    }
+
+    // Completes once the event is processed, possibly on another thread.
+    // Called outside any transaction; the relay does not wait for the future.
+    CompletableFuture<Void> deliver(OutboxEvent event);
+}
@@ -1,11 +1,84 @@
 package com.hamid.usermanagement.repository;
 
+import com.hamid.usermanagement.entity.Role;
 import com.hamid.usermanagement.entity.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    // Set-based uniqueness checks for bulk creation
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @EntityGraph(attributePaths = "roles")
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Override
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findById(Long id);
+
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select u.id from User u where u.id in :ids order by u.id")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "roles")
+    List<User> findByIdInOrderByIdAsc(Collection<Long> ids);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new com.hamid.usermanagement.repository.UserVersion(u.id, u.version) "
+            + "from User u where u.id > :after order by u.id")
+    List<UserVersion> findVersionsAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select new com.hamid.usermanagement.repository.UserVersion(u.id, u.version) "
+            + "from User u where u.id in :ids order by u.id")
+    List<UserVersion> findVersionsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.hamid.usermanagement.repository.UserTerms(u.id, u.username, u.email, u.firstName, u.lastName) "
+            + "from User u where u.id > :after order by u.id")
+    List<UserTerms> findTermsAfter(@Param("after") Long after, Limit limit);
+
+    // Keyset pagination: "after" is the last id seen by the client (exclusive).
+    // Ids are paged first so the roles join fetch never meets a row limit:
+    // two statements per page whatever the page size.
+    default List<User> findPageAfter(Long after, Limit limit) {
+        List<Long> ids = findIdsAfter(after, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findByIdInOrderByIdAsc(ids);
+    }
+
+    default List<User> findPageByRoleAfter(Role role, Long after, Limit limit) {
+        List<Long> ids = findIdsByRoleAfter(role, after, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findByIdInOrderByIdAsc(ids);
+    }
+
+    default List<User> findPageMatchingAfter(UserSearch search, Long after, Limit limit) {
+        List<Long> ids = findIdsMatchingAfter(search, after, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return findByIdInOrderByIdAsc(ids);
+    }
+}
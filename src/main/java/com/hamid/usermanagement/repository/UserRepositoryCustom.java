@@ -0,0 +1,29 @@
+package com.hamid.usermanagement.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.User;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface UserRepositoryCustom {
+    List<Long> findIdsByRoleAfter(Role role, Long after, Limit limit);
+
+    List<Long> findIdsMatchingAfter(UserSearch search, Long after, Limit limit);
+
+    void insertAll(List<User> users);
+
+    void exportAll(Consumer<User> consumer);
+
+    long countSelected(UserSelection selection);
+
+    List<Long> findIdsForRoleChange(UserSelection selection, Role role, boolean grant);
+
+    int grantRole(Collection<Long> ids, Role role);
+
+    int revokeRole(Collection<Long> ids, Role role);
+
+    int deleteAllByIds(Collection<Long> ids);
+}
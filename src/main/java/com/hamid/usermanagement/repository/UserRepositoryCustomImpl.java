@@ -0,0 +1,345 @@
+package com.hamid.usermanagement.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.RoleSetConverter;
+import com.hamid.usermanagement.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.metamodel.Attribute;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String EXPORT_COLUMNS = "u.id, u.username, u.email, u.tax_code, u.first_name, u.last_name, u.version";
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile Boolean bitmaskRoles;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> findIdsByRoleAfter(Role role, Long after, Limit limit) {
+        if (isBitmaskRoles()) {
+            return entityManager.createNativeQuery(
+                            "select id from users where roles_mask in (:masks) and id > :after order by id", Long.class)
+                    .setParameter("masks", masksContaining(role))
+                    .setParameter("after", after)
+                    .setMaxResults(limit.max())
+                    .getResultList();
+        }
+        return entityManager.createQuery(
+                        "select u.id from User u where :role member of u.roles and u.id > :after order by u.id", Long.class)
+                .setParameter("role", role)
+                .setParameter("after", after)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    // PREFIX: one branch per field, each a range scan on that column's index,
+    // merged with a top-level UNION (an OR across columns makes the planner fall
+    // back to a scan of the primary key, and a derived table around the UNION is
+    // planned without the pattern). CONTAINS cannot use indexes: a single scan in
+    // id order that stops as soon as the page is full.
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> findIdsMatchingAfter(UserSearch search, Long after, Limit limit) {
+        String roleClause = search.getRole() != null ? " and " + hasRole("role") : "";
+
+        String sql;
+        if (search.getMatch() == UserSearch.Match.PREFIX) {
+            StringJoiner branches = new StringJoiner(" union ", "", " order by id");
+            for (UserSearch.Field field : search.getFields()) {
+                branches.add("select u.id from users u where u." + field.column() + " like :pattern escape '\\'"
+                        + " and u.id > :after" + roleClause);
+            }
+            sql = branches.toString();
+        } else {
+            sql = "select u.id from users u where u.id > :after and " + matches(search.getFields(), search.getMatch())
+                    + roleClause + " order by u.id";
+        }
+
+        Query query = entityManager.createNativeQuery(sql, Long.class)
+                .setParameter("pattern", pattern(search.getTerm(), search.getMatch()))
+                .setParameter("after", after)
+                .setMaxResults(limit.max());
+        if (search.getRole() != null) {
+            bindRole(query, "role", search.getRole());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public long countSelected(UserSelection selection) {
+        Query query = entityManager.createNativeQuery("select count(*) from users u where " + selected(selection), Long.class);
+        bindSelection(query, selection);
+        return (Long) query.getSingleResult();
+    }
+
+    // Selected users the change applies to: those lacking the role for a grant;
+    // for a revoke those having it along with another role, so nobody is left
+    // without roles
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> findIdsForRoleChange(UserSelection selection, Role role, boolean grant) {
+        String change = grant
+                ? " and not " + hasRole("target")
+                : " and " + hasRole("target") + " and " + hasOtherRole(role);
+        Query query = entityManager.createNativeQuery(
+                "select u.id from users u where " + selected(selection) + change + " order by u.id", Long.class);
+        bindSelection(query, selection);
+        bindRole(query, "target", role);
+        return query.getResultList();
+    }
+
+    // Each statement below repeats the condition of findIdsForRoleChange, so a
+    // user changed concurrently since is skipped rather than changed twice.
+    // The version is bumped as for any other update (ETags, optimistic locking).
+    @Override
+    public int grantRole(Collection<Long> ids, Role role) {
+        if (isBitmaskRoles()) {
+            return entityManager.createNativeQuery("update users u set roles_mask = roles_mask + :bit, version = version + 1 "
+                            + "where u.id in (:ids) and not " + hasRole("target"))
+                    .setParameter("bit", role.mask())
+                    .setParameter("ids", ids)
+                    .setParameter("targetMasks", masksContaining(role))
+                    .executeUpdate();
+        }
+        int updated = entityManager.createNativeQuery("update users u set version = version + 1 "
+                        + "where u.id in (:ids) and not " + hasRole("target"))
+                .setParameter("ids", ids)
+                .setParameter("target", role.name())
+                .executeUpdate();
+        entityManager.createNativeQuery("insert into user_roles (user_id, role) select u.id, :target from users u "
+                        + "where u.id in (:ids) and not " + hasRole("target"))
+                .setParameter("ids", ids)
+                .setParameter("target", role.name())
+                .executeUpdate();
+        return updated;
+    }
+
+    @Override
+    public int revokeRole(Collection<Long> ids, Role role) {
+        if (isBitmaskRoles()) {
+            return entityManager.createNativeQuery("update users u set roles_mask = roles_mask - :bit, version = version + 1 "
+                            + "where u.id in (:ids) and " + hasRole("target") + " and " + hasOtherRole(role))
+                    .setParameter("bit", role.mask())
+                    .setParameter("ids", ids)
+                    .setParameter("targetMasks", masksContaining(role))
+                    .executeUpdate();
+        }
+        int updated = entityManager.createNativeQuery("update users u set version = version + 1 "
+                        + "where u.id in (:ids) and " + hasRole("target") + " and " + hasOtherRole(role))
+                .setParameter("ids", ids)
+                .setParameter("target", role.name())
+                .executeUpdate();
+        entityManager.createNativeQuery("delete from user_roles d where d.role = :target and d.user_id in (:ids) "
+                        + "and exists (select 1 from user_roles o where o.user_id = d.user_id and o.role <> :target)")
+                .setParameter("ids", ids)
+                .setParameter("target", role.name())
+                .executeUpdate();
+        return updated;
+    }
+
+    // Two statements whatever the number of ids, where deleteById loads each
+    // user and removes its roles row by row
+    @Override
+    public int deleteAllByIds(Collection<Long> ids) {
+        if (!isBitmaskRoles()) {
+            entityManager.createNativeQuery("delete from user_roles where user_id in (:ids)")
+                    .setParameter("ids", ids)
+                    .executeUpdate();
+        }
+        return entityManager.createNativeQuery("delete from users where id in (:ids)")
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    private String selected(UserSelection selection) {
+        StringJoiner criteria = new StringJoiner(" and ");
+        if (selection.getIds() != null && !selection.getIds().isEmpty()) {
+            criteria.add("u.id in (:ids)");
+        }
+        if (selection.getRole() != null) {
+            criteria.add(hasRole("role"));
+        }
+        if (selection.getTerm() != null) {
+            criteria.add(matches(selection.getFields(), selection.getMatch()));
+        }
+        return criteria.toString();
+    }
+
+    private void bindSelection(Query query, UserSelection selection) {
+        if (selection.getIds() != null && !selection.getIds().isEmpty()) {
+            query.setParameter("ids", selection.getIds());
+        }
+        if (selection.getRole() != null) {
+            bindRole(query, "role", selection.getRole());
+        }
+        if (selection.getTerm() != null) {
+            query.setParameter("pattern", pattern(selection.getTerm(), selection.getMatch()));
+        }
+    }
+
+    // "u has the role bound to :param" (or to :paramMasks in bitmask mode)
+    private String hasRole(String param) {
+        return isBitmaskRoles()
+                ? "u.roles_mask in (:" + param + "Masks)"
+                : "exists (select 1 from user_roles r where r.user_id = u.id and r.role = :" + param + ")";
+    }
+
+    // Only for users having the role, bound to :target
+    private String hasOtherRole(Role role) {
+        return isBitmaskRoles()
+                ? "u.roles_mask <> " + role.mask()
+                : "exists (select 1 from user_roles o where o.user_id = u.id and o.role <> :target)";
+    }
+
+    private void bindRole(Query query, String param, Role role) {
+        if (isBitmaskRoles()) {
+            query.setParameter(param + "Masks", masksContaining(role));
+        } else {
+            query.setParameter(param, role.name());
+        }
+    }
+
+    private static String matches(Collection<UserSearch.Field> fields, UserSearch.Match match) {
+        StringJoiner any = new StringJoiner(" or ", "(", ")");
+        for (UserSearch.Field field : fields) {
+            any.add(match == UserSearch.Match.PREFIX
+                    ? "u." + field.column() + " like :pattern escape '\\'"
+                    : "lower(u." + field.column() + ") like :pattern escape '\\'");
+        }
+        return any.toString();
+    }
+
+    private static String pattern(String term, UserSearch.Match match) {
+        return match == UserSearch.Match.PREFIX
+                ? escapeLike(term) + "%"
+                : "%" + escapeLike(term.toLowerCase()) + "%";
+    }
+
+    private static List<Integer> masksContaining(Role role) {
+        return Arrays.stream(RoleSetConverter.masksContaining(role)).boxed().toList();
+    }
+
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    // Persist + flush/clear every JDBC batch: inserts go out as batches and the
+    // persistence context never holds more than one batch of entities
+    @Override
+    @Transactional
+    public void insertAll(List<User> users) {
+        for (int i = 0; i < users.size(); i++) {
+            entityManager.persist(users.get(i));
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    // Every user in id order from a single forward-only, read-only JDBC cursor (GET /export):
+    // rows are fetched EXPORT_FETCH_SIZE at a time and handed over as detached users, so
+    // neither the result nor a persistence context grows with the table. Some drivers
+    // (PostgreSQL) only stream inside a transaction: callers run in a read-only one.
+    @Override
+    public void exportAll(Consumer<User> consumer) {
+        String sql = isBitmaskRoles()
+                ? "select " + EXPORT_COLUMNS + ", u.roles_mask from users u order by u.id"
+                : "select " + EXPORT_COLUMNS + ", r.role from users u left join user_roles r on r.user_id = u.id order by u.id";
+        ExportRowHandler handler = new ExportRowHandler(consumer, isBitmaskRoles());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            return statement;
+        }, handler);
+        handler.finish();
+    }
+
+    // Join-table rows come one per role, consecutive for the same user: a user is
+    // emitted when the next id starts (or the cursor ends)
+    private static final class ExportRowHandler implements RowCallbackHandler {
+
+        private final Consumer<User> consumer;
+        private final boolean bitmaskRoles;
+        private User current;
+
+        ExportRowHandler(Consumer<User> consumer, boolean bitmaskRoles) {
+            this.consumer = consumer;
+            this.bitmaskRoles = bitmaskRoles;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong("id");
+            if (current == null || current.getId() != id) {
+                finish();
+                current = User.builder()
+                        .id(id)
+                        .username(rs.getString("username"))
+                        .email(rs.getString("email"))
+                        .taxCode(rs.getString("tax_code"))
+                        .firstName(rs.getString("first_name"))
+                        .lastName(rs.getString("last_name"))
+                        .version(rs.getLong("version"))
+                        .roles(EnumSet.noneOf(Role.class))
+                        .build();
+            }
+            if (bitmaskRoles) {
+                current.setRoles(RoleSetConverter.fromMask(rs.getInt("roles_mask")));
+            } else {
+                String role = rs.getString("role");
+                if (role != null) {
+                    current.getRoles().add(Role.valueOf(role));
+                }
+            }
+        }
+
+        void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+
+    // The roles storage is chosen by the active orm-roles-*.xml mapping
+    boolean isBitmaskRoles() {
+        Boolean bitmask = bitmaskRoles;
+        if (bitmask == null) {
+            bitmask = entityManager.getMetamodel().entity(User.class).getAttribute("roles")
+                    .getPersistentAttributeType() == Attribute.PersistentAttributeType.BASIC;
+            bitmaskRoles = bitmask;
+        }
+        return bitmask;
+    }
+}
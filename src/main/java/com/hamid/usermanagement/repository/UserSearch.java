@@ -0,0 +1,46 @@
+package com.hamid.usermanagement.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Search criteria: a user matches when any of the selected fields matches the
+// term, and (when given) the user has the role
+@Value
+@Builder
+public class UserSearch {
+
+    public enum Field {
+        FIRST_NAME("first_name"),
+        LAST_NAME("last_name"),
+        USERNAME("username"),
+        EMAIL("email");
+
+        private final String column;
+
+        Field(String column) {
+            this.column = column;
+        }
+
+        String column() {
+            return column;
+        }
+    }
+
+    public enum Match {
+        // Case-sensitive "term%": a range scan on the column index
+        PREFIX,
+        // Case-insensitive "%term%": cannot use an index, scans the table
+        CONTAINS
+    }
+
+    String term;
+    @Builder.Default
+    Set<Field> fields = EnumSet.allOf(Field.class);
+    @Builder.Default
+    Match match = Match.PREFIX;
+    Role role;
+}
@@ -0,0 +1,27 @@
+package com.hamid.usermanagement.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+// Users targeted by a bulk operation: every criterion that is set must hold
+// (listed ids, having the role, any of the fields matching the term)
+@Value
+@Builder
+public class UserSelection {
+
+    Set<Long> ids;
+    Role role;
+    String term;
+    @Builder.Default
+    Set<UserSearch.Field> fields = EnumSet.allOf(UserSearch.Field.class);
+    @Builder.Default
+    UserSearch.Match match = UserSearch.Match.PREFIX;
+
+    public boolean isEmpty() {
+        return (ids == null || ids.isEmpty()) && role == null && term == null;
+    }
+}
@@ -0,0 +1,5 @@
+package com.hamid.usermanagement.repository;
+
+// Searchable attributes of a user, read without loading the entity (typeahead bootstrap)
+public record UserTerms(Long id, String username, String email, String firstName, String lastName) {
+}
@@ -0,0 +1,5 @@
+package com.hamid.usermanagement.repository;
+
+// Id and version of a user: enough to validate a cached page (conditional GET)
+public record UserVersion(Long id, Long version) {
+}
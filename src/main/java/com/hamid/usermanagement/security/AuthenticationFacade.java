@@ -1,5 +1,7 @@
 package com.hamid.usermanagement.security;
 
+import com.hamid.usermanagement.util.UserResponseFilter;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -8,18 +10,35 @@ import org.springframework.stereotype.Component;
 import java.util.Optional;
 
 @Component
+@RequiredArgsConstructor
 public class AuthenticationFacade {
 
+    private final UserResponseFilter userResponseFilter;
+
     public Authentication getAuthentication() {
         return SecurityContextHolder.getContext().getAuthentication();
     }
 
-    public String getCurrentUsername() {
+    // Bearer tokens carry the context built by CallerAuthenticationConverter (a field read);
+    // other authentications (tests, @WithMockUser) are resolved on each call
+    public CallerContext getCaller() {
         Authentication authentication = getAuthentication();
-        if (authentication != null && authentication.isAuthenticated()) {
-            return authentication.getName();
+        if (authentication instanceof CallerAuthenticationToken token) {
+            return token.getCaller();
+        }
+        if (authentication == null) {
+            return CallerContext.ANONYMOUS;
         }
-        return "anonymous";
+        Jwt jwt = authentication.getPrincipal() instanceof Jwt principal ? principal : null;
+        return new CallerContext(
+                authentication.isAuthenticated() ? authentication.getName() : CallerContext.ANONYMOUS.username(),
+                jwt != null ? jwt.getSubject() : null,
+                jwt != null ? jwt.getClaimAsString("email") : null,
+                userResponseFilter.resolveView(authentication));
+    }
+
+    public String getCurrentUsername() {
+        return getCaller().username();
     }
 
 
@@ -32,13 +51,11 @@ public class AuthenticationFacade {
     }
 
     public Optional<String> getCurrentUserEmail() {
-        return getCurrentJwt()
-                .map(jwt -> jwt.getClaimAsString("email"));
+        return Optional.ofNullable(getCaller().email());
     }
 
     public Optional<String> getCurrentUserSubject() {
-        return getCurrentJwt()
-                .map(Jwt::getSubject);
+        return Optional.ofNullable(getCaller().subject());
     }
 
     public boolean hasRole(String role) {
@@ -49,4 +66,4 @@ public class AuthenticationFacade {
         return authentication.getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals("ROLE_" + role));
     }
-}
\ No newline at end of file
+}
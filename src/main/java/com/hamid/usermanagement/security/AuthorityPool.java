@@ -0,0 +1,33 @@
+package com.hamid.usermanagement.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Interned GrantedAuthority instances: authorities built from tokens are the
+// same objects as the constants below, so role checks can compare references.
+// The pool is bounded; past the limit new names get plain, non-pooled instances.
+public final class AuthorityPool {
+
+    private static final int MAX_SIZE = 1024;
+    private static final ConcurrentMap<String, GrantedAuthority> POOL = new ConcurrentHashMap<>();
+
+    public static final GrantedAuthority ROLE_ADMIN = of("ROLE_ADMIN");
+    public static final GrantedAuthority ROLE_OPERATOR = of("ROLE_OPERATOR");
+
+    private AuthorityPool() {
+    }
+
+    public static GrantedAuthority of(String authority) {
+        GrantedAuthority pooled = POOL.get(authority);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= MAX_SIZE) {
+            return new SimpleGrantedAuthority(authority);
+        }
+        return POOL.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+}
@@ -0,0 +1,155 @@
+package com.hamid.usermanagement.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// JWKS served from memory and persisted to a local file, refreshed in the
+// background (stale-while-revalidate): verification never waits for the IdP.
+// On startup the last persisted key set is used until the first refresh
+// succeeds; an unknown "kid" (key rotation) schedules an early refresh,
+// at most once per minRefreshInterval.
+@Slf4j
+public class CachedJwkSource implements JWKSource<SecurityContext> {
+
+    private final Callable<JWKSet> upstream;
+    private final Path cacheFile;
+    private final Duration refreshInterval;
+    private final Duration minRefreshInterval;
+    private final Timer refreshSuccess;
+    private final Timer refreshFailure;
+    private final Counter unknownKeys;
+    private final AtomicLong lastRefreshRequest = new AtomicLong();
+
+    private volatile JWKSet keys = new JWKSet();
+    private volatile Instant fetchedAt;
+    private ScheduledExecutorService refresher;
+
+    public CachedJwkSource(Callable<JWKSet> upstream, Path cacheFile, Duration refreshInterval,
+                           Duration minRefreshInterval, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.cacheFile = cacheFile;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshInterval = minRefreshInterval;
+        this.refreshSuccess = Timer.builder("jwks.refresh")
+                .description("Time to fetch the JWKS from the identity provider")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.refreshFailure = Timer.builder("jwks.refresh")
+                .description("Time to fetch the JWKS from the identity provider")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        this.unknownKeys = Counter.builder("jwks.unknown.keys")
+                .description("Tokens signed with a key id missing from the cached JWKS")
+                .register(meterRegistry);
+        Gauge.builder("jwks.staleness", this, CachedJwkSource::stalenessSeconds)
+                .description("Seconds since the cached JWKS was fetched")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("jwks.keys", this, source -> source.keys.size())
+                .description("Keys in the cached JWKS")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        loadCacheFile();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) {
+        List<JWK> matches = jwkSelector.select(keys);
+        if (matches.isEmpty()) {
+            unknownKeys.increment();
+            requestRefresh();
+        }
+        return matches;
+    }
+
+    public void refresh() {
+        long start = System.nanoTime();
+        try {
+            JWKSet fetched = upstream.call().toPublicJWKSet();
+            keys = fetched;
+            fetchedAt = Instant.now();
+            refreshSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            writeCacheFile(fetched);
+        } catch (Exception e) {
+            refreshFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("JWKS refresh failed, keeping {} cached keys: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private void requestRefresh() {
+        long now = System.nanoTime();
+        long last = lastRefreshRequest.get();
+        if (now - last >= minRefreshInterval.toNanos() && lastRefreshRequest.compareAndSet(last, now)) {
+            refresher.execute(this::refresh);
+        }
+    }
+
+    private void loadCacheFile() {
+        if (!Files.isReadable(cacheFile)) {
+            return;
+        }
+        try {
+            keys = JWKSet.parse(Files.readString(cacheFile));
+            fetchedAt = Files.getLastModifiedTime(cacheFile).toInstant();
+            log.info("Loaded {} JWKS keys from {}", keys.size(), cacheFile);
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable JWKS cache file {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    // Written to a temporary file first: a crash never leaves a truncated key set
+    private void writeCacheFile(JWKSet jwkSet) {
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(cacheFile.toAbsolutePath().getParent(), "jwks", ".tmp");
+            Files.writeString(temp, jwkSet.toString(true));
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Cannot persist JWKS to {}: {}", cacheFile, e.getMessage());
+        }
+    }
+
+    private double stalenessSeconds() {
+        Instant fetched = fetchedAt;
+        return fetched != null ? Duration.between(fetched, Instant.now()).toMillis() / 1000.0 : Double.NaN;
+    }
+}
@@ -0,0 +1,36 @@
+package com.hamid.usermanagement.security;
+
+import com.hamid.usermanagement.util.UserResponseFilter;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+import java.util.Collection;
+
+// Replaces JwtAuthenticationConverter: same authorities (Keycloak roles) and the
+// same name (the "sub" claim), plus the CallerContext of the request, so the
+// response view and the audit actor are computed here once instead of by every reader
+public class CallerAuthenticationConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter;
+    private final UserResponseFilter userResponseFilter;
+
+    public CallerAuthenticationConverter(Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter,
+                                         UserResponseFilter userResponseFilter) {
+        this.authoritiesConverter = authoritiesConverter;
+        this.userResponseFilter = userResponseFilter;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        Collection<GrantedAuthority> authorities = authoritiesConverter.convert(jwt);
+        CallerContext caller = new CallerContext(
+                jwt.getClaimAsString(JwtClaimNames.SUB),
+                jwt.getSubject(),
+                jwt.getClaimAsString("email"),
+                userResponseFilter.resolveView(authorities));
+        return new CallerAuthenticationToken(jwt, authorities, caller);
+    }
+}
@@ -0,0 +1,23 @@
+package com.hamid.usermanagement.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.util.Collection;
+
+// JwtAuthenticationToken carrying the CallerContext built with it: the context
+// lives exactly as long as the request's Authentication, without a separate ThreadLocal
+public class CallerAuthenticationToken extends JwtAuthenticationToken {
+
+    private final CallerContext caller;
+
+    public CallerAuthenticationToken(Jwt jwt, Collection<? extends GrantedAuthority> authorities, CallerContext caller) {
+        super(jwt, authorities, caller.username());
+        this.caller = caller;
+    }
+
+    public CallerContext getCaller() {
+        return caller;
+    }
+}
@@ -0,0 +1,10 @@
+package com.hamid.usermanagement.security;
+
+// Who is calling, resolved once per request when the bearer token becomes an
+// Authentication (CallerAuthenticationConverter) and then read as plain fields:
+// no claim map lookups or authority scans on the request path. view is the
+// Jackson view chosen by UserResponseFilter; null means no view (nothing hidden).
+public record CallerContext(String username, String subject, String email, Class<?> view) {
+
+    public static final CallerContext ANONYMOUS = new CallerContext("anonymous", null, null, null);
+}
@@ -1,15 +1,37 @@
 package com.hamid.usermanagement.service;
 
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.request.PatchUserRequest;
 import com.hamid.usermanagement.dto.request.UpdateUserRequest;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse;
+import com.hamid.usermanagement.dto.response.BulkOperationResponse;
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
+import com.hamid.usermanagement.dto.response.UserChangeResponse;
 import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.repository.UserSearch;
+import com.hamid.usermanagement.repository.UserSelection;
+import com.hamid.usermanagement.repository.UserVersion;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
-    List<UserResponse> getAllUsers();
+    List<UserResponse> getUsers(Role role, Long after, int limit);
+    List<UserVersion> getUserVersions(Role role, Long after, int limit);
+    List<UserResponse> searchUsers(UserSearch search, Long after, int limit);
+    List<TypeaheadSuggestion> suggestUsers(String prefix, int limit);
+    void streamUsers(Consumer<UserResponse> consumer);
+    void exportUsers(Consumer<UserResponse> consumer);
+    List<UserChangeResponse> getChanges(Long since, int limit);
     UserResponse getUserById(Long id);
+    Long getUserVersion(Long id);
     UserResponse createUser(CreateUserRequest request);
-    UserResponse updateUser(Long id, UpdateUserRequest request);
+    BatchCreateUsersResponse createUsers(List<CreateUserRequest> requests);
+    UserResponse updateUser(Long id, UpdateUserRequest request, Long expectedVersion);
+    UserResponse patchUser(Long id, PatchUserRequest patch, Long expectedVersion);
     void deleteUser(Long id);
-}
\ No newline at end of file
+    BulkOperationResponse deleteUsers(Collection<Long> ids);
+    BulkOperationResponse changeRole(Role role, boolean grant, UserSelection selection);
+}
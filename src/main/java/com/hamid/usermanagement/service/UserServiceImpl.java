@@ -1,86 +1,222 @@
 package com.hamid.usermanagement.service;
 
+import com.hamid.usermanagement.audit.AuditAction;
+import com.hamid.usermanagement.audit.AuditLogger;
+import com.hamid.usermanagement.cache.UserResponseCache;
+import com.hamid.usermanagement.changes.UserChangeLog;
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.request.PatchUserRequest;
 import com.hamid.usermanagement.dto.request.UpdateUserRequest;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse.ItemResult;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse.ItemStatus;
+import com.hamid.usermanagement.dto.response.BulkOperationResponse;
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
+import com.hamid.usermanagement.dto.response.UserChangeResponse;
 import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
 import com.hamid.usermanagement.entity.User;
 import com.hamid.usermanagement.event.UserCreatedEvent;
+import com.hamid.usermanagement.event.UserDeletedEvent;
+import com.hamid.usermanagement.event.UserUpdatedEvent;
+import com.hamid.usermanagement.event.UsersCreatedEvent;
+import com.hamid.usermanagement.event.UsersDeletedEvent;
+import com.hamid.usermanagement.event.UsersRoleChangedEvent;
 import com.hamid.usermanagement.exception.EmailAlreadyExistsException;
+import com.hamid.usermanagement.exception.PreconditionFailedException;
 import com.hamid.usermanagement.exception.UserNotFoundException;
 import com.hamid.usermanagement.mapper.UserMapper;
 import com.hamid.usermanagement.repository.UserRepository;
-import com.hamid.usermanagement.security.AuthenticationFacade;
-import com.hamid.usermanagement.util.UserResponseFilter;
+import com.hamid.usermanagement.repository.UserSearch;
+import com.hamid.usermanagement.repository.UserSelection;
+import com.hamid.usermanagement.repository.UserVersion;
+import com.hamid.usermanagement.typeahead.TypeaheadIndex;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
+// user.service{class, method, exception}: one timer per operation, see MetricsConfig
 @Service
 @RequiredArgsConstructor
 @Transactional
-@Slf4j
+@Timed(value = "user.service", description = "Time spent in UserService operations")
 public class UserServiceImpl implements UserService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+    // Keeps the IN lists of the uniqueness checks below common database parameter limits
+    private static final int UNIQUENESS_CHECK_CHUNK_SIZE = 1000;
+    // Same bound for the IN lists of the bulk delete and role statements
+    private static final int BULK_CHUNK_SIZE = 1000;
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
-    private final AuthenticationFacade authenticationFacade;
+    private final AuditLogger auditLogger;
     private final ApplicationEventPublisher eventPublisher;
-    private final UserResponseFilter responseFilter;  // ← NUOVO: Field filtering utility
+    private final UserResponseCache userResponseCache;
+    private final TypeaheadIndex typeaheadIndex;
+    private final UserChangeLog userChangeLog;
 
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponse> getAllUsers() {
-        String currentUser = authenticationFacade.getCurrentUsername();
-        log.info("User '{}' is retrieving all users", currentUser);
+    public List<UserResponse> getUsers(Role role, Long after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero: " + limit);
+        }
 
-        log.info("Retrieving all users");
-        List<UserResponse> responses = userRepository.findAll()
+        long cursor = after != null ? after : 0L;
+        List<User> users = role != null
+                ? userRepository.findPageByRoleAfter(role, cursor, Limit.of(limit))
+                : userRepository.findPageAfter(cursor, Limit.of(limit));
+        List<UserResponse> responses = users
                 .stream()
                 .map(userMapper::toResponse)
                 .toList();
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getAuthorities() != null) {
-            return responseFilter.applyFiltering(responses, auth.getAuthorities());
+        auditLogger.record(AuditAction.LIST_USERS, cursor, role);
+        return responses;
+    }
+
+    // Same page as getUsers, ids and versions only: validates a cached page
+    // (If-None-Match) without loading roles or mapping users
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserVersion> getUserVersions(Role role, Long after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero: " + limit);
+        }
+
+        long cursor = after != null ? after : 0L;
+        List<UserVersion> versions;
+        if (role != null) {
+            List<Long> ids = userRepository.findIdsByRoleAfter(role, cursor, Limit.of(limit));
+            versions = ids.isEmpty() ? List.of() : userRepository.findVersionsByIdIn(ids);
+        } else {
+            versions = userRepository.findVersionsAfter(cursor, Limit.of(limit));
+        }
+
+        auditLogger.record(AuditAction.LIST_USERS, cursor, role);
+        return versions;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserResponse> searchUsers(UserSearch search, Long after, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero: " + limit);
+        }
+        if (search.getTerm() == null || search.getTerm().isBlank()) {
+            throw new IllegalArgumentException("Search term must not be blank");
         }
+        if (search.getFields() == null || search.getFields().isEmpty()) {
+            throw new IllegalArgumentException("At least one search field is required");
+        }
+
+        long cursor = after != null ? after : 0L;
+        List<UserResponse> responses = userRepository.findPageMatchingAfter(search, cursor, Limit.of(limit))
+                .stream()
+                .map(userMapper::toResponse)
+                .toList();
 
+        auditLogger.record(AuditAction.SEARCH_USERS, cursor, search.getTerm());
         return responses;
     }
 
+    // Served from memory, no transaction; called on every keystroke, so not audited
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<TypeaheadSuggestion> suggestUsers(String prefix, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero: " + limit);
+        }
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix must not be blank");
+        }
+        return typeaheadIndex.lookup(prefix.strip(), limit);
+    }
+
+    // Nessuna transazione esterna: ogni chunk viene letto in un persistence context
+    // dedicato, cosi' le entity diventano garbage appena scritte sulla response.
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamUsers(Consumer<UserResponse> consumer) {
+        auditLogger.record(AuditAction.STREAM_USERS, AuditLogger.NO_TARGET);
+
+        long after = 0L;
+        List<User> chunk;
+        do {
+            chunk = userRepository.findPageAfter(after, Limit.of(STREAM_CHUNK_SIZE));
+            for (User user : chunk) {
+                consumer.accept(userMapper.toResponse(user));
+                after = user.getId();
+            }
+        } while (chunk.size() == STREAM_CHUNK_SIZE);
+    }
+
+    // Un solo cursore JDBC per tutta la tabella, dentro una transazione read-only:
+    // nessuna entity gestita, una riga alla volta fino al consumer (GET /export).
     @Override
     @Transactional(readOnly = true)
-    public UserResponse getUserById(Long id) {
-        String currentUser = authenticationFacade.getCurrentUsername();
-        log.info("User '{}' is retrieving user with id: {}", currentUser, id);
-        log.info("Retrieving user with id: {}", id);
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
+    public void exportUsers(Consumer<UserResponse> consumer) {
+        auditLogger.record(AuditAction.EXPORT_USERS, AuditLogger.NO_TARGET);
+        userRepository.exportAll(user -> consumer.accept(userMapper.toResponse(user)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserChangeResponse> getChanges(Long since, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero: " + limit);
+        }
 
-        UserResponse response = userMapper.toResponse(user);
+        long cursor = since != null ? since : 0L;
+        List<UserChangeResponse> changes = userChangeLog.changesAfter(cursor, limit);
+
+        auditLogger.record(AuditAction.LIST_CHANGES, cursor);
+        return changes;
+    }
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getAuthorities() != null) {
-            return responseFilter.applyFiltering(response, auth.getAuthorities());
+    @Override
+    @Transactional(readOnly = true)
+    public UserResponse getUserById(Long id) {
+        UserResponse response = userResponseCache.get(id);
+        if (response == null) {
+            long stamp = userResponseCache.stamp(id);
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new UserNotFoundException(id));
+            response = userMapper.toResponse(user);
+            userResponseCache.put(response, stamp);
         }
 
+        auditLogger.record(AuditAction.GET_USER, id);
         return response;
     }
 
     @Override
-    public UserResponse createUser(CreateUserRequest request) {
-        String currentUser = authenticationFacade.getCurrentUsername();
-        String currentEmail = authenticationFacade.getCurrentUserEmail().orElse("N/A");
+    @Transactional(readOnly = true)
+    public Long getUserVersion(Long id) {
+        // Always the stored version: a cached profile may lag behind a concurrent update
+        Long version = userRepository.findVersionById(id).orElseThrow(() -> new UserNotFoundException(id));
 
-        log.info("User '{}' (email: {}) is creating new user with username: {}",
-                currentUser, currentEmail, request.getUsername());
-        log.info("Creating new user with username: {}", request.getUsername());
+        auditLogger.record(AuditAction.GET_USER, id);
+        return version;
+    }
 
+    @Override
+    public UserResponse createUser(CreateUserRequest request) {
         if (userRepository.existsByEmail(request.getEmail())) {
             throw new EmailAlreadyExistsException(request.getEmail());
         }
@@ -90,32 +226,64 @@ public class UserServiceImpl implements UserService {
 
         User user = userMapper.toEntity(request);
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserCreatedEvent(this, savedUser));
+        auditLogger.record(AuditAction.CREATE_USER, savedUser.getId(), savedUser.getUsername());
 
-        log.info("User '{}' successfully created user with id: {}", currentUser, savedUser.getId());
+        UserResponse response = userMapper.toResponse(savedUser);
 
-        log.info("Publishing UserCreatedEvent for user: {}", savedUser.getUsername());
-        eventPublisher.publishEvent(new UserCreatedEvent(this, savedUser));
+        return response;
+    }
 
-        log.info("User created successfully with id: {}", savedUser.getId());
+    // Uniqueness is checked with set-based queries for the whole batch (existing
+    // rows and duplicates inside the request); accepted users are inserted in
+    // JDBC batches and announced with a single UsersCreatedEvent.
+    @Override
+    public BatchCreateUsersResponse createUsers(List<CreateUserRequest> requests) {
+        Set<String> takenEmails = findExisting(requests, CreateUserRequest::getEmail, userRepository::findExistingEmails);
+        Set<String> takenUsernames = findExisting(requests, CreateUserRequest::getUsername, userRepository::findExistingUsernames);
+
+        ItemResult[] results = new ItemResult[requests.size()];
+        List<User> users = new ArrayList<>();
+        List<Integer> userIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateUserRequest request = requests.get(i);
+            if (takenEmails.contains(request.getEmail())) {
+                results[i] = rejected(i, "Email already in use: " + request.getEmail());
+            } else if (takenUsernames.contains(request.getUsername())) {
+                results[i] = rejected(i, "Username already in use: " + request.getUsername());
+            } else {
+                takenEmails.add(request.getEmail());
+                takenUsernames.add(request.getUsername());
+                users.add(userMapper.toEntity(request));
+                userIndexes.add(i);
+            }
+        }
 
-        UserResponse response = userMapper.toResponse(savedUser);
+        userRepository.insertAll(users);
+        for (int i = 0; i < users.size(); i++) {
+            int index = userIndexes.get(i);
+            results[index] = ItemResult.builder()
+                    .index(index)
+                    .status(ItemStatus.CREATED)
+                    .user(userMapper.toResponse(users.get(i)))
+                    .build();
+        }
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getAuthorities() != null) {
-            return responseFilter.applyFiltering(response, auth.getAuthorities());
+        if (!users.isEmpty()) {
+            eventPublisher.publishEvent(new UsersCreatedEvent(this, users));
         }
+        auditLogger.record(AuditAction.CREATE_USERS, users.size());
 
-        return response;
+        return BatchCreateUsersResponse.builder()
+                .created(users.size())
+                .rejected(requests.size() - users.size())
+                .results(Arrays.asList(results))
+                .build();
     }
 
     @Override
-    public UserResponse updateUser(Long id, UpdateUserRequest request) {
-        String currentUser = authenticationFacade.getCurrentUsername();
-        log.info("User '{}' is updating user with id: {}", currentUser, id);
-        log.info("Updating user with id: {}", id);
-
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
+    public UserResponse updateUser(Long id, UpdateUserRequest request, Long expectedVersion) {
+        User user = findForUpdate(id, expectedVersion);
 
         user.setUsername(request.getUsername());
         user.setTaxCode(request.getTaxCode());
@@ -123,35 +291,184 @@ public class UserServiceImpl implements UserService {
         user.setLastName(request.getLastName());
 
         if (request.getRoles() != null && !request.getRoles().isEmpty()) {
-            user.setRoles(request.getRoles());
+            updateRoles(user, request.getRoles());
         }
 
-        User updatedUser = userRepository.save(user);
-        log.info("User '{}' successfully updated user with id: {}", currentUser, id);
-        log.info("User updated successfully with id: {}", id);
+        User updatedUser = saveUpdated(user, expectedVersion);
+        auditLogger.record(AuditAction.UPDATE_USER, id);
 
         UserResponse response = userMapper.toResponse(updatedUser);
 
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.getAuthorities() != null) {
-            return responseFilter.applyFiltering(response, auth.getAuthorities());
+        return response;
+    }
+
+    @Override
+    public UserResponse patchUser(Long id, PatchUserRequest patch, Long expectedVersion) {
+        User user = findForUpdate(id, expectedVersion);
+
+        boolean changed = patchField(patch.getUsername(), user.getUsername(), user::setUsername);
+        changed |= patchField(patch.getTaxCode(), user.getTaxCode(), user::setTaxCode);
+        changed |= patchField(patch.getFirstName(), user.getFirstName(), user::setFirstName);
+        changed |= patchField(patch.getLastName(), user.getLastName(), user::setLastName);
+        if (patch.getRoles() != null) {
+            changed |= updateRoles(user, patch.getRoles());
         }
 
-        return response;
+        // Nothing to write: no UPDATE, same version, no event
+        User updatedUser = changed ? saveUpdated(user, expectedVersion) : user;
+        auditLogger.record(AuditAction.UPDATE_USER, id);
+
+        return userMapper.toResponse(updatedUser);
     }
 
     @Override
     public void deleteUser(Long id) {
-        String currentUser = authenticationFacade.getCurrentUsername();
-        log.info("User '{}' is deleting user with id: {}", currentUser, id);
-        log.info("Deleting user with id: {}", id);
-
-        if (!userRepository.existsById(id)) {
+        if (userRepository.deleteAllByIds(List.of(id)) == 0) {
             throw new UserNotFoundException(id);
         }
-        userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserDeletedEvent(this, id));
+        auditLogger.record(AuditAction.DELETE_USER, id);
+    }
+
+    // Set-based: the ids that exist, then one DELETE per table and a single
+    // UsersDeletedEvent; unknown ids are ignored
+    @Override
+    public BulkOperationResponse deleteUsers(Collection<Long> ids) {
+        List<Long> existing = inChunks(List.copyOf(new HashSet<>(ids)), userRepository::findIdsByIdIn);
+        int deleted = 0;
+        for (List<Long> chunk : chunks(existing)) {
+            deleted += userRepository.deleteAllByIds(chunk);
+        }
+
+        if (!existing.isEmpty()) {
+            eventPublisher.publishEvent(new UsersDeletedEvent(this, existing));
+        }
+        auditLogger.record(AuditAction.DELETE_USERS, deleted);
+
+        return BulkOperationResponse.builder()
+                .matched(existing.size())
+                .affected(deleted)
+                .build();
+    }
+
+    // The users the change applies to are read once, then changed by a couple
+    // of statements per chunk of ids and announced with a single event
+    @Override
+    public BulkOperationResponse changeRole(Role role, boolean grant, UserSelection selection) {
+        if (selection.isEmpty()) {
+            throw new IllegalArgumentException("Select users by ids, role or search term");
+        }
+        if (selection.getTerm() != null && selection.getTerm().isBlank()) {
+            throw new IllegalArgumentException("Search term must not be blank");
+        }
+        if (selection.getFields() == null || selection.getFields().isEmpty()) {
+            throw new IllegalArgumentException("At least one search field is required");
+        }
+
+        long matched = userRepository.countSelected(selection);
+        List<Long> ids = userRepository.findIdsForRoleChange(selection, role, grant);
+        int affected = 0;
+        for (List<Long> chunk : chunks(ids)) {
+            affected += grant ? userRepository.grantRole(chunk, role) : userRepository.revokeRole(chunk, role);
+        }
+
+        if (!ids.isEmpty()) {
+            eventPublisher.publishEvent(new UsersRoleChangedEvent(this, ids, role, grant));
+        }
+        auditLogger.record(grant ? AuditAction.GRANT_ROLE : AuditAction.REVOKE_ROLE, affected, role);
+
+        return BulkOperationResponse.builder()
+                .matched(matched)
+                .affected(affected)
+                .build();
+    }
+
+    private static <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(values.subList(from, Math.min(from + BULK_CHUNK_SIZE, values.size())));
+        }
+        return chunks;
+    }
+
+    private static <T, R> List<R> inChunks(List<T> values, Function<List<T>, List<R>> query) {
+        List<R> results = new ArrayList<>();
+        for (List<T> chunk : chunks(values)) {
+            results.addAll(query.apply(chunk));
+        }
+        return results;
+    }
+
+    private static Set<String> findExisting(List<CreateUserRequest> requests,
+                                            Function<CreateUserRequest, String> key,
+                                            Function<Collection<String>, Set<String>> query) {
+        List<String> values = requests.stream().map(key).distinct().toList();
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < values.size(); from += UNIQUENESS_CHECK_CHUNK_SIZE) {
+            existing.addAll(query.apply(values.subList(from, Math.min(from + UNIQUENESS_CHECK_CHUNK_SIZE, values.size()))));
+        }
+        return existing;
+    }
+
+    private static ItemResult rejected(int index, String error) {
+        return ItemResult.builder()
+                .index(index)
+                .status(ItemStatus.REJECTED)
+                .error(error)
+                .build();
+    }
+
+    private User findForUpdate(Long id, Long expectedVersion) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException(id));
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw versionMismatch(id, expectedVersion);
+        }
+        return user;
+    }
+
+    // Flushed here: a concurrent update committed since the read fails now
+    // (412 when conditional), and the response carries the new version
+    private User saveUpdated(User user, Long expectedVersion) {
+        User updatedUser;
+        try {
+            updatedUser = userRepository.saveAndFlush(user);
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                throw versionMismatch(user.getId(), expectedVersion);
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(new UserUpdatedEvent(this, updatedUser));
+        return updatedUser;
+    }
+
+    private static boolean patchField(String value, String current, Consumer<String> setter) {
+        if (value == null || value.equals(current)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
+    }
+
+    // Changes the loaded set in place rather than replacing it: Hibernate then
+    // deletes and inserts only the user_roles rows of the removed and added
+    // roles, where a new collection means deleting and re-inserting all of them
+    private static boolean updateRoles(User user, Set<Role> roles) {
+        Set<Role> current = user.getRoles();
+        if (current == null) {
+            user.setRoles(new HashSet<>(roles));
+            return true;
+        }
+        if (current.equals(roles)) {
+            return false;
+        }
+        current.retainAll(roles);
+        current.addAll(roles);
+        return true;
+    }
 
-        log.info("User '{}' successfully deleted user with id: {}", currentUser, id);
-        log.info("User deleted successfully with id: {}", id);
+    private static PreconditionFailedException versionMismatch(Long id, Long expectedVersion) {
+        return new PreconditionFailedException("User " + id + " is no longer at version " + expectedVersion);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.hamid.usermanagement.typeahead;
+
+import java.nio.charset.StandardCharsets;
+
+// Entry added since the last compaction, ordered like the entries of TypeaheadSnapshot
+record TypeaheadEntry(byte[] term, long id, TypeaheadField field) implements Comparable<TypeaheadEntry> {
+
+    static TypeaheadEntry of(long id, TypeaheadField field, String term) {
+        return new TypeaheadEntry(term.getBytes(StandardCharsets.UTF_8), id, field);
+    }
+
+    // Lowest possible entry for the prefix: lookups start from here
+    static TypeaheadEntry lowerBound(byte[] prefix) {
+        return new TypeaheadEntry(prefix, Long.MIN_VALUE, null);
+    }
+
+    boolean startsWith(byte[] prefix) {
+        return TypeaheadSnapshot.startsWith(term, 0, term.length, prefix);
+    }
+
+    String value() {
+        return new String(term, StandardCharsets.UTF_8);
+    }
+
+    // Field ordinal, -1 for lower bounds
+    int fieldOrder() {
+        return field != null ? field.ordinal() : -1;
+    }
+
+    // The field takes part: a user with the same term in two fields has two entries
+    @Override
+    public int compareTo(TypeaheadEntry other) {
+        int result = TypeaheadSnapshot.compare(term, 0, term.length, other.term, 0, other.term.length);
+        if (result == 0) {
+            result = Long.compare(id, other.id);
+        }
+        return result != 0 ? result : Integer.compare(fieldOrder(), other.fieldOrder());
+    }
+}
@@ -0,0 +1,9 @@
+package com.hamid.usermanagement.typeahead;
+
+// User attributes indexed by TypeaheadIndex
+public enum TypeaheadField {
+    USERNAME,
+    EMAIL,
+    FIRST_NAME,
+    LAST_NAME
+}
@@ -0,0 +1,287 @@
+package com.hamid.usermanagement.typeahead;
+
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
+import com.hamid.usermanagement.entity.User;
+import com.hamid.usermanagement.event.UserCreatedEvent;
+import com.hamid.usermanagement.event.UserDeletedEvent;
+import com.hamid.usermanagement.event.UserUpdatedEvent;
+import com.hamid.usermanagement.event.UsersCreatedEvent;
+import com.hamid.usermanagement.event.UsersDeletedEvent;
+import com.hamid.usermanagement.repository.UserRepository;
+import com.hamid.usermanagement.repository.UserTerms;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-process prefix index over usernames, emails and names for autocomplete.
+// Lookups read an immutable TypeaheadSnapshot plus the changes committed since
+// it was built (overlay of new entries, tombstones for the ids whose snapshot
+// entries are stale) and never lock. Writers are serialized; once the overlay
+// outgrows minCompactionEntries (or 1/8 of the snapshot) it is merged into a
+// new snapshot on the "typeahead-compaction" thread.
+// The snapshot is loaded from UserRepository in the background at startup:
+// until then lookups only see users changed since startup.
+@Component
+@Slf4j
+public class TypeaheadIndex {
+
+    private static final int BOOTSTRAP_CHUNK_SIZE = 5000;
+
+    private final UserRepository userRepository;
+    private final int minCompactionEntries;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "typeahead-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile State state = State.of(TypeaheadSnapshot.EMPTY);
+
+    // Guarded by this
+    private final Map<Long, List<TypeaheadEntry>> overlayById = new HashMap<>();
+    private int overlaySize;
+    private boolean compactionScheduled;
+
+    public TypeaheadIndex(UserRepository userRepository, MeterRegistry meterRegistry,
+                          @Value("${typeahead.compaction.min-entries:4096}") int minCompactionEntries) {
+        this.userRepository = userRepository;
+        this.minCompactionEntries = minCompactionEntries;
+        Gauge.builder("typeahead.entries", this, index -> index.state.base().size() + index.overlaySize)
+                .description("Terms in the typeahead index")
+                .register(meterRegistry);
+        Gauge.builder("typeahead.memory", this, index -> index.state.base().memoryBytes())
+                .description("Heap used by the compacted typeahead index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        compactor.execute(() -> {
+            try {
+                long start = System.nanoTime();
+                TypeaheadSnapshot snapshot = loadSnapshot();
+                install(snapshot);
+                log.info("Typeahead index loaded: {} terms, {} KB in {} ms", snapshot.size(),
+                        snapshot.memoryBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+            } catch (RuntimeException e) {
+                log.error("Typeahead index bootstrap failed", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        compactor.shutdownNow();
+    }
+
+    // Up to limit distinct users having a term that starts with prefix (ASCII
+    // case-insensitive), ordered by the matching term
+    public List<TypeaheadSuggestion> lookup(String prefix, int limit) {
+        State current = state;
+        TypeaheadSnapshot base = current.base();
+        byte[] key = prefix.getBytes(StandardCharsets.UTF_8);
+
+        List<TypeaheadSuggestion> suggestions = new ArrayList<>(Math.min(limit, 64));
+        long[] seen = new long[limit];
+        int entry = base.lowerBound(key);
+        Iterator<TypeaheadEntry> added = current.overlay().tailSet(TypeaheadEntry.lowerBound(key)).iterator();
+        TypeaheadEntry next = nextMatch(added, key);
+
+        while (suggestions.size() < limit) {
+            boolean baseMatches = entry < base.size() && base.startsWith(entry, key);
+            if (!baseMatches && next == null) {
+                break;
+            }
+            if (baseMatches && (next == null || base.compareTo(entry, next) <= 0)) {
+                long id = base.id(entry);
+                if (!current.tombstones().contains(id) && !contains(seen, suggestions.size(), id)) {
+                    seen[suggestions.size()] = id;
+                    suggestions.add(suggestion(id, base.field(entry), base.term(entry)));
+                }
+                entry++;
+            } else {
+                if (!contains(seen, suggestions.size(), next.id())) {
+                    seen[suggestions.size()] = next.id();
+                    suggestions.add(suggestion(next.id(), next.field(), next.value()));
+                }
+                next = nextMatch(added, key);
+            }
+        }
+        return suggestions;
+    }
+
+    // Index changes only once they are committed, in the writer's thread
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        put(List.of(event.getUser()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsersCreated(UsersCreatedEvent event) {
+        put(event.getUsers());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        put(List.of(event.getUser()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserDeleted(UserDeletedEvent event) {
+        remove(List.of(event.getUserId()));
+    }
+
+    // Roles are not indexed: bulk role changes need nothing here
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsersDeleted(UsersDeletedEvent event) {
+        remove(event.getUserIds());
+    }
+
+    // Every change tombstones the id, so whatever the snapshot holds for it
+    // (even if loaded after the change) is hidden behind the overlay entries
+    synchronized void put(List<User> users) {
+        State current = state;
+        for (User user : users) {
+            List<TypeaheadEntry> entries = entries(user.getId(), user.getUsername(), user.getEmail(),
+                    user.getFirstName(), user.getLastName());
+            current.tombstones().add(user.getId());
+            List<TypeaheadEntry> previous = overlayById.put(user.getId(), entries);
+            if (previous != null) {
+                previous.forEach(current.overlay()::remove);
+                overlaySize -= previous.size();
+            }
+            current.overlay().addAll(entries);
+            overlaySize += entries.size();
+        }
+        scheduleCompactionIfNeeded(current);
+    }
+
+    synchronized void remove(List<Long> ids) {
+        State current = state;
+        for (Long id : ids) {
+            current.tombstones().add(id);
+            List<TypeaheadEntry> previous = overlayById.remove(id);
+            if (previous != null) {
+                previous.forEach(current.overlay()::remove);
+                overlaySize -= previous.size();
+            }
+        }
+        scheduleCompactionIfNeeded(current);
+    }
+
+    // Merges the overlay into a new snapshot (writers wait, lookups keep using the old state)
+    synchronized void compact() {
+        compactionScheduled = false;
+        State current = state;
+        if (current.overlay().isEmpty() && current.tombstones().isEmpty()) {
+            return;
+        }
+        state = State.of(current.base().merge(current.overlay(), current.tombstones()));
+        overlayById.clear();
+        overlaySize = 0;
+    }
+
+    synchronized void install(TypeaheadSnapshot snapshot) {
+        State current = state;
+        state = new State(snapshot, current.overlay(), current.tombstones());
+    }
+
+    long memoryBytes() {
+        return state.base().memoryBytes();
+    }
+
+    private TypeaheadSnapshot loadSnapshot() {
+        TypeaheadSnapshot.Builder builder = new TypeaheadSnapshot.Builder();
+        long after = 0L;
+        List<UserTerms> chunk;
+        do {
+            chunk = userRepository.findTermsAfter(after, Limit.of(BOOTSTRAP_CHUNK_SIZE));
+            for (UserTerms terms : chunk) {
+                builder.add(terms.id(), TypeaheadField.USERNAME, terms.username())
+                        .add(terms.id(), TypeaheadField.EMAIL, terms.email())
+                        .add(terms.id(), TypeaheadField.FIRST_NAME, terms.firstName())
+                        .add(terms.id(), TypeaheadField.LAST_NAME, terms.lastName());
+                after = terms.id();
+            }
+        } while (chunk.size() == BOOTSTRAP_CHUNK_SIZE);
+        return builder.build();
+    }
+
+    private void scheduleCompactionIfNeeded(State current) {
+        int threshold = Math.max(minCompactionEntries, current.base().size() / 8);
+        if (!compactionScheduled && Math.max(overlaySize, current.tombstones().size()) >= threshold) {
+            compactionScheduled = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    private static List<TypeaheadEntry> entries(Long id, String username, String email, String firstName, String lastName) {
+        List<TypeaheadEntry> entries = new ArrayList<>(4);
+        addEntry(entries, id, TypeaheadField.USERNAME, username);
+        addEntry(entries, id, TypeaheadField.EMAIL, email);
+        addEntry(entries, id, TypeaheadField.FIRST_NAME, firstName);
+        addEntry(entries, id, TypeaheadField.LAST_NAME, lastName);
+        return entries;
+    }
+
+    private static void addEntry(List<TypeaheadEntry> entries, long id, TypeaheadField field, String term) {
+        if (term != null && !term.isEmpty()) {
+            entries.add(TypeaheadEntry.of(id, field, term));
+        }
+    }
+
+    private static TypeaheadEntry nextMatch(Iterator<TypeaheadEntry> entries, byte[] prefix) {
+        if (entries.hasNext()) {
+            TypeaheadEntry entry = entries.next();
+            if (entry.startsWith(prefix)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static boolean contains(long[] ids, int size, long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TypeaheadSuggestion suggestion(long id, TypeaheadField field, String value) {
+        return TypeaheadSuggestion.builder()
+                .id(id)
+                .field(field)
+                .value(value)
+                .build();
+    }
+
+    private record State(TypeaheadSnapshot base, ConcurrentSkipListSet<TypeaheadEntry> overlay, Set<Long> tombstones) {
+
+        static State of(TypeaheadSnapshot base) {
+            return new State(base, new ConcurrentSkipListSet<>(), ConcurrentHashMap.newKeySet());
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.hamid.usermanagement.typeahead;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+
+// Immutable sorted-array index: entry i is the term terms[offsets[i]..offsets[i+1])
+// (UTF-8) of user ids[i], found in field fields[i]. Entries are ordered by term,
+// ignoring ASCII case, then by id and field, so a prefix lookup is a binary search plus a
+// forward scan. No object per entry: ~13 bytes of arrays plus the term bytes.
+final class TypeaheadSnapshot {
+
+    static final TypeaheadSnapshot EMPTY = new TypeaheadSnapshot(new byte[0], new int[1], new long[0], new byte[0]);
+
+    private static final TypeaheadField[] FIELDS = TypeaheadField.values();
+
+    private final byte[] terms;
+    private final int[] offsets;
+    private final long[] ids;
+    private final byte[] fields;
+
+    private TypeaheadSnapshot(byte[] terms, int[] offsets, long[] ids, byte[] fields) {
+        this.terms = terms;
+        this.offsets = offsets;
+        this.ids = ids;
+        this.fields = fields;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(int entry) {
+        return ids[entry];
+    }
+
+    TypeaheadField field(int entry) {
+        return FIELDS[fields[entry]];
+    }
+
+    String term(int entry) {
+        return new String(terms, offsets[entry], offsets[entry + 1] - offsets[entry], StandardCharsets.UTF_8);
+    }
+
+    // First entry whose term is not lower than prefix: every match starts here
+    int lowerBound(byte[] prefix) {
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(terms, offsets[mid], offsets[mid + 1], prefix, 0, prefix.length) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    boolean startsWith(int entry, byte[] prefix) {
+        return TypeaheadSnapshot.startsWith(terms, offsets[entry], offsets[entry + 1], prefix);
+    }
+
+    // Order of entry against an overlay entry
+    int compareTo(int entry, TypeaheadEntry other) {
+        int result = compare(terms, offsets[entry], offsets[entry + 1], other.term(), 0, other.term().length);
+        if (result == 0) {
+            result = Long.compare(ids[entry], other.id());
+        }
+        return result != 0 ? result : Integer.compare(fields[entry], other.fieldOrder());
+    }
+
+    // Heap used by the arrays (16-byte array headers, no padding)
+    long memoryBytes() {
+        return 4 * 16L + terms.length + 4L * offsets.length + 8L * ids.length + fields.length;
+    }
+
+    // Linear merge of the live entries of this snapshot (ids not in dropped) with
+    // the overlay, which is already sorted: no re-sort on compaction
+    TypeaheadSnapshot merge(Iterable<TypeaheadEntry> overlay, Set<Long> dropped) {
+        Builder merged = new Builder(ids.length, terms.length);
+        Iterator<TypeaheadEntry> added = overlay.iterator();
+        TypeaheadEntry next = added.hasNext() ? added.next() : null;
+        int entry = 0;
+        while (entry < ids.length || next != null) {
+            if (next == null || (entry < ids.length && compareTo(entry, next) <= 0)) {
+                if (!dropped.contains(ids[entry])) {
+                    merged.append(terms, offsets[entry], offsets[entry + 1], ids[entry], fields[entry]);
+                }
+                entry++;
+            } else {
+                merged.append(next.term(), 0, next.term().length, next.id(), (byte) next.field().ordinal());
+                next = added.hasNext() ? added.next() : null;
+            }
+        }
+        return merged.build();
+    }
+
+    // Terms compare as unsigned bytes with ASCII letters folded to lower case:
+    // UTF-8 byte order is code point order, so non-ASCII text stays ordered
+    static int compare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+        int length = Math.min(aTo - aFrom, bTo - bFrom);
+        for (int i = 0; i < length; i++) {
+            int result = fold(a[aFrom + i]) - fold(b[bFrom + i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return (aTo - aFrom) - (bTo - bFrom);
+    }
+
+    static boolean startsWith(byte[] term, int from, int to, byte[] prefix) {
+        if (to - from < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (fold(term[from + i]) != fold(prefix[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int fold(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b & 0xff;
+    }
+
+    // Collects entries in any order and sorts them once in build()
+    static final class Builder {
+
+        private byte[] terms;
+        private int[] offsets;
+        private long[] ids;
+        private byte[] fields;
+        private int size;
+        private int length;
+
+        Builder() {
+            this(1024, 16 * 1024);
+        }
+
+        private Builder(int entries, int bytes) {
+            terms = new byte[Math.max(bytes, 16)];
+            offsets = new int[Math.max(entries, 16) + 1];
+            ids = new long[Math.max(entries, 16)];
+            fields = new byte[Math.max(entries, 16)];
+        }
+
+        Builder add(long id, TypeaheadField field, String term) {
+            if (term != null && !term.isEmpty()) {
+                byte[] bytes = term.getBytes(StandardCharsets.UTF_8);
+                append(bytes, 0, bytes.length, id, (byte) field.ordinal());
+            }
+            return this;
+        }
+
+        private void append(byte[] source, int from, int to, long id, byte field) {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                offsets = Arrays.copyOf(offsets, capacity + 1);
+                ids = Arrays.copyOf(ids, capacity);
+                fields = Arrays.copyOf(fields, capacity);
+            }
+            int bytes = to - from;
+            if (length + bytes > terms.length) {
+                terms = Arrays.copyOf(terms, Math.max(length + bytes, terms.length + (terms.length >> 1)));
+            }
+            System.arraycopy(source, from, terms, length, bytes);
+            ids[size] = id;
+            fields[size] = field;
+            offsets[size] = length;
+            length += bytes;
+            size++;
+            offsets[size] = length;
+        }
+
+        TypeaheadSnapshot build() {
+            int[] order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            if (!isSorted()) {
+                mergeSort(order, new int[size], 0, size);
+            }
+
+            byte[] sortedTerms = new byte[length];
+            int[] sortedOffsets = new int[size + 1];
+            long[] sortedIds = new long[size];
+            byte[] sortedFields = new byte[size];
+            int position = 0;
+            for (int i = 0; i < size; i++) {
+                int entry = order[i];
+                int bytes = offsets[entry + 1] - offsets[entry];
+                System.arraycopy(terms, offsets[entry], sortedTerms, position, bytes);
+                sortedOffsets[i] = position;
+                sortedIds[i] = ids[entry];
+                sortedFields[i] = fields[entry];
+                position += bytes;
+            }
+            sortedOffsets[size] = position;
+            return new TypeaheadSnapshot(sortedTerms, sortedOffsets, sortedIds, sortedFields);
+        }
+
+        private boolean isSorted() {
+            for (int i = 1; i < size; i++) {
+                if (compareEntries(i - 1, i) > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Merge sort of entry indexes: stable and allocation-free apart from the scratch array
+        private void mergeSort(int[] order, int[] scratch, int from, int to) {
+            if (to - from < 2) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(order, scratch, from, mid);
+            mergeSort(order, scratch, mid, to);
+            if (compareEntries(order[mid - 1], order[mid]) <= 0) {
+                return;
+            }
+            System.arraycopy(order, from, scratch, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < mid && compareEntries(scratch[left], scratch[right]) <= 0)) {
+                    order[i] = scratch[left++];
+                } else {
+                    order[i] = scratch[right++];
+                }
+            }
+        }
+
+        private int compareEntries(int a, int b) {
+            int result = compare(terms, offsets[a], offsets[a + 1], terms, offsets[b], offsets[b + 1]);
+            if (result == 0) {
+                result = Long.compare(ids[a], ids[b]);
+            }
+            return result != 0 ? result : Integer.compare(fields[a], fields[b]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.hamid.usermanagement.util;
+
+import com.hamid.usermanagement.exception.PreconditionFailedException;
+import com.hamid.usermanagement.repository.UserVersion;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+// Entity tags of user resources: the version of a user, or a digest of the ids
+// and versions of a page. Both are known without loading or mapping users.
+// Bodies also depend on the caller's role (UserResponseFilter), so responses
+// carrying these tags are sent with Vary: Authorization.
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String ofVersion(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    public static String ofPage(List<UserVersion> page) {
+        MessageDigest digest = sha256();
+        ByteBuffer entry = ByteBuffer.allocate(2 * Long.BYTES);
+        for (UserVersion user : page) {
+            entry.clear();
+            entry.putLong(user.id()).putLong(user.version());
+            digest.update(entry.array());
+        }
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    // If-None-Match: weak comparison against each listed tag, "*" matches anything
+    public static boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.strip();
+            if (tag.equals("*") || stripWeak(tag).equals(stripWeak(etag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Match: "*" or the single strong tag returned by a previous request;
+    // null means the update is unconditional
+    public static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // falls through
+            }
+        }
+        throw new PreconditionFailedException("If-Match must be * or the ETag of the current version: " + ifMatch);
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.hamid.usermanagement.util;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+// Content-Encoding of streamed exports, negotiated from Accept-Encoding and applied
+// in the controller: Tomcat's own compression (server.compression) turns strong ETags
+// into weak ones, which If-Match on single users must not receive.
+// Declared in order of preference for equal quality values.
+public enum ResponseCompression {
+
+    ZSTD("zstd") {
+        @Override
+        public OutputStream wrap(OutputStream body) throws IOException {
+            // Level 3 (zstd default): better ratio than gzip at a fraction of its CPU time
+            return new ZstdOutputStream(StreamUtils.nonClosing(body), 3);
+        }
+    },
+    GZIP("gzip") {
+        @Override
+        public OutputStream wrap(OutputStream body) throws IOException {
+            return new GZIPOutputStream(StreamUtils.nonClosing(body), BUFFER_SIZE);
+        }
+    },
+    IDENTITY(null) {
+        @Override
+        public OutputStream wrap(OutputStream body) {
+            return StreamUtils.nonClosing(body);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String coding;
+
+    ResponseCompression(String coding) {
+        this.coding = coding;
+    }
+
+    // Content-Encoding header value, null for an uncompressed body
+    public String coding() {
+        return coding;
+    }
+
+    // Closing the returned stream finishes the compressed body but leaves the response open
+    public abstract OutputStream wrap(OutputStream body) throws IOException;
+
+    // Highest quality coding the client accepts ("*" matches any); identity when none
+    public static ResponseCompression negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTITY;
+        }
+        ResponseCompression best = IDENTITY;
+        double bestQuality = 0;
+        for (ResponseCompression compression : values()) {
+            if (compression == IDENTITY) {
+                continue;
+            }
+            double quality = quality(acceptEncoding, compression.coding);
+            if (quality > bestQuality) {
+                best = compression;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private static double quality(String acceptEncoding, String coding) {
+        double wildcard = 0;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String name = parts[0].strip().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].strip();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals(coding)) {
+                return quality;
+            }
+            if (name.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard;
+    }
+}
@@ -1,69 +1,65 @@
 package com.hamid.usermanagement.util;
 
 
-import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.dto.response.UserViews;
+import com.hamid.usermanagement.security.AuthorityPool;
+import com.hamid.usermanagement.security.CallerAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
-import java.util.List;
 
+// Role-based redaction of UserResponse: instead of copying every response, the
+// Jackson view matching the caller's authorities is resolved once per request
+// and applied at serialization time (see UserResponseViewAdvice).
 @Component
 public class UserResponseFilter {
 
-    private static final GrantedAuthority ROLE_ADMIN = new SimpleGrantedAuthority("ROLE_ADMIN");
-    private static final GrantedAuthority ROLE_OPERATOR = new SimpleGrantedAuthority("ROLE_OPERATOR");
-
-    public UserResponse applyFiltering(UserResponse response, Collection<? extends GrantedAuthority> authorities) {
-        if (response == null) {
-            return null;
-        }
+    private static final GrantedAuthority ROLE_ADMIN = AuthorityPool.ROLE_ADMIN;
+    private static final GrantedAuthority ROLE_OPERATOR = AuthorityPool.ROLE_OPERATOR;
 
+    public Class<?> resolveView(Collection<? extends GrantedAuthority> authorities) {
         if (hasRole(authorities, ROLE_ADMIN)) {
-            return response;
+            return UserViews.Admin.class;
         }
 
         if (hasRole(authorities, ROLE_OPERATOR)) {
-            return UserResponse.builder()
-                    .id(response.getId())
-                    .username(response.getUsername())
-                    .email(response.getEmail())
-                    .taxCode(null)  // ← Hidden for OPERATOR
-                    .firstName(response.getFirstName())
-                    .lastName(response.getLastName())
-                    .roles(response.getRoles())
-                    .build();
+            return UserViews.Operator.class;  // ← taxCode hidden
         }
 
-        return UserResponse.builder()
-                .id(response.getId())
-                .username(response.getUsername())
-                .email(response.getEmail())
-                .taxCode(null)  // ← Hidden for USER
-                .firstName(response.getFirstName())
-                .lastName(response.getLastName())
-                .roles(null)  // ← Hidden for USER
-                .build();
+        return UserViews.Basic.class;  // ← taxCode and roles hidden
     }
 
-    public List<UserResponse> applyFiltering(
-            List<UserResponse> responses,
-            Collection<? extends GrantedAuthority> authorities) {
+    // null (no view, nothing hidden) when the request is not authenticated, as before
+    public Class<?> resolveCurrentView() {
+        return resolveView(SecurityContextHolder.getContext().getAuthentication());
+    }
 
-        if (responses == null) {
-            return null;
+    // Same rule for callers that do not use SecurityContextHolder (reactive module);
+    // bearer tokens already carry the view, computed once by CallerAuthenticationConverter
+    public Class<?> resolveView(Authentication auth) {
+        if (auth instanceof CallerAuthenticationToken token) {
+            return token.getCaller().view();
         }
-
-        return responses.stream()
-                .map(response -> applyFiltering(response, authorities))
-                .toList();
+        if (auth != null && auth.getAuthorities() != null) {
+            return resolveView(auth.getAuthorities());
+        }
+        return null;
     }
 
+    // Authorities from KeycloakRoleConverter come from AuthorityPool: the reference
+    // check matches them, equals() covers authorities built elsewhere
     private boolean hasRole(Collection<? extends GrantedAuthority> authorities, GrantedAuthority role) {
         if (authorities == null) {
             return false;
         }
-        return authorities.contains(role);
+        for (GrantedAuthority authority : authorities) {
+            if (authority == role || role.equals(authority)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
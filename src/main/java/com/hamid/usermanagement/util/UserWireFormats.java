@@ -0,0 +1,59 @@
+package com.hamid.usermanagement.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Encodings of user bodies: JSON and two binary forms of the same data model (CBOR,
+// Smile) for internal clients pulling large lists. The binary mappers are copies of
+// Boot's ObjectMapper with another factory, so field names, dates and the role views
+// (UserResponseFilter) are the same in every format; only the bytes differ.
+@Component
+public class UserWireFormats {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    // Preference order when the client accepts several formats equally (*/* -> JSON)
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    public UserWireFormats(ObjectMapper objectMapper) {
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(MediaType.APPLICATION_CBOR, objectMapper.copyWith(new CBORFactory()));
+        mappers.put(APPLICATION_SMILE, objectMapper.copyWith(new SmileFactory()));
+    }
+
+    public ObjectMapper mapperFor(MediaType format) {
+        ObjectMapper mapper = mappers.get(format);
+        if (mapper == null) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        return mapper;
+    }
+
+    // Format of a hand-written body (GET /stream): the first supported type of the
+    // Accept header by quality, JSON when the header is missing or accepts anything
+    public MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType type : accepted) {
+            for (MediaType format : mappers.keySet()) {
+                if (type.getQualityValue() > 0 && type.isCompatibleWith(format)) {
+                    return format;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+}
@@ -0,0 +1,24 @@
+-- Moves role assignments from the user_roles join table to the users.roles_mask column.
+-- Run it before starting the application with the roles-bitmask profile.
+-- Bit values follow com.hamid.usermanagement.entity.Role#mask() (declaration order).
+
+ALTER TABLE users ADD COLUMN roles_mask INTEGER DEFAULT 0 NOT NULL;
+
+-- user_roles holds one row per (user, role), so the sum of the bits is the mask
+UPDATE users SET roles_mask = (
+    SELECT COALESCE(SUM(CASE r.role
+                            WHEN 'OWNER' THEN 1
+                            WHEN 'OPERATOR' THEN 2
+                            WHEN 'MAINTAINER' THEN 4
+                            WHEN 'DEVELOPER' THEN 8
+                            WHEN 'REPORTER' THEN 16
+                            ELSE 0
+                        END), 0)
+    FROM user_roles r
+    WHERE r.user_id = users.id
+);
+
+CREATE INDEX idx_users_roles_mask ON users (roles_mask);
+
+-- Once the new mode has been verified:
+-- DROP TABLE user_roles;
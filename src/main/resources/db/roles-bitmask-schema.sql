@@ -0,0 +1,2 @@
+-- Executed by Hibernate after schema generation when the roles-bitmask profile is active
+CREATE INDEX idx_users_roles_mask ON users (roles_mask);
@@ -0,0 +1,115 @@
+package com.hamid.usermanagement.audit;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.security.AuthenticationFacade;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+@DisplayName("Audit Logger Tests")
+class AuditLoggerTest {
+
+    private AuthenticationFacade authenticationFacade;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        authenticationFacade = mock(AuthenticationFacade.class);
+        when(authenticationFacade.getCurrentUsername()).thenReturn("alice");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Should write one record per operation with the current actor")
+    void record_ShouldWriteAuditLineAsynchronously(CapturedOutput output) throws Exception {
+        AuditLogger auditLogger = new AuditLogger(authenticationFacade, meterRegistry, true, 16);
+        auditLogger.start();
+
+        auditLogger.record(AuditAction.GET_USER, 42L);
+        auditLogger.record(AuditAction.LIST_USERS, 0L, Role.DEVELOPER);
+
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(output.toString())
+                        .contains("action=GET_USER actor=alice target=42 detail=null")
+                        .contains("action=LIST_USERS actor=alice target=0 detail=DEVELOPER"));
+        auditLogger.stop();
+    }
+
+    @Test
+    @DisplayName("Should wake the idle writer for a record arriving after it parked")
+    void record_WhenWriterIdle_ShouldWakeWriter(CapturedOutput output) throws Exception {
+        AuditLogger auditLogger = new AuditLogger(authenticationFacade, meterRegistry, true, 16);
+        auditLogger.start();
+
+        auditLogger.record(AuditAction.GET_USER, 6L);
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(output.toString()).contains("action=GET_USER actor=alice target=6"));
+        // The buffer is empty again: the writer parks until the next record
+        auditLogger.record(AuditAction.DELETE_USER, 7L);
+
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(output.toString())
+                        .contains("action=DELETE_USER actor=alice target=7"));
+        auditLogger.stop();
+    }
+
+    @Test
+    @DisplayName("Should do nothing when disabled")
+    void record_WhenDisabled_ShouldNotTouchAuthentication() throws Exception {
+        AuditLogger auditLogger = new AuditLogger(authenticationFacade, meterRegistry, false, 16);
+        auditLogger.start();
+
+        auditLogger.record(AuditAction.DELETE_USER, 1L);
+
+        verifyNoInteractions(authenticationFacade);
+        auditLogger.stop();
+    }
+
+    @Test
+    @DisplayName("Should drop and count records when the buffer is full")
+    void record_WhenBufferFull_ShouldDropRecords() {
+        // Writer not started: nothing drains the buffer
+        AuditLogger auditLogger = new AuditLogger(authenticationFacade, meterRegistry, true, 4);
+
+        for (int i = 0; i < 6; i++) {
+            auditLogger.record(AuditAction.UPDATE_USER, i);
+        }
+
+        assertThat(meterRegistry.get("audit.dropped").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Ring buffer should hand records back in order and reuse its slots")
+    void ringBuffer_ShouldPreserveOrderAcrossWraps() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        List<Long> targets = new ArrayList<>();
+
+        for (long round = 0; round < 3; round++) {
+            for (long i = 0; i < 4; i++) {
+                assertThat(buffer.offer(0L, AuditAction.GET_USER, "alice", round * 4 + i, null)).isTrue();
+            }
+            assertThat(buffer.offer(0L, AuditAction.GET_USER, "alice", -1L, null)).isFalse();
+            buffer.drain(slot -> targets.add(slot.target), 10);
+        }
+
+        assertThat(targets).hasSize(12).isSorted();
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.hasPending()).isFalse();
+    }
+}
@@ -0,0 +1,48 @@
+package com.hamid.usermanagement.cache;
+
+import com.hamid.usermanagement.dto.response.UserResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("User Response Cache Tests")
+class UserResponseCacheTest {
+
+    private UserResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserResponseCache(new ConcurrentMapCacheManager(UserResponseCache.CACHE_NAME));
+    }
+
+    @Test
+    @DisplayName("Should keep a profile loaded while the user was not invalidated")
+    void put_WhenStampUnchanged_ShouldCache() {
+        long stamp = cache.stamp(1L);
+
+        cache.put(response(1L, 0L), stamp);
+
+        assertThat(cache.get(1L)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Should drop a profile loaded before a concurrent update was evicted")
+    void put_WhenEvictedDuringRead_ShouldNotCache() {
+        long stamp = cache.stamp(1L);
+        // The update commits and evicts while the read is still mapping the old row
+        cache.evict(1L);
+
+        cache.put(response(1L, 0L), stamp);
+
+        assertThat(cache.get(1L)).isNull();
+        cache.put(response(1L, 1L), cache.stamp(1L));
+        assertThat(cache.get(1L).getVersion()).isEqualTo(1L);
+    }
+
+    private static UserResponse response(Long id, Long version) {
+        return UserResponse.builder().id(id).version(version).build();
+    }
+}
@@ -0,0 +1,261 @@
+package com.hamid.usermanagement.changes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.request.UpdateUserRequest;
+import com.hamid.usermanagement.dto.response.UserChangeResponse;
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.outbox.OutboxEventRepository;
+import com.hamid.usermanagement.outbox.OutboxRelay;
+import com.hamid.usermanagement.repository.UserRepository;
+import com.hamid.usermanagement.repository.UserSelection;
+import com.hamid.usermanagement.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Own database, relay driven by the test: changes appear exactly when relay() runs
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:changesdb;DB_CLOSE_DELAY=-1",
+        "outbox.relay.poll-interval=1h",
+        "user-changes.stream.poll-interval=100ms",
+        "user-events.processing-delay=0ms"
+})
+@AutoConfigureMockMvc(addFilters = false)
+@DisplayName("User Change Feed Tests")
+class UserChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private UserChangeLog userChangeLog;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        userChangeRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should log creations, updates, bulk role changes and deletions once relayed, in order")
+    void relay_ShouldAppendEveryChange() {
+
+        UserResponse first = userService.createUser(newRequest(1));
+        UserResponse second = userService.createUser(newRequest(2));
+        userService.updateUser(first.getId(), updateRequest("renamed.1"), null);
+        userService.changeRole(Role.OWNER, true, UserSelection.builder().ids(Set.of(second.getId())).build());
+        userService.deleteUser(first.getId());
+
+        assertThat(userChangeLog.changesAfter(0L, 100)).isEmpty();
+        outboxRelay.relay();
+
+        List<UserChangeResponse> changes = userChangeLog.changesAfter(0L, 100);
+        assertThat(changes).extracting(UserChangeResponse::getType).containsExactly(
+                UserChangeType.CREATED, UserChangeType.CREATED, UserChangeType.UPDATED, UserChangeType.UPDATED,
+                UserChangeType.DELETED);
+        assertThat(changes).extracting(UserChangeResponse::getUserId).containsExactly(
+                first.getId(), second.getId(), first.getId(), second.getId(), first.getId());
+        assertThat(changes).extracting(UserChangeResponse::getId).isSorted();
+        assertThat(changes.get(2).getUser().getUsername()).isEqualTo("renamed.1");
+        assertThat(changes.get(2).getUser().getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(changes.get(3).getUser().getRoles()).containsExactlyInAnyOrder(Role.DEVELOPER, Role.OWNER);
+        assertThat(changes.get(4).getUser()).isNull();
+
+        // Relaying again adds nothing: the outbox rows were marked journaled with the batch
+        outboxRelay.relay();
+        assertThat(userChangeRepository.count()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should log an event committed after a higher outbox id was relayed, after it")
+    void relay_WhenOutboxIdsInterleaved_ShouldLogLateCommit() throws Exception {
+
+        // The first transaction takes the lower outbox id but commits last
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<UserResponse> late = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            UserResponse user = userService.createUser(newRequest(1));
+            recorded.countDown();
+            awaitLatch(commit);
+            return user;
+        }));
+        assertThat(recorded.await(3, TimeUnit.SECONDS)).isTrue();
+
+        UserResponse early = userService.createUser(newRequest(2));
+        long earlyEventId = outboxEventRepository.findAll().get(0).getId();
+        outboxRelay.relay();
+        assertThat(userChangeLog.changesAfter(0L, 100)).extracting(UserChangeResponse::getUserId)
+                .containsExactly(early.getId());
+
+        commit.countDown();
+        UserResponse lateUser = late.get(3, TimeUnit.SECONDS);
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getAggregateId().equals(lateUser.getId()))
+                .singleElement()
+                .satisfies(event -> assertThat(event.getId()).isLessThan(earlyEventId));
+        outboxRelay.relay();
+
+        List<UserChangeResponse> changes = userChangeLog.changesAfter(0L, 100);
+        assertThat(changes).extracting(UserChangeResponse::getUserId).containsExactly(early.getId(), lateUser.getId());
+        assertThat(changes).extracting(UserChangeResponse::getId).isSorted();
+        // A reader that already consumed the first change still gets the late one
+        assertThat(userChangeLog.changesAfter(changes.get(0).getId(), 100)).extracting(UserChangeResponse::getUserId)
+                .containsExactly(lateUser.getId());
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_OPERATOR", "read_user"})
+    @DisplayName("GET /api/v1/users/changes - Should page changes after the cursor, redacted per role")
+    void getChanges_ShouldPageFromCursor() throws Exception {
+
+        userService.createUser(newRequest(1));
+        userService.createUser(newRequest(2));
+        userService.createUser(newRequest(3));
+        outboxRelay.relay();
+        List<UserChangeResponse> changes = userChangeLog.changesAfter(0L, 100);
+
+        mockMvc.perform(get("/api/v1/users/changes").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].type", is("CREATED")))
+                .andExpect(jsonPath("$[0].user.username", is("changes.1")))
+                .andExpect(jsonPath("$[0].user.taxCode").doesNotExist())
+                .andExpect(jsonPath("$[0].user.roles[0]", is("DEVELOPER")))
+                .andExpect(header().string("X-Next-Cursor", String.valueOf(changes.get(1).getId())))
+                .andExpect(header().string("Link", containsString("since=" + changes.get(1).getId())));
+
+        String last = String.valueOf(changes.get(2).getId());
+        mockMvc.perform(get("/api/v1/users/changes").param("since", String.valueOf(changes.get(1).getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].user.username", is("changes.3")))
+                .andExpect(header().string("X-Next-Cursor", last))
+                .andExpect(header().doesNotExist("Link"));
+
+        // Nothing new: empty page, same cursor
+        mockMvc.perform(get("/api/v1/users/changes").param("since", last))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)))
+                .andExpect(header().string("X-Next-Cursor", last));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"ROLE_OPERATOR", "read_user"})
+    @DisplayName("GET /api/v1/users/changes/stream - Should resume from Last-Event-ID and push new changes")
+    void streamChanges_ShouldSendBacklogThenNewChanges() throws Exception {
+
+        userService.createUser(newRequest(1));
+        userService.createUser(newRequest(2));
+        outboxRelay.relay();
+        List<UserChangeResponse> changes = userChangeLog.changesAfter(0L, 2);
+        long firstId = changes.get(0).getId();
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/changes/stream").header("Last-Event-ID", firstId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(events(result)).extracting(event -> event.at("/user/username").asText())
+                        .containsExactly("changes.2"));
+
+        userService.createUser(newRequest(3));
+        outboxRelay.relay();
+
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(events(result)).extracting(event -> event.at("/user/username").asText())
+                        .containsExactly("changes.2", "changes.3"));
+        assertThat(events(result)).allSatisfy(event -> assertThat(event.at("/user").has("taxCode")).isFalse());
+        assertThat(result.getResponse().getContentAsString()).contains("id:" + changes.get(1).getId());
+    }
+
+    private static void awaitLatch(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(3, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // "id:<cursor>\ndata:<json>\n\n" per change
+    private List<JsonNode> events(MvcResult result) throws Exception {
+        return Arrays.stream(result.getResponse().getContentAsString().split("\n"))
+                .filter(line -> line.startsWith("data:"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readTree(line.substring("data:".length()));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    private CreateUserRequest newRequest(int index) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("changes." + index);
+        request.setEmail("changes" + index + "@example.com");
+        request.setTaxCode("TSTCHG90A01H501Z");
+        request.setFirstName("Changes");
+        request.setLastName("User" + index);
+        request.setRoles(Set.of(Role.DEVELOPER));
+        return request;
+    }
+
+    private UpdateUserRequest updateRequest(String username) {
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setUsername(username);
+        request.setTaxCode("TSTCHG90A01H501Z");
+        request.setFirstName("Changes");
+        request.setLastName("Renamed");
+        request.setRoles(Set.of(Role.DEVELOPER));
+        return request;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hamid.usermanagement.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Async Config Tests")
+class AsyncConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(AsyncConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new);
+
+    @Test
+    @DisplayName("Should run user events on the bounded platform pool by default")
+    void defaultMode_ShouldUseThreadPool() {
+        contextRunner.run(context -> assertThat(context.getBean(AsyncConfig.USER_EVENT_EXECUTOR))
+                .isInstanceOf(ThreadPoolTaskExecutor.class));
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("Should run user events on virtual threads when they are enabled")
+    void virtualThreads_ShouldUseThrottledVirtualExecutor() {
+        contextRunner
+                .withPropertyValues(
+                        "spring.threads.virtual.enabled=true",
+                        "user-events.executor.virtual-concurrency-limit=50")
+                .run(context -> {
+                    SimpleAsyncTaskExecutor executor = context.getBean(
+                            AsyncConfig.USER_EVENT_EXECUTOR, SimpleAsyncTaskExecutor.class);
+                    assertThat(executor.getConcurrencyLimit()).isEqualTo(50);
+                    assertThat(context).doesNotHaveBean(ThreadPoolTaskExecutor.class);
+                });
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    @DisplayName("Should keep the platform pool when virtual threads are enabled on an older JVM")
+    void virtualThreadsBeforeJava21_ShouldFallBackToThreadPool() {
+        contextRunner
+                .withPropertyValues("spring.threads.virtual.enabled=true")
+                .run(context -> assertThat(context.getBean(AsyncConfig.USER_EVENT_EXECUTOR))
+                        .isInstanceOf(ThreadPoolTaskExecutor.class));
+    }
+}
@@ -0,0 +1,161 @@
+package com.hamid.usermanagement.config;
+
+import com.hamid.usermanagement.security.CachedJwkSource;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@DisplayName("JWT Decoder with cached JWKS Tests")
+class JwtDecoderConfigTest {
+
+    private static final String ISSUER = "https://idp.example.com/realms/test";
+
+    private static RSAKey currentKey;
+    private static RSAKey rotatedKey;
+
+    @TempDir
+    private Path tempDir;
+
+    private final AtomicReference<JWKSet> upstreamKeys = new AtomicReference<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CachedJwkSource jwkSource;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        currentKey = new RSAKeyGenerator(2048).keyID("current").generate();
+        rotatedKey = new RSAKeyGenerator(2048).keyID("rotated").generate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (jwkSource != null) {
+            jwkSource.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should verify tokens with the fetched keys and persist them")
+    void decode_ShouldVerifyWithFetchedKeys() throws Exception {
+        upstreamKeys.set(new JWKSet(currentKey));
+        JwtDecoder decoder = startDecoder(Duration.ofSeconds(30));
+
+        Jwt jwt = decoder.decode(sign(currentKey, ISSUER));
+
+        assertThat(jwt.getSubject()).isEqualTo("alice");
+        String persisted = Files.readString(cacheFile());
+        assertThat(persisted).contains("\"kid\":\"current\"").doesNotContain("\"d\":");
+        assertThat(meterRegistry.get("jwks.refresh").tag("outcome", "success").timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should verify tokens offline from the persisted key set")
+    void decode_WhenIdentityProviderIsDown_ShouldUsePersistedKeys() throws Exception {
+        Files.writeString(cacheFile(), new JWKSet(currentKey).toString(true));
+        JwtDecoder decoder = startDecoder(Duration.ofSeconds(30));
+
+        Jwt jwt = decoder.decode(sign(currentKey, ISSUER));
+
+        assertThat(jwt.getSubject()).isEqualTo("alice");
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(meterRegistry.get("jwks.refresh").tag("outcome", "failure").timer().count())
+                        .isPositive());
+        assertThat(meterRegistry.get("jwks.staleness").gauge().value()).isGreaterThanOrEqualTo(0);
+        assertThat(meterRegistry.get("jwks.keys").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should pick up a rotated key in the background after an unknown kid")
+    void decode_WithRotatedKey_ShouldRefreshInBackground() throws Exception {
+        upstreamKeys.set(new JWKSet(currentKey));
+        JwtDecoder decoder = startDecoder(Duration.ZERO);
+        decoder.decode(sign(currentKey, ISSUER));
+
+        upstreamKeys.set(new JWKSet(List.of(currentKey, rotatedKey)));
+        String rotatedToken = sign(rotatedKey, ISSUER);
+
+        assertThatThrownBy(() -> decoder.decode(rotatedToken)).isInstanceOf(JwtException.class);
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(decoder.decode(rotatedToken).getSubject()).isEqualTo("alice"));
+        assertThat(meterRegistry.get("jwks.unknown.keys").counter().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should reject tokens from another issuer")
+    void decode_WithWrongIssuer_ShouldFail() throws Exception {
+        upstreamKeys.set(new JWKSet(currentKey));
+        JwtDecoder decoder = startDecoder(Duration.ofSeconds(30));
+
+        String token = sign(currentKey, "https://evil.example.com");
+
+        assertThatThrownBy(() -> decoder.decode(token)).isInstanceOf(JwtException.class);
+    }
+
+    // The first refresh runs on the background thread: wait for it unless the IdP is down
+    private JwtDecoder startDecoder(Duration minRefreshInterval) {
+        jwkSource = new CachedJwkSource(this::fetchUpstream, cacheFile(), Duration.ofHours(1), minRefreshInterval, meterRegistry);
+        jwkSource.start();
+        if (upstreamKeys.get() != null) {
+            await()
+                    .atMost(3, TimeUnit.SECONDS)
+                    .until(() -> Files.exists(cacheFile()));
+        }
+        return JwtDecoderConfig.nimbusJwtDecoder(jwkSource, ISSUER);
+    }
+
+    private JWKSet fetchUpstream() {
+        JWKSet keys = upstreamKeys.get();
+        if (keys == null) {
+            throw new IllegalStateException("Identity provider unavailable");
+        }
+        return keys;
+    }
+
+    private Path cacheFile() {
+        return tempDir.resolve("jwks.json");
+    }
+
+    private static String sign(RSAKey key, String issuer) throws Exception {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject("alice")
+                .jwtID("jti-" + System.nanoTime())
+                .issueTime(new Date())
+                .expirationTime(Date.from(Instant.now().plusSeconds(300)))
+                .build();
+        SignedJWT jwt = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).type(JOSEObjectType.JWT).build(),
+                claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,89 @@
+package com.hamid.usermanagement.config;
+
+import com.hamid.usermanagement.security.AuthorityPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Keycloak Role Converter Tests")
+class KeycloakRoleConverterTest {
+
+    private SecurityConfig.KeycloakRoleConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new SecurityConfig.KeycloakRoleConverter(100);
+    }
+
+    @Test
+    @DisplayName("Should map realm roles to ROLE_ authorities and keep client roles as permissions")
+    void convert_ShouldMapRealmAndClientRoles() {
+
+        Collection<GrantedAuthority> authorities = converter.convert(jwt("token-1", "jti-1", Instant.now().plusSeconds(300)));
+
+        assertThat(AuthorityUtils.authorityListToSet(authorities))
+                .containsExactlyInAnyOrder("ROLE_ADMIN", "read_user", "create_user");
+        assertThat(authorities).first().isSameAs(AuthorityPool.ROLE_ADMIN);
+        assertThatThrownBy(() -> authorities.clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should reuse the authorities of a token seen before")
+    void convert_WithSameTokenId_ShouldReturnCachedAuthorities() {
+        Instant expiresAt = Instant.now().plusSeconds(300);
+
+        Collection<GrantedAuthority> first = converter.convert(jwt("token-1", "jti-1", expiresAt));
+        Collection<GrantedAuthority> second = converter.convert(jwt("token-1", "jti-1", expiresAt));
+        Collection<GrantedAuthority> other = converter.convert(jwt("token-2", "jti-2", expiresAt));
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first).isEqualTo(first);
+        assertThat(other.iterator().next()).isSameAs(first.iterator().next());
+    }
+
+    @Test
+    @DisplayName("Should key tokens without jti by their value")
+    void convert_WithoutTokenId_ShouldCacheByTokenValue() {
+        Instant expiresAt = Instant.now().plusSeconds(300);
+
+        Collection<GrantedAuthority> first = converter.convert(jwt("token-1", null, expiresAt));
+
+        assertThat(converter.convert(jwt("token-1", null, expiresAt))).isSameAs(first);
+        assertThat(converter.convert(jwt("token-2", null, expiresAt))).isNotSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should not cache an expired token")
+    void convert_WithExpiredToken_ShouldNotCache() {
+        Instant expiredAt = Instant.now().minusSeconds(1);
+
+        Collection<GrantedAuthority> first = converter.convert(jwt("token-1", "jti-1", expiredAt));
+
+        assertThat(converter.convert(jwt("token-1", "jti-1", expiredAt))).isNotSameAs(first);
+    }
+
+    private Jwt jwt(String tokenValue, String jti, Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue(tokenValue)
+                .header("alg", "RS256")
+                .subject("alice")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .claim("realm_access", Map.of("roles", List.of("admin")))
+                .claim("resource_access", Map.of("demo-task", Map.of("roles", List.of("read_user", "create_user"))));
+        if (jti != null) {
+            builder.jti(jti);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.hamid.usermanagement.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// @SpringBootTest turns metrics export off: without it /actuator/prometheus does not exist
+@SpringBootTest(properties = "management.prometheus.metrics.export.enabled=true")
+@AutoConfigureMockMvc
+@DisplayName("Security Config Tests")
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should keep health and info open")
+    void actuator_ShouldPermitProbes() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/info")).andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should require ROLE_ADMIN for metrics and caches")
+    void actuator_ShouldRequireAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/actuator/caches")).andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/actuator/caches").with(jwt().authorities(new SimpleGrantedAuthority("read_user"))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").with(jwt().authorities(new SimpleGrantedAuthority(SecurityConfig.SCRAPE_METRICS))))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/metrics").with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should serve the Prometheus scrape only to the scrape_metrics role or ROLE_ADMIN")
+    void prometheus_ShouldRequireScrapeRole() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(jwt().authorities(new SimpleGrantedAuthority("read_user"))))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/prometheus").with(jwt().authorities(new SimpleGrantedAuthority(SecurityConfig.SCRAPE_METRICS))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").with(jwt().authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,26 +1,59 @@
 package com.hamid.usermanagement.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.github.luben.zstd.ZstdInputStream;
+import com.hamid.usermanagement.changes.UserChangeFeed;
+import com.hamid.usermanagement.config.WireFormatConfig;
+import com.hamid.usermanagement.dto.request.BatchCreateUsersRequest;
+import com.hamid.usermanagement.dto.request.BulkLimits;
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.request.PatchUserRequest;
 import com.hamid.usermanagement.dto.request.UpdateUserRequest;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse.ItemResult;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse.ItemStatus;
+import com.hamid.usermanagement.dto.response.BulkOperationResponse;
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
 import com.hamid.usermanagement.dto.response.UserResponse;
 import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.exception.PreconditionFailedException;
+import com.hamid.usermanagement.repository.UserSearch;
+import com.hamid.usermanagement.repository.UserSelection;
+import com.hamid.usermanagement.repository.UserVersion;
 import com.hamid.usermanagement.service.UserService;
+import com.hamid.usermanagement.typeahead.TypeaheadField;
+import com.hamid.usermanagement.util.ETags;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import com.hamid.usermanagement.util.UserWireFormats;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -28,6 +61,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.hamcrest.Matchers.*;
 
 @WebMvcTest(UserController.class)
+@Import({UserResponseFilter.class, UserWireFormats.class, WireFormatConfig.class})
 @AutoConfigureMockMvc(addFilters = false)  // ← AGGIUNGI QUESTA RIGA (disabilita Security nei test)
 @DisplayName("User Controller Tests")
 class UserControllerTest {
@@ -41,6 +75,9 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private UserChangeFeed userChangeFeed;
+
     private UserResponse userResponse;
     private CreateUserRequest createRequest;
     private UpdateUserRequest updateRequest;
@@ -55,6 +92,7 @@ class UserControllerTest {
                 .firstName("Test")
                 .lastName("User")
                 .roles(Set.of(Role.DEVELOPER))
+                .version(3L)
                 .build();
 
         createRequest = new CreateUserRequest();
@@ -74,21 +112,137 @@ class UserControllerTest {
     }
 
     @Test
-    @DisplayName("GET /api/v1/users - Should return all users")
-    void getAllUsers_ShouldReturnUserList() throws Exception {
+    @DisplayName("GET /api/v1/users - Should return first page of users")
+    void getUsers_ShouldReturnUserList() throws Exception {
 
         List<UserResponse> users = Arrays.asList(userResponse);
-        when(userService.getAllUsers()).thenReturn(users);
+        when(userService.getUsers(null, null, 50)).thenReturn(users);
 
 
         mockMvc.perform(get("/api/v1/users"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].username", is("test.user")))
                 .andExpect(jsonPath("$[0].email", is("test@example.com")));
 
-        verify(userService, times(1)).getAllUsers();
+        verify(userService, times(1)).getUsers(null, null, 50);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users - Should return next cursor when page is full")
+    void getUsers_WhenPageIsFull_ShouldReturnNextCursor() throws Exception {
+
+        when(userService.getUsers(null, 0L, 1)).thenReturn(List.of(userResponse));
+
+
+        mockMvc.perform(get("/api/v1/users").param("after", "0").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "1"))
+                .andExpect(header().string("Link", containsString("after=1")))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(userService, times(1)).getUsers(null, 0L, 1);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users - Should filter by role")
+    void getUsers_WithRole_ShouldFilterByRole() throws Exception {
+
+        when(userService.getUsers(Role.DEVELOPER, null, 50)).thenReturn(List.of(userResponse));
+
+
+        mockMvc.perform(get("/api/v1/users").param("role", "DEVELOPER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].roles[0]", is("DEVELOPER")));
+
+        verify(userService, times(1)).getUsers(Role.DEVELOPER, null, 50);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users - Should cap the page size")
+    void getUsers_WithHugeLimit_ShouldCapPageSize() throws Exception {
+
+        when(userService.getUsers(null, null, 500)).thenReturn(List.of());
+
+
+        mockMvc.perform(get("/api/v1/users").param("limit", "100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(userService, times(1)).getUsers(null, null, 500);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/search - Should search with the given criteria")
+    void searchUsers_ShouldPassCriteria() throws Exception {
+
+        UserSearch expected = UserSearch.builder()
+                .term("Tes")
+                .fields(EnumSet.of(UserSearch.Field.FIRST_NAME, UserSearch.Field.EMAIL))
+                .role(Role.DEVELOPER)
+                .build();
+        when(userService.searchUsers(expected, 5L, 1)).thenReturn(List.of(userResponse));
+
+
+        mockMvc.perform(get("/api/v1/users/search?q=Tes&fields=FIRST_NAME,EMAIL&role=DEVELOPER&after=5&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "1"))
+                .andExpect(header().string("Link", allOf(containsString("q=Tes"), containsString("after=1"))))
+                .andExpect(jsonPath("$[0].username", is("test.user")));
+
+        verify(userService, times(1)).searchUsers(expected, 5L, 1);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/search - Should require a search term")
+    void searchUsers_WithoutTerm_ShouldReturnBadRequest() throws Exception {
+
+        mockMvc.perform(get("/api/v1/users/search"))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).searchUsers(any(), any(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/typeahead - Should return suggestions with a capped limit")
+    void suggestUsers_ShouldReturnSuggestions() throws Exception {
+
+        when(userService.suggestUsers("tes", 50)).thenReturn(List.of(
+                TypeaheadSuggestion.builder().id(1L).field(TypeaheadField.USERNAME).value("test.user").build()));
+
+
+        mockMvc.perform(get("/api/v1/users/typeahead").param("q", "tes").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(jsonPath("$[0].field", is("USERNAME")))
+                .andExpect(jsonPath("$[0].value", is("test.user")));
+
+        verify(userService, times(1)).suggestUsers("tes", 50);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/stream - Should stream users as a JSON array")
+    void streamUsers_ShouldWriteJsonArray() throws Exception {
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(userResponse);
+            consumer.accept(userResponse);
+            return null;
+        }).when(userService).streamUsers(any());
+
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].username", is("test.user")));
     }
 
     @Test
@@ -107,6 +261,247 @@ class UserControllerTest {
         verify(userService, times(1)).getUserById(1L);
     }
 
+    @Test
+    @DisplayName("GET /api/v1/users/{id} - Should tag the user with its version")
+    void getUserById_ShouldReturnVersionAsETag() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userResponse);
+
+        mockMvc.perform(get("/api/v1/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().string("Vary", containsString("Authorization")))
+                .andExpect(jsonPath("$.version", is(3)));
+
+        verify(userService, never()).getUserVersion(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/{id} - Should return 304 without loading the user when the ETag matches")
+    void getUserById_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/api/v1/users/1").header("If-None-Match", "\"2\", W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(userService, never()).getUserById(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/{id} - Should return the user when the ETag is stale")
+    void getUserById_WithStaleETag_ShouldReturnUser() throws Exception {
+        when(userService.getUserVersion(1L)).thenReturn(3L);
+        when(userService.getUserById(1L)).thenReturn(userResponse);
+
+        mockMvc.perform(get("/api/v1/users/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.username", is("test.user")));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users - Should return 304 for an unchanged page")
+    void getUsers_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        when(userService.getUsers(null, null, 50)).thenReturn(List.of(userResponse));
+        when(userService.getUserVersions(null, null, 50)).thenReturn(List.of(new UserVersion(1L, 3L)));
+
+        String etag = mockMvc.perform(get("/api/v1/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isEqualTo(ETags.ofPage(List.of(new UserVersion(1L, 3L))));
+
+        mockMvc.perform(get("/api/v1/users").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        userResponse.setVersion(4L);
+        when(userService.getUserVersions(null, null, 50)).thenReturn(List.of(new UserVersion(1L, 4L)));
+        mockMvc.perform(get("/api/v1/users").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        verify(userService, times(2)).getUsers(null, null, 50);
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    @DisplayName("GET /api/v1/users/{id} - ADMIN should see every field")
+    void getUserById_AsAdmin_ShouldNotHideFields() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userResponse);
+
+        mockMvc.perform(get("/api/v1/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.taxCode", is("TSTUSER90A01H501Z")))
+                .andExpect(jsonPath("$.roles[0]", is("DEVELOPER")));
+    }
+
+    @Test
+    @WithMockUser(roles = "OPERATOR")
+    @DisplayName("GET /api/v1/users/{id} - OPERATOR should not see the tax code")
+    void getUserById_AsOperator_ShouldHideTaxCode() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userResponse);
+
+        mockMvc.perform(get("/api/v1/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", is("test.user")))
+                .andExpect(jsonPath("$.taxCode").doesNotExist())
+                .andExpect(jsonPath("$.roles[0]", is("DEVELOPER")));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    @DisplayName("GET /api/v1/users - USER should see neither tax code nor roles")
+    void getUsers_AsUser_ShouldHideTaxCodeAndRoles() throws Exception {
+        when(userService.getUsers(null, null, 50)).thenReturn(List.of(userResponse, userResponse));
+
+        mockMvc.perform(get("/api/v1/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].email", is("test@example.com")))
+                .andExpect(jsonPath("$[*].taxCode", empty()))
+                .andExpect(jsonPath("$[*].roles", empty()));
+    }
+
+    @Test
+    @WithMockUser(roles = "OPERATOR")
+    @DisplayName("GET /api/v1/users/stream - Should redact streamed users")
+    void streamUsers_AsOperator_ShouldHideTaxCode() throws Exception {
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(userResponse);
+            return null;
+        }).when(userService).streamUsers(any());
+
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].username", is("test.user")))
+                .andExpect(jsonPath("$[0].taxCode").doesNotExist())
+                .andExpect(jsonPath("$[0].roles[0]", is("DEVELOPER")));
+    }
+
+    @Test
+    @WithMockUser(roles = "OPERATOR")
+    @DisplayName("GET /api/v1/users - Should encode the page as CBOR with the caller's view")
+    void getUsers_AcceptingCbor_ShouldWriteRedactedCbor() throws Exception {
+        when(userService.getUsers(null, null, 50)).thenReturn(List.of(userResponse, userResponse));
+
+        byte[] body = mockMvc.perform(get("/api/v1/users").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode users = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertThat(users).hasSize(2);
+        assertThat(users.get(0).get("username").asText()).isEqualTo("test.user");
+        assertThat(users.get(0).has("taxCode")).isFalse();
+        assertThat(body.length).isLessThan(objectMapper.writeValueAsBytes(List.of(userResponse, userResponse)).length);
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/stream - Should stream users as a Smile array")
+    void streamUsers_AcceptingSmile_ShouldWriteSmileArray() throws Exception {
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(userResponse);
+            consumer.accept(userResponse);
+            return null;
+        }).when(userService).streamUsers(any());
+
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/stream")
+                        .accept(MediaType.parseMediaType("application/x-jackson-smile;q=1.0, application/json;q=0.5")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(UserWireFormats.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode users = new ObjectMapper(new SmileFactory()).readTree(body);
+        assertThat(users).hasSize(2);
+        assertThat(users.get(1).get("username").asText()).isEqualTo("test.user");
+    }
+
+    @Test
+    @WithMockUser(roles = "OPERATOR")
+    @DisplayName("GET /api/v1/users/export - Should write one redacted user per line")
+    void exportUsers_AsOperator_ShouldWriteRedactedNdjson() throws Exception {
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            consumer.accept(userResponse);
+            consumer.accept(userResponse);
+            return null;
+        }).when(userService).exportUsers(any());
+
+
+        MvcResult result = mockMvc.perform(get("/api/v1/users/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n", -1);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).isEmpty();
+        JsonNode user = objectMapper.readTree(lines[0]);
+        assertThat(user.get("username").asText()).isEqualTo("test.user");
+        assertThat(user.has("taxCode")).isFalse();
+        assertThat(user.get("roles").get(0).asText()).isEqualTo("DEVELOPER");
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/users/export - Should compress with the preferred Accept-Encoding")
+    void exportUsers_AcceptingCompression_ShouldEncodeBody() throws Exception {
+
+        doAnswer(invocation -> {
+            Consumer<UserResponse> consumer = invocation.getArgument(0);
+            for (int i = 0; i < 100; i++) {
+                consumer.accept(userResponse);
+            }
+            return null;
+        }).when(userService).exportUsers(any());
+        String line = objectMapper.writeValueAsString(userResponse) + "\n";
+
+
+        MvcResult gzip = mockMvc.perform(get("/api/v1/users/export").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] gzipped = mockMvc.perform(asyncDispatch(gzip))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        MvcResult zstd = mockMvc.perform(get("/api/v1/users/export").header("Accept-Encoding", "gzip;q=0.5, zstd"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] zstded = mockMvc.perform(asyncDispatch(zstd))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "zstd"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String expected = line.repeat(100);
+        assertThat(gzipped.length).isLessThan(expected.length() / 10);
+        assertThat(new String(new GZIPInputStream(new ByteArrayInputStream(gzipped)).readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo(expected);
+        assertThat(new String(new ZstdInputStream(new ByteArrayInputStream(zstded)).readAllBytes(), StandardCharsets.UTF_8))
+                .isEqualTo(expected);
+    }
+
     @Test
     @DisplayName("POST /api/v1/users - Should create user successfully")
     void createUser_ShouldReturnCreatedUser() throws Exception {
@@ -154,6 +549,52 @@ class UserControllerTest {
         verify(userService, never()).createUser(any());
     }
 
+    @Test
+    @DisplayName("POST /api/v1/users/batch - Should return per-item results")
+    void createUsers_ShouldReturnItemResults() throws Exception {
+
+        BatchCreateUsersResponse batchResponse = BatchCreateUsersResponse.builder()
+                .created(1)
+                .rejected(1)
+                .results(List.of(
+                        ItemResult.builder().index(0).status(ItemStatus.CREATED).user(userResponse).build(),
+                        ItemResult.builder().index(1).status(ItemStatus.REJECTED).error("Email already in use: test@example.com").build()))
+                .build();
+        when(userService.createUsers(anyList())).thenReturn(batchResponse);
+        BatchCreateUsersRequest request = new BatchCreateUsersRequest();
+        request.setUsers(List.of(createRequest, createRequest));
+
+        mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(1)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[0].user.username", is("test.user")))
+                .andExpect(jsonPath("$.results[1].status", is("REJECTED")))
+                .andExpect(jsonPath("$.results[1].user").doesNotExist())
+                .andExpect(jsonPath("$.results[1].error", containsString("Email already in use")));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/users/batch - Should fail when an item is invalid")
+    void createUsers_WithInvalidItem_ShouldReturnBadRequest() throws Exception {
+
+        CreateUserRequest invalid = new CreateUserRequest();
+        invalid.setEmail("invalid-email");
+        BatchCreateUsersRequest request = new BatchCreateUsersRequest();
+        request.setUsers(List.of(createRequest, invalid));
+
+        mockMvc.perform(post("/api/v1/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['users[1].email']").exists());
+
+        verify(userService, never()).createUsers(any());
+    }
+
     @Test
     @DisplayName("PUT /api/v1/users/{id} - Should update user successfully")
     void updateUser_ShouldReturnUpdatedUser() throws Exception {
@@ -168,7 +609,7 @@ class UserControllerTest {
                 .roles(Set.of(Role.OPERATOR))
                 .build();
 
-        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class))).thenReturn(updatedResponse);
+        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class), isNull())).thenReturn(updatedResponse);
 
 
         mockMvc.perform(put("/api/v1/users/1")
@@ -178,7 +619,83 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.username", is("updated.user")))
                 .andExpect(jsonPath("$.firstName", is("Updated")));
 
-        verify(userService, times(1)).updateUser(eq(1L), any(UpdateUserRequest.class));
+        verify(userService, times(1)).updateUser(eq(1L), any(UpdateUserRequest.class), isNull());
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/users/{id} - Should update only the version sent in If-Match")
+    void updateUser_WithIfMatch_ShouldPassExpectedVersion() throws Exception {
+        UserResponse updatedResponse = UserResponse.builder().id(1L).username("updated.user").version(4L).build();
+        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class), eq(3L))).thenReturn(updatedResponse);
+
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/users/{id} - Should pass only the fields of the merge patch")
+    void patchUser_ShouldApplyMergePatch() throws Exception {
+        UserResponse patchedResponse = UserResponse.builder().id(1L).firstName("Patched").version(4L).build();
+        when(userService.patchUser(eq(1L), any(PatchUserRequest.class), eq(3L))).thenReturn(patchedResponse);
+
+        mockMvc.perform(patch("/api/v1/users/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"firstName\": \"Patched\", \"roles\": [\"OWNER\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andExpect(jsonPath("$.firstName", is("Patched")));
+
+        verify(userService).patchUser(eq(1L), argThat(patch -> "Patched".equals(patch.getFirstName())
+                && patch.getUsername() == null && patch.getLastName() == null
+                && Set.of(Role.OWNER).equals(patch.getRoles())), eq(3L));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/v1/users/{id} - Should reject removing or blanking a field")
+    void patchUser_WithNullOrBlankField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(patch("/api/v1/users/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"lastName\": null}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/api/v1/users/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"lastName\": \"  \", \"roles\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.lastName").exists())
+                .andExpect(jsonPath("$.roles").exists());
+
+        mockMvc.perform(patch("/api/v1/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"lastName\": \"Other\"}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(userService, never()).patchUser(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("PUT /api/v1/users/{id} - Should return 412 when the version changed")
+    void updateUser_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("User 1 is no longer at version 2"));
+
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error", is("User 1 is no longer at version 2")));
+
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "W/\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed());
     }
 
     @Test
@@ -193,4 +710,64 @@ class UserControllerTest {
 
         verify(userService, times(1)).deleteUser(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("DELETE /api/v1/users?ids= - Should delete users in bulk and return counts")
+    void deleteUsers_ShouldReturnCounts() throws Exception {
+        when(userService.deleteUsers(Set.of(1L, 2L, 3L)))
+                .thenReturn(BulkOperationResponse.builder().matched(2).affected(2).build());
+
+        mockMvc.perform(delete("/api/v1/users").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched", is(2)))
+                .andExpect(jsonPath("$.affected", is(2)));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/v1/users?ids= - Should reject too many ids")
+    void deleteUsers_WithTooManyIds_ShouldReturnBadRequest() throws Exception {
+        String ids = String.join(",", LongStream.rangeClosed(1, BulkLimits.MAX_IDS + 1).mapToObj(Long::toString).toList());
+
+        mockMvc.perform(delete("/api/v1/users").param("ids", ids))
+                .andExpect(status().isBadRequest());
+
+        verify(userService, never()).deleteUsers(any());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/users/roles - Should pass the role change and the selection")
+    void changeRole_ShouldPassSelection() throws Exception {
+        when(userService.changeRole(eq(Role.REPORTER), eq(false), any(UserSelection.class)))
+                .thenReturn(BulkOperationResponse.builder().matched(40).affected(38).build());
+
+        mockMvc.perform(post("/api/v1/users/roles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"operation": "REVOKE", "role": "REPORTER", "hasRole": "DEVELOPER",
+                                 "q": "Ros", "fields": ["LAST_NAME"]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched", is(40)))
+                .andExpect(jsonPath("$.affected", is(38)));
+
+        verify(userService).changeRole(eq(Role.REPORTER), eq(false), argThat(selection ->
+                selection.getRole() == Role.DEVELOPER
+                        && "Ros".equals(selection.getTerm())
+                        && selection.getFields().equals(EnumSet.of(UserSearch.Field.LAST_NAME))
+                        && selection.getMatch() == UserSearch.Match.PREFIX
+                        && selection.getIds() == null));
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/users/roles - Should require the operation and the role")
+    void changeRole_WithoutRole_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/api/v1/users/roles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [1, 2]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.operation").exists())
+                .andExpect(jsonPath("$.role").exists());
+
+        verify(userService, never()).changeRole(any(), anyBoolean(), any());
+    }
+}
@@ -1,7 +1,9 @@
 package com.hamid.usermanagement.event;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamid.usermanagement.dto.response.UserResponse;
 import com.hamid.usermanagement.entity.Role;
-import com.hamid.usermanagement.entity.User;
+import com.hamid.usermanagement.outbox.OutboxEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -9,10 +11,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
-import org.springframework.context.ApplicationEventPublisher;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.time.Instant;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -25,13 +28,16 @@ import static org.awaitility.Awaitility.await;
 class UserCreatedEventListenerTest {
 
     @Autowired
-    private ApplicationEventPublisher eventPublisher;
+    private UserCreatedEventListener listener;
 
-    private User testUser;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private OutboxEvent event;
 
     @BeforeEach
-    void setUp() {
-        testUser = User.builder()
+    void setUp() throws Exception {
+        UserResponse testUser = UserResponse.builder()
                 .id(1L)
                 .username("test.async")
                 .email("test.async@example.com")
@@ -40,18 +46,26 @@ class UserCreatedEventListenerTest {
                 .lastName("Async")
                 .roles(Set.of(Role.DEVELOPER))
                 .build();
+
+        event = OutboxEvent.builder()
+                .id(1L)
+                .type(OutboxEvent.USER_CREATED)
+                .aggregateId(1L)
+                .payload(objectMapper.writeValueAsString(testUser))
+                .createdAt(Instant.now())
+                .build();
     }
 
     @Test
-    @DisplayName("Should handle UserCreatedEvent asynchronously")
-    void handleUserCreatedEvent_ShouldProcessAsynchronously(CapturedOutput output) {
-        UserCreatedEvent event = new UserCreatedEvent(this, testUser);
+    @DisplayName("Should handle user created outbox events asynchronously")
+    void deliver_ShouldProcessAsynchronously(CapturedOutput output) {
 
         long startTime = System.currentTimeMillis();
-        eventPublisher.publishEvent(event);
+        CompletableFuture<Void> processing = listener.deliver(event);
         long publishTime = System.currentTimeMillis() - startTime;
 
         assertThat(publishTime).isLessThan(100);
+        assertThat(processing).isNotDone();
 
         await()
                 .atMost(3, TimeUnit.SECONDS)
@@ -62,16 +76,14 @@ class UserCreatedEventListenerTest {
                     assertThat(logOutput).contains("test.async");
                     assertThat(logOutput).contains("Async processing completed");
                 });
+        assertThat(processing).succeedsWithin(1, TimeUnit.SECONDS);
     }
 
     @Test
     @DisplayName("Should log user details in event")
-    void handleUserCreatedEvent_ShouldLogUserDetails(CapturedOutput output) {
+    void deliver_ShouldLogUserDetails(CapturedOutput output) {
 
-        UserCreatedEvent event = new UserCreatedEvent(this, testUser);
-
-
-        eventPublisher.publishEvent(event);
+        listener.deliver(event);
 
 
         await()
@@ -85,4 +97,14 @@ class UserCreatedEventListenerTest {
                 });
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Should accept only user created events")
+    void accepts_ShouldIgnoreOtherEventTypes() {
+
+        assertThat(listener.accepts(event)).isTrue();
+        event.setType(OutboxEvent.USER_UPDATED);
+        assertThat(listener.accepts(event)).isFalse();
+        event.setType(OutboxEvent.USER_DELETED);
+        assertThat(listener.accepts(event)).isFalse();
+    }
+}
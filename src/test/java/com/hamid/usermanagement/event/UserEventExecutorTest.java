@@ -0,0 +1,77 @@
+package com.hamid.usermanagement.event;
+
+import com.hamid.usermanagement.config.AsyncConfig;
+import com.hamid.usermanagement.outbox.OutboxEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(properties = {
+        "user-events.processing-delay=1ms",
+        "user-events.executor.core-size=2",
+        "user-events.executor.max-size=2",
+        "user-events.executor.queue-capacity=100"
+})
+@DisplayName("User Event Executor Tests")
+class UserEventExecutorTest {
+
+    private static final int EVENT_COUNT = 10_000;
+    private static final int QUEUE_CAPACITY = 100;
+
+    @Autowired
+    private UserCreatedEventListener listener;
+
+    @Autowired
+    @Qualifier(AsyncConfig.USER_EVENT_EXECUTOR)
+    private ThreadPoolTaskExecutor executor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Should keep the queue bounded and process every event under a burst")
+    void publishBurst_ShouldApplyBackPressure() {
+        Timer execution = meterRegistry.get("user.events.execution").timer();
+        Timer wait = meterRegistry.get("user.events.wait").timer();
+        long executedBefore = execution.count();
+
+        // Ogni task in coda trattiene il suo evento: coda limitata = memoria limitata
+        int maxQueued = 0;
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            listener.deliver(newEvent(i));
+            maxQueued = Math.max(maxQueued, executor.getQueueSize());
+        }
+
+        assertThat(maxQueued).isLessThanOrEqualTo(QUEUE_CAPACITY);
+        await()
+                .atMost(60, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(execution.count() - executedBefore).isEqualTo(EVENT_COUNT));
+        assertThat(executor.getPoolSize()).isLessThanOrEqualTo(2);
+        assertThat(wait.count()).isGreaterThanOrEqualTo(EVENT_COUNT);
+        assertThat(meterRegistry.get("executor.queued").tag("name", AsyncConfig.USER_EVENT_EXECUTOR).gauge().value())
+                .isZero();
+        assertThat(meterRegistry.get("executor.active").tag("name", AsyncConfig.USER_EVENT_EXECUTOR).gauge())
+                .isNotNull();
+    }
+
+    private OutboxEvent newEvent(int index) {
+        return OutboxEvent.builder()
+                .id((long) index)
+                .type(OutboxEvent.USER_CREATED)
+                .aggregateId((long) index)
+                .payload("{\"id\":" + index + ",\"username\":\"burst." + index + "\",\"roles\":[\"REPORTER\"]}")
+                .createdAt(Instant.now())
+                .build();
+    }
+}
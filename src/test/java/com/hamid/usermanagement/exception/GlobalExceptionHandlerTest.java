@@ -1,16 +1,22 @@
 package com.hamid.usermanagement.exception;
 
 
+import com.hamid.usermanagement.changes.UserChangeFeed;
 import com.hamid.usermanagement.controller.UserController;
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.request.UpdateUserRequest;
 import com.hamid.usermanagement.entity.Role;
 import com.hamid.usermanagement.service.UserService;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import com.hamid.usermanagement.util.UserWireFormats;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -19,11 +25,13 @@ import java.util.Set;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import({UserResponseFilter.class, UserWireFormats.class})
 @AutoConfigureMockMvc(addFilters = false)
 @DisplayName("Global Exception Handler Tests")
 @SuppressWarnings("deprecation")
@@ -38,6 +46,9 @@ class GlobalExceptionHandlerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private UserChangeFeed userChangeFeed;
+
     @Test
     @DisplayName("Should handle UserNotFoundException with 404 status")
     void handleUserNotFoundException_ShouldReturn404() throws Exception {
@@ -81,6 +92,48 @@ class GlobalExceptionHandlerTest {
         verify(userService, times(1)).createUser(any(CreateUserRequest.class));
     }
 
+    @Test
+    @DisplayName("Should handle a concurrent unconditional update with 409 status")
+    void handleOptimisticLockingFailure_ShouldReturn409() throws Exception {
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setUsername("test.user");
+        request.setTaxCode("TSTUSER90A01H501Z");
+        request.setFirstName("Test");
+        request.setLastName("User");
+
+        when(userService.updateUser(eq(1L), any(UpdateUserRequest.class), isNull()))
+                .thenThrow(new OptimisticLockingFailureException("Row was updated or deleted by another transaction"));
+
+
+        mockMvc.perform(put("/api/v1/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error", containsString("modified concurrently")));
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed If-Match with 412 status")
+    void handlePreconditionFailedException_ShouldReturn412() throws Exception {
+
+        UpdateUserRequest request = new UpdateUserRequest();
+        request.setUsername("test.user");
+        request.setTaxCode("TSTUSER90A01H501Z");
+        request.setFirstName("Test");
+        request.setLastName("User");
+
+
+        mockMvc.perform(put("/api/v1/users/1")
+                        .header("If-Match", "latest")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error", containsString("If-Match")));
+
+        verify(userService, never()).updateUser(any(), any(), any());
+    }
+
     @Test
     @DisplayName("Should handle IllegalArgumentException with 400 status")
     void handleIllegalArgumentException_ShouldReturn400() throws Exception {
@@ -221,6 +274,6 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.firstName").exists())
                 .andExpect(jsonPath("$.lastName").exists());
 
-        verify(userService, never()).updateUser(any(), any());
+        verify(userService, never()).updateUser(any(), any(), any());
     }
 }
\ No newline at end of file
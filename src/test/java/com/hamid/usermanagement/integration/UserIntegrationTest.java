@@ -1,9 +1,11 @@
 package com.hamid.usermanagement.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hamid.usermanagement.cache.UserResponseCache;
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
 import com.hamid.usermanagement.entity.Role;
 import com.hamid.usermanagement.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,6 +20,7 @@ import java.util.Set;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 
 @SpringBootTest
@@ -35,6 +38,12 @@ class UserIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserResponseCache userResponseCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         userRepository.deleteAll();
@@ -90,4 +99,235 @@ class UserIntegrationTest {
         mockMvc.perform(get("/api/v1/users/" + userId))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(authorities = {"read_user", "create_user", "update_user", "delete_user"})
+    @DisplayName("Cached user should be invalidated by update and delete")
+    void cachedUser_ShouldBeInvalidatedOnUpdateAndDelete() throws Exception {
+
+        CreateUserRequest createRequest = new CreateUserRequest();
+        createRequest.setUsername("cached.user");
+        createRequest.setEmail("cached@example.com");
+        createRequest.setTaxCode("CCHUSR90A01H501Z");
+        createRequest.setFirstName("Cached");
+        createRequest.setLastName("User");
+        createRequest.setRoles(Set.of(Role.DEVELOPER));
+
+        String createResponse = mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long userId = objectMapper.readTree(createResponse).get("id").asLong();
+
+        mockMvc.perform(get("/api/v1/users/" + userId))
+                .andExpect(jsonPath("$.firstName", is("Cached")));
+        assertThat(userResponseCache.get(userId)).isNotNull();
+
+        String updateJson = """
+                {
+                    "username": "cached.user",
+                    "taxCode": "CCHUSR90A01H501Z",
+                    "firstName": "Refreshed",
+                    "lastName": "User"
+                }
+                """;
+        mockMvc.perform(put("/api/v1/users/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJson))
+                .andExpect(status().isOk());
+        assertThat(userResponseCache.get(userId)).isNull();
+
+        mockMvc.perform(get("/api/v1/users/" + userId))
+                .andExpect(jsonPath("$.firstName", is("Refreshed")));
+
+        mockMvc.perform(delete("/api/v1/users/" + userId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/users/" + userId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(authorities = {"read_user", "create_user", "update_user"})
+    @DisplayName("Conditional requests - ETag revalidation and If-Match updates")
+    void conditionalRequests_ShouldUseVersionAsETag() throws Exception {
+
+        CreateUserRequest createRequest = new CreateUserRequest();
+        createRequest.setUsername("etag.user");
+        createRequest.setEmail("etag@example.com");
+        createRequest.setTaxCode("TGSUSR90A01H501Z");
+        createRequest.setFirstName("Etag");
+        createRequest.setLastName("User");
+        createRequest.setRoles(Set.of(Role.DEVELOPER));
+
+        String createResponse = mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+        Long userId = objectMapper.readTree(createResponse).get("id").asLong();
+
+        String etag = mockMvc.perform(get("/api/v1/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version", is(0)))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/v1/users/" + userId).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        String pageETag = mockMvc.perform(get("/api/v1/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/v1/users").header("If-None-Match", pageETag))
+                .andExpect(status().isNotModified());
+
+        String updateJson = """
+                {
+                    "username": "etag.user",
+                    "taxCode": "TGSUSR90A01H501Z",
+                    "firstName": "Renamed",
+                    "lastName": "User"
+                }
+                """;
+        mockMvc.perform(put("/api/v1/users/" + userId)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJson))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.version", is(1)));
+
+        // Lost update prevented: the second writer still holds version 0
+        mockMvc.perform(put("/api/v1/users/" + userId)
+                        .header("If-Match", etag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updateJson))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/v1/users/" + userId).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.firstName", is("Renamed")));
+        mockMvc.perform(get("/api/v1/users").header("If-None-Match", pageETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(authorities = {"read_user", "create_user", "update_user"})
+    @DisplayName("Merge patch - Only the supplied fields change")
+    void patchUser_ShouldChangeOnlySuppliedFields() throws Exception {
+
+        CreateUserRequest createRequest = new CreateUserRequest();
+        createRequest.setUsername("patch.user");
+        createRequest.setEmail("patch@example.com");
+        createRequest.setTaxCode("PTCUSR90A01H501Z");
+        createRequest.setFirstName("Patch");
+        createRequest.setLastName("User");
+        createRequest.setRoles(Set.of(Role.DEVELOPER, Role.REPORTER));
+
+        String createResponse = mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long userId = objectMapper.readTree(createResponse).get("id").asLong();
+
+        mockMvc.perform(patch("/api/v1/users/" + userId)
+                        .header("If-Match", "\"0\"")
+                        .contentType("application/merge-patch+json")
+                        .content("""
+                                {"lastName": "Patched", "roles": ["DEVELOPER", "OWNER"]}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(get("/api/v1/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username", is("patch.user")))
+                .andExpect(jsonPath("$.firstName", is("Patch")))
+                .andExpect(jsonPath("$.lastName", is("Patched")))
+                .andExpect(jsonPath("$.version", is(1)));
+        assertThat(userRepository.findById(userId).orElseThrow().getRoles())
+                .containsExactlyInAnyOrder(Role.DEVELOPER, Role.OWNER);
+
+        // Same values again: nothing written, version unchanged
+        mockMvc.perform(patch("/api/v1/users/" + userId)
+                        .contentType("application/merge-patch+json")
+                        .content("""
+                                {"lastName": "Patched"}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    @WithMockUser(authorities = {"read_user", "create_user", "update_user", "delete_user"})
+    @DisplayName("Bulk operations - Grant a role and delete users, invalidating cached users")
+    void bulkOperations_ShouldChangeRolesAndDeleteUsers() throws Exception {
+
+        Long first = createUser("bulk.first", "bulk.first@example.com", "BLKFST90A01H501Z");
+        Long second = createUser("bulk.second", "bulk.second@example.com", "BLKSCN90A01H501Z");
+
+        mockMvc.perform(get("/api/v1/users/" + first))
+                .andExpect(header().string("ETag", "\"0\""));
+        assertThat(userResponseCache.get(first)).isNotNull();
+
+        mockMvc.perform(post("/api/v1/users/roles")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operation\": \"GRANT\", \"role\": \"OWNER\", \"ids\": [" + first + ", " + second + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched", is(2)))
+                .andExpect(jsonPath("$.affected", is(2)));
+
+        assertThat(userResponseCache.get(first)).isNull();
+        mockMvc.perform(get("/api/v1/users/" + first))
+                .andExpect(header().string("ETag", "\"1\""));
+        assertThat(userRepository.findById(second).orElseThrow().getRoles())
+                .containsExactlyInAnyOrder(Role.DEVELOPER, Role.OWNER);
+
+        mockMvc.perform(delete("/api/v1/users").param("ids", first + "," + second + ",999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched", is(2)))
+                .andExpect(jsonPath("$.affected", is(2)));
+
+        assertThat(userResponseCache.get(first)).isNull();
+        mockMvc.perform(get("/api/v1/users/" + first))
+                .andExpect(status().isNotFound());
+        assertThat(userRepository.count()).isZero();
+    }
+
+    @Test
+    @WithMockUser(authorities = {"read_user", "create_user", "ROLE_OPERATOR"})
+    @DisplayName("Metrics - Service and repository timers, requests counted by role")
+    void metrics_ShouldTimeOperationsAndCountRequestsByRole() throws Exception {
+
+        Long userId = createUser("metrics.user", "metrics@example.com", "MTRUSR90A01H501Z");
+        mockMvc.perform(get("/api/v1/users/" + userId))
+                .andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("user.service").tag("method", "getUserById").timer().count()).isPositive();
+        assertThat(meterRegistry.get("spring.data.repository.invocations")
+                .tag("repository", "UserRepository").timers()).isNotEmpty();
+        assertThat(meterRegistry.get("users.requests")
+                .tags("role", "OPERATOR", "method", "GET", "uri", "/api/v1/users/{id}").counter().count()).isPositive();
+        assertThat(meterRegistry.find("hibernate.statements").functionCounter()).isNotNull();
+    }
+
+    private Long createUser(String username, String email, String taxCode) throws Exception {
+        CreateUserRequest createRequest = new CreateUserRequest();
+        createRequest.setUsername(username);
+        createRequest.setEmail(email);
+        createRequest.setTaxCode(taxCode);
+        createRequest.setFirstName("Bulk");
+        createRequest.setLastName("User");
+        createRequest.setRoles(Set.of(Role.DEVELOPER));
+
+        String createResponse = mockMvc.perform(post("/api/v1/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(createResponse).get("id").asLong();
+    }
+}
@@ -0,0 +1,56 @@
+package com.hamid.usermanagement.outbox;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Test sink: keeps every delivered event, optionally failing the next delivery
+// or every delivery of one user (asynchronously, as a sink running on an executor would)
+class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> delivered = new CopyOnWriteArrayList<>();
+    private volatile boolean failNext;
+    private volatile Long failingAggregateId;
+    private volatile CompletableFuture<Void> heldDelivery;
+
+    @Override
+    public CompletableFuture<Void> deliver(OutboxEvent event) {
+        if (failNext) {
+            failNext = false;
+            return CompletableFuture.failedFuture(new IllegalStateException("Sink unavailable"));
+        }
+        if (event.getAggregateId().equals(failingAggregateId)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Cannot process user " + failingAggregateId));
+        }
+        delivered.add(event);
+        CompletableFuture<Void> held = heldDelivery;
+        heldDelivery = null;
+        return held != null ? held : CompletableFuture.completedFuture(null);
+    }
+
+    List<OutboxEvent> getDelivered() {
+        return delivered;
+    }
+
+    void failNextDelivery() {
+        failNext = true;
+    }
+
+    void failDeliveriesOf(Long aggregateId) {
+        failingAggregateId = aggregateId;
+    }
+
+    // The next delivery completes only when the returned future is completed
+    CompletableFuture<Void> holdNextDelivery() {
+        CompletableFuture<Void> held = new CompletableFuture<>();
+        heldDelivery = held;
+        return held;
+    }
+
+    void clear() {
+        delivered.clear();
+        failNext = false;
+        failingAggregateId = null;
+        heldDelivery = null;
+    }
+}
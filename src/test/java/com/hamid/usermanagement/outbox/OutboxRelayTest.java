@@ -0,0 +1,232 @@
+package com.hamid.usermanagement.outbox;
+
+import com.hamid.usermanagement.changes.UserChangeRepository;
+import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.response.UserResponse;
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.event.UserCreatedEventListener;
+import com.hamid.usermanagement.repository.UserRepository;
+import com.hamid.usermanagement.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Own database: relays of other cached test contexts must not drain these rows
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outboxdb;DB_CLOSE_DELAY=-1",
+        "outbox.relay.batch-size=2",
+        "outbox.relay.poll-interval=1h",
+        "outbox.relay.max-attempts=3",
+        "outbox.relay.retry-backoff=0ms",
+        "user-events.processing-delay=0ms"
+})
+@DisplayName("Outbox Relay Tests")
+class OutboxRelayTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxDeadLetterRepository outboxDeadLetterRepository;
+
+    @Autowired
+    private UserChangeRepository userChangeRepository;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    // Accepts nothing: the in-memory sink, completing on the relay thread, is the only one
+    @MockitoBean
+    private UserCreatedEventListener userCreatedEventListener;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @TestConfiguration
+    static class SinkConfig {
+        @Bean
+        InMemoryOutboxSink inMemoryOutboxSink() {
+            return new InMemoryOutboxSink();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        outboxDeadLetterRepository.deleteAll();
+        userChangeRepository.deleteAll();
+        userRepository.deleteAll();
+        sink.clear();
+    }
+
+    @Test
+    @DisplayName("Should record the event with the user and deliver it only when relayed")
+    void createUser_ShouldRecordEventAndRelayIt() {
+
+        UserResponse user = userService.createUser(newRequest(1));
+
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+        assertThat(sink.getDelivered()).isEmpty();
+        double dispatchedBefore = meterRegistry.get("outbox.relay.dispatched").counter().count();
+
+        outboxRelay.relay();
+
+        assertThat(sink.getDelivered()).singleElement().satisfies(event -> {
+            assertThat(event.getType()).isEqualTo(OutboxEvent.USER_CREATED);
+            assertThat(event.getAggregateId()).isEqualTo(user.getId());
+            assertThat(event.getPayload()).contains("\"username\":\"outbox.1\"");
+        });
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(meterRegistry.get("outbox.relay.dispatched").counter().count()).isEqualTo(dispatchedBefore + 1);
+        assertThat(meterRegistry.get("outbox.relay.lag").timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should not record an event when the creating transaction rolls back")
+    void createUser_WhenTransactionRollsBack_ShouldNotRecordEvent() {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.createUser(newRequest(1));
+            status.setRollbackOnly();
+        });
+
+        assertThat(userRepository.count()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should drain a bulk creation in several batches, in order")
+    void relay_ShouldDrainEveryBatch() {
+
+        List<CreateUserRequest> requests = IntStream.range(0, 5).mapToObj(this::newRequest).toList();
+        userService.createUsers(requests);
+        assertThat(outboxEventRepository.count()).isEqualTo(5);
+
+        outboxRelay.relay();
+
+        assertThat(sink.getDelivered())
+                .extracting(OutboxEvent::getPayload)
+                .allSatisfy(payload -> assertThat(payload).contains("outbox."))
+                .hasSize(5);
+        assertThat(sink.getDelivered()).extracting(OutboxEvent::getId).isSorted();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep the event when a sink fails and deliver it at the next poll")
+    void relay_WhenSinkFails_ShouldRetryEvent() {
+
+        userService.createUser(newRequest(1));
+        sink.failNextDelivery();
+
+        outboxRelay.relay();
+
+        assertThat(sink.getDelivered()).isEmpty();
+        assertThat(outboxEventRepository.findAll()).singleElement().satisfies(event -> {
+            assertThat(event.getAttempts()).isEqualTo(1);
+            assertThat(event.getLastError()).contains("Sink unavailable");
+        });
+        // Journaled once, whatever the sinks did
+        assertThat(userChangeRepository.count()).isEqualTo(1);
+
+        outboxRelay.relay();
+
+        assertThat(sink.getDelivered()).hasSize(1);
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(userChangeRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should journal events without waiting for the sinks to process them")
+    void relay_ShouldNotWaitForAsynchronousProcessing() {
+
+        userService.createUser(newRequest(1));
+        CompletableFuture<Void> processing = sink.holdNextDelivery();
+
+        outboxRelay.relay();
+
+        assertThat(sink.getDelivered()).hasSize(1);
+        assertThat(userChangeRepository.count()).isEqualTo(1);
+        // Kept until the sink finished processing it
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+
+        userService.createUser(newRequest(2));
+        outboxRelay.relay();
+
+        // Neither journaling nor delivering the next event waits for the first one
+        assertThat(userChangeRepository.count()).isEqualTo(2);
+        assertThat(sink.getDelivered()).hasSize(2);
+        assertThat(outboxEventRepository.count()).isEqualTo(1);
+
+        processing.complete(null);
+        outboxRelay.relay();
+
+        assertThat(sink.getDelivered()).hasSize(2);
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should move an event that keeps failing to the dead letters and relay the others")
+    void relay_WhenEventKeepsFailing_ShouldDeadLetterIt() {
+
+        UserResponse poison = userService.createUser(newRequest(1));
+        sink.failDeliveriesOf(poison.getId());
+        userService.createUsers(List.of(newRequest(2), newRequest(3)));
+
+        outboxRelay.relay();
+
+        assertThat(sink.getDelivered()).hasSize(2);
+        assertThat(userChangeRepository.count()).isEqualTo(3);
+        assertThat(outboxEventRepository.findAll()).singleElement()
+                .satisfies(event -> assertThat(event.getAggregateId()).isEqualTo(poison.getId()));
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        assertThat(outboxEventRepository.count()).isZero();
+        assertThat(outboxDeadLetterRepository.findAll()).singleElement().satisfies(deadLetter -> {
+            assertThat(deadLetter.getAggregateId()).isEqualTo(poison.getId());
+            assertThat(deadLetter.getAttempts()).isEqualTo(3);
+            assertThat(deadLetter.getLastError()).contains("Cannot process user " + poison.getId());
+        });
+        assertThat(sink.getDelivered()).hasSize(2);
+        assertThat(userChangeRepository.count()).isEqualTo(3);
+    }
+
+    private CreateUserRequest newRequest(int index) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername("outbox." + index);
+        request.setEmail("outbox" + index + "@example.com");
+        request.setTaxCode("TSTOBX90A01H501Z");
+        request.setFirstName("Outbox");
+        request.setLastName("User" + index);
+        request.setRoles(Set.of(Role.DEVELOPER));
+        return request;
+    }
+}
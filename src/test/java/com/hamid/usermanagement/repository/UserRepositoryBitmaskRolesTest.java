@@ -0,0 +1,163 @@
+package com.hamid.usermanagement.repository;
+
+import com.hamid.usermanagement.entity.Role;
+import com.hamid.usermanagement.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("roles-bitmask")
+@DisplayName("User Repository Tests (roles-bitmask profile)")
+class UserRepositoryBitmaskRolesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = User.builder()
+                .username("test.user")
+                .email("test@example.com")
+                .taxCode("TSTUSER90A01H501Z")
+                .firstName("Test")
+                .lastName("User")
+                .roles(EnumSet.of(Role.OPERATOR, Role.REPORTER))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should store roles as a single bitmask column")
+    void save_ShouldWriteRolesMask() {
+
+        Long userId = entityManager.persistAndFlush(testUser).getId();
+
+        Integer mask = (Integer) entityManager.getEntityManager()
+                .createNativeQuery("select roles_mask from users where id = :id")
+                .setParameter("id", userId)
+                .getSingleResult();
+
+        assertThat(mask).isEqualTo(Role.OPERATOR.mask() | Role.REPORTER.mask());
+    }
+
+    @Test
+    @DisplayName("Should load and update roles through the mask")
+    void findById_ShouldRoundTripRoles() {
+
+        Long userId = entityManager.persistAndFlush(testUser).getId();
+        entityManager.clear();
+
+        User found = userRepository.findById(userId).orElseThrow();
+        assertThat(found.getRoles()).containsExactlyInAnyOrder(Role.OPERATOR, Role.REPORTER);
+
+        found.getRoles().remove(Role.REPORTER);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(userRepository.findById(userId).orElseThrow().getRoles()).containsExactly(Role.OPERATOR);
+    }
+
+    @Test
+    @DisplayName("Should export users with the roles decoded from the mask")
+    void exportAll_ShouldDecodeMask() {
+
+        User user = entityManager.persistAndFlush(testUser);
+        entityManager.clear();
+
+        List<User> exported = new ArrayList<>();
+        userRepository.exportAll(exported::add);
+
+        assertThat(exported).extracting(User::getId).containsExactly(user.getId());
+        assertThat(exported.get(0).getRoles()).containsExactlyInAnyOrder(Role.OPERATOR, Role.REPORTER);
+        assertThat(exported.get(0).getUsername()).isEqualTo("test.user");
+    }
+
+    @Test
+    @DisplayName("Should page users having a role")
+    void findPageByRoleAfter_ShouldFilterOnMask() {
+
+        User operator = entityManager.persistAndFlush(testUser);
+        entityManager.persistAndFlush(User.builder()
+                .username("owner.user")
+                .email("owner@example.com")
+                .taxCode("OWNUSER90A01H501Z")
+                .firstName("Owner")
+                .lastName("User")
+                .roles(EnumSet.of(Role.OWNER))
+                .build());
+
+        List<User> operators = userRepository.findPageByRoleAfter(Role.OPERATOR, 0L, Limit.of(10));
+        List<User> maintainers = userRepository.findPageByRoleAfter(Role.MAINTAINER, 0L, Limit.of(10));
+
+        assertThat(operators).extracting(User::getId).containsExactly(operator.getId());
+        assertThat(maintainers).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should filter search results on the mask")
+    void findPageMatchingAfter_ShouldFilterOnMask() {
+
+        User operator = entityManager.persistAndFlush(testUser);
+
+        UserSearch operators = UserSearch.builder().term("test").role(Role.OPERATOR).build();
+        UserSearch owners = UserSearch.builder().term("test").role(Role.OWNER).build();
+
+        assertThat(userRepository.findPageMatchingAfter(operators, 0L, Limit.of(10)))
+                .extracting(User::getId).containsExactly(operator.getId());
+        assertThat(userRepository.findPageMatchingAfter(owners, 0L, Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should grant, revoke and delete through the mask")
+    void bulkOperations_ShouldUpdateMask() {
+
+        User operator = entityManager.persistAndFlush(testUser);
+        User owner = entityManager.persistAndFlush(User.builder()
+                .username("owner.user")
+                .email("owner@example.com")
+                .taxCode("OWNUSER90A01H501Z")
+                .firstName("Owner")
+                .lastName("User")
+                .roles(EnumSet.of(Role.OWNER))
+                .build());
+        entityManager.clear();
+
+        UserSelection everyone = UserSelection.builder().term("User").fields(EnumSet.of(UserSearch.Field.LAST_NAME)).build();
+        List<Long> granted = userRepository.findIdsForRoleChange(everyone, Role.OPERATOR, true);
+        assertThat(granted).containsExactly(owner.getId());
+        assertThat(userRepository.grantRole(granted, Role.OPERATOR)).isEqualTo(1);
+
+        // The owner keeps OWNER, the operator would be left without roles
+        UserSelection operators = UserSelection.builder().role(Role.OPERATOR).build();
+        assertThat(userRepository.countSelected(operators)).isEqualTo(2);
+        List<Long> revoked = userRepository.findIdsForRoleChange(operators, Role.OPERATOR, false);
+        assertThat(revoked).containsExactly(operator.getId(), owner.getId());
+        List<Long> revokedAlone = userRepository.findIdsForRoleChange(operators, Role.REPORTER, false);
+        assertThat(revokedAlone).containsExactly(operator.getId());
+        assertThat(userRepository.revokeRole(List.of(owner.getId()), Role.OPERATOR)).isEqualTo(1);
+        assertThat(userRepository.revokeRole(List.of(owner.getId()), Role.OWNER)).isZero();
+
+        assertThat(userRepository.findById(owner.getId()).orElseThrow())
+                .satisfies(user -> assertThat(user.getRoles()).containsExactly(Role.OWNER))
+                .satisfies(user -> assertThat(user.getVersion()).isEqualTo(2L));
+
+        assertThat(userRepository.deleteAllByIds(List.of(operator.getId(), owner.getId()))).isEqualTo(2);
+        assertThat(userRepository.count()).isZero();
+    }
+}
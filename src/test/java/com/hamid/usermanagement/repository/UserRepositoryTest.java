@@ -6,16 +6,29 @@ import com.hamid.usermanagement.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@DataJpaTest
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.hamid.usermanagement.repository.RecordingStatementInspector"
+})
 @DisplayName("User Repository Tests")
 class UserRepositoryTest {
 
@@ -117,4 +130,334 @@ class UserRepositoryTest {
         Optional<User> deleted = userRepository.findById(userId);
         assertThat(deleted).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should page users by id cursor")
+    void findPageAfter_ShouldReturnKeysetPage() {
+
+        User first = entityManager.persistAndFlush(testUser);
+        User second = entityManager.persistAndFlush(newUser(2));
+
+        List<User> firstPage = userRepository.findPageAfter(0L, Limit.of(1));
+        List<User> secondPage = userRepository.findPageAfter(first.getId(), Limit.of(1));
+        List<User> lastPage = userRepository.findPageAfter(second.getId(), Limit.of(1));
+
+        assertThat(firstPage).extracting(User::getId).containsExactly(first.getId());
+        assertThat(secondPage).extracting(User::getId).containsExactly(second.getId());
+        assertThat(lastPage).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should page users having a role")
+    void findPageByRoleAfter_ShouldReturnOnlyUsersWithRole() {
+
+        User developer = entityManager.persistAndFlush(testUser);
+        entityManager.persistAndFlush(newUser(1));
+
+        List<User> developers = userRepository.findPageByRoleAfter(Role.DEVELOPER, 0L, Limit.of(10));
+        List<User> owners = userRepository.findPageByRoleAfter(Role.OWNER, 0L, Limit.of(10));
+
+        assertThat(developers).extracting(User::getId).containsExactly(developer.getId());
+        assertThat(owners).isEmpty();
+    }
+
+    @ParameterizedTest(name = "{0} users")
+    @ValueSource(ints = {5, 40})
+    @DisplayName("Should list users with roles in a constant number of statements")
+    void findPageAfter_ShouldNotIssueOneQueryPerUser(int userCount) {
+
+        for (int i = 0; i < userCount; i++) {
+            entityManager.persist(newUser(i));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        List<User> page = userRepository.findPageAfter(0L, Limit.of(100));
+        page.forEach(user -> assertThat(user.getRoles()).containsExactly(Role.REPORTER));
+
+        assertThat(page).hasSize(userCount);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should load user and roles in a single statement")
+    void findById_ShouldFetchRolesWithUser() {
+
+        Long userId = entityManager.persistAndFlush(testUser).getId();
+        entityManager.clear();
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        User found = userRepository.findById(userId).orElseThrow();
+
+        assertThat(found.getRoles()).containsExactly(Role.DEVELOPER);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should export every user with its roles from one cursor, in id order")
+    void exportAll_ShouldGroupRoleRowsByUser() {
+
+        User first = entityManager.persist(userWithRoles(1, Role.DEVELOPER, Role.OWNER));
+        User second = entityManager.persist(userWithRoles(2));
+        User third = entityManager.persist(userWithRoles(3, Role.REPORTER));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<User> exported = new ArrayList<>();
+        userRepository.exportAll(exported::add);
+
+        assertThat(exported).extracting(User::getId).containsExactly(first.getId(), second.getId(), third.getId());
+        assertThat(exported.get(0).getRoles()).containsExactlyInAnyOrder(Role.DEVELOPER, Role.OWNER);
+        assertThat(exported.get(1).getRoles()).isEmpty();
+        assertThat(exported.get(2).getRoles()).containsExactly(Role.REPORTER);
+        assertThat(exported.get(0).getTaxCode()).isEqualTo("TSTUSER90A01H501");
+        assertThat(exported.get(0).getVersion()).isEqualTo(first.getVersion());
+        assertThat(entityManager.getEntityManager().contains(exported.get(0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should write only the changed column and the changed roles")
+    void update_ShouldWriteOnlyChanges() {
+
+        testUser.setRoles(new HashSet<>(Set.of(Role.DEVELOPER, Role.REPORTER)));
+        Long userId = entityManager.persistAndFlush(testUser).getId();
+        entityManager.clear();
+        User found = userRepository.findById(userId).orElseThrow();
+        Statistics statistics = statistics();
+        statistics.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+
+        found.setFirstName("Renamed");
+        found.getRoles().remove(Role.REPORTER);
+        found.getRoles().add(Role.OPERATOR);
+        entityManager.flush();
+
+        List<String> writes = RecordingStatementInspector.STATEMENTS.stream()
+                .filter(sql -> !sql.startsWith("select"))
+                .toList();
+        assertThat(writes).hasSize(3);
+        assertThat(writes.get(0)).startsWith("update users set first_name=?,version=? where");
+        assertThat(writes).anySatisfy(sql -> assertThat(sql).startsWith("delete from user_roles where user_id=? and role=?"));
+        assertThat(writes).anySatisfy(sql -> assertThat(sql).startsWith("insert into user_roles"));
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(statistics.getCollectionUpdateCount()).isEqualTo(1);
+        assertThat(found.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should insert users in JDBC batches")
+    void insertAll_ShouldBatchInserts() {
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            users.add(newUser(i));
+        }
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        userRepository.insertAll(users);
+
+        assertThat(users).allSatisfy(user -> assertThat(user.getId()).isNotNull());
+        assertThat(userRepository.count()).isEqualTo(120);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        // users_seq, users and user_roles: a handful of statements per batch of 50, not one per row
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("Should return only the emails and usernames already taken")
+    void findExisting_ShouldReturnTakenValues() {
+
+        entityManager.persistAndFlush(testUser);
+
+        assertThat(userRepository.findExistingEmails(List.of("test@example.com", "free@example.com")))
+                .containsExactly("test@example.com");
+        assertThat(userRepository.findExistingUsernames(List.of("test.user", "free.user")))
+                .containsExactly("test.user");
+    }
+
+    @Test
+    @DisplayName("Should read the searchable attributes of users by id cursor")
+    void findTermsAfter_ShouldReturnProjection() {
+
+        User user = entityManager.persistAndFlush(testUser);
+
+        assertThat(userRepository.findTermsAfter(0L, Limit.of(10)))
+                .containsExactly(new UserTerms(user.getId(), "test.user", "test@example.com", "Test", "User"));
+        assertThat(userRepository.findTermsAfter(user.getId(), Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should search by case-sensitive prefix on any field")
+    void findPageMatchingAfter_ShouldMatchPrefix() {
+
+        User test = entityManager.persistAndFlush(testUser);
+        User other = entityManager.persistAndFlush(newUser(1));
+
+        assertThat(userRepository.findPageMatchingAfter(search("Tes").build(), 0L, Limit.of(10)))
+                .extracting(User::getId).containsExactly(test.getId());
+        assertThat(userRepository.findPageMatchingAfter(search("user1@").build(), 0L, Limit.of(10)))
+                .extracting(User::getId).containsExactly(other.getId());
+        assertThat(userRepository.findPageMatchingAfter(search("TEST").build(), 0L, Limit.of(10))).isEmpty();
+        assertThat(userRepository.findPageMatchingAfter(search("est").build(), 0L, Limit.of(10))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should search by case-insensitive substring on the selected fields")
+    void findPageMatchingAfter_ShouldMatchContains() {
+
+        User test = entityManager.persistAndFlush(testUser);
+        entityManager.persistAndFlush(newUser(1));
+
+        UserSearch lastNames = search("SER")
+                .match(UserSearch.Match.CONTAINS)
+                .fields(EnumSet.of(UserSearch.Field.LAST_NAME))
+                .build();
+
+        assertThat(userRepository.findPageMatchingAfter(lastNames, 0L, Limit.of(10)))
+                .extracting(User::getId).containsExactly(test.getId());
+    }
+
+    @Test
+    @DisplayName("Should filter search results by role and page them by id")
+    void findPageMatchingAfter_ShouldFilterByRoleAndPage() {
+
+        entityManager.persistAndFlush(testUser);
+        User first = entityManager.persistAndFlush(newUser(1));
+        User second = entityManager.persistAndFlush(newUser(2));
+
+        UserSearch reporters = search("user").role(Role.REPORTER).build();
+
+        assertThat(userRepository.findPageMatchingAfter(reporters, 0L, Limit.of(1)))
+                .extracting(User::getId).containsExactly(first.getId());
+        assertThat(userRepository.findPageMatchingAfter(reporters, first.getId(), Limit.of(10)))
+                .extracting(User::getId).containsExactly(second.getId());
+        assertThat(userRepository.findPageMatchingAfter(search("user").role(Role.OWNER).build(), 0L, Limit.of(10)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should treat LIKE wildcards in the term literally")
+    void findPageMatchingAfter_ShouldEscapeWildcards() {
+
+        entityManager.persistAndFlush(testUser);
+
+        assertThat(userRepository.findPageMatchingAfter(search("%").build(), 0L, Limit.of(10))).isEmpty();
+        assertThat(userRepository.findPageMatchingAfter(search("test_user").build(), 0L, Limit.of(10))).isEmpty();
+        assertThat(userRepository.findPageMatchingAfter(search("test.").build(), 0L, Limit.of(10))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should serve prefix searches from the name indexes")
+    void findPageMatchingAfter_ShouldUseIndex() {
+
+        String plan = (String) entityManager.getEntityManager()
+                .createNativeQuery("explain select u.id from users u where u.last_name like 'Num%'")
+                .getSingleResult();
+
+        assertThat(plan).containsIgnoringCase("IDX_USERS_LAST_NAME");
+    }
+
+    @Test
+    @DisplayName("Should grant a role to the selected users lacking it with set-based statements")
+    void grantRole_ShouldChangeOnlyUsersLackingRole() {
+
+        User developer = entityManager.persist(userWithRoles(1, Role.DEVELOPER));
+        User reporter = entityManager.persist(userWithRoles(2, Role.DEVELOPER, Role.REPORTER));
+        User owner = entityManager.persist(userWithRoles(3, Role.OWNER));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        UserSelection developers = UserSelection.builder().role(Role.DEVELOPER).build();
+        assertThat(userRepository.countSelected(developers)).isEqualTo(2);
+        List<Long> ids = userRepository.findIdsForRoleChange(developers, Role.REPORTER, true);
+        assertThat(ids).containsExactly(developer.getId());
+        assertThat(userRepository.grantRole(ids, Role.REPORTER)).isEqualTo(1);
+        // Already granted meanwhile: nothing left to change
+        assertThat(userRepository.grantRole(ids, Role.REPORTER)).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+
+        assertThat(userRepository.findById(developer.getId()).orElseThrow())
+                .satisfies(user -> assertThat(user.getRoles()).containsExactlyInAnyOrder(Role.DEVELOPER, Role.REPORTER))
+                .satisfies(user -> assertThat(user.getVersion()).isEqualTo(1L));
+        assertThat(userRepository.findVersionById(reporter.getId())).contains(0L);
+        assertThat(userRepository.findVersionById(owner.getId())).contains(0L);
+    }
+
+    @Test
+    @DisplayName("Should revoke a role without leaving users with no roles")
+    void revokeRole_ShouldKeepAtLeastOneRole() {
+
+        User developer = entityManager.persist(userWithRoles(1, Role.DEVELOPER));
+        User reporter = entityManager.persist(userWithRoles(2, Role.DEVELOPER, Role.REPORTER));
+        User owner = entityManager.persist(userWithRoles(3, Role.OWNER));
+        entityManager.flush();
+        entityManager.clear();
+
+        UserSelection selection = UserSelection.builder()
+                .ids(Set.of(developer.getId(), reporter.getId(), owner.getId()))
+                .term("Number")
+                .fields(EnumSet.of(UserSearch.Field.LAST_NAME))
+                .build();
+        List<Long> ids = userRepository.findIdsForRoleChange(selection, Role.DEVELOPER, false);
+        assertThat(ids).containsExactly(reporter.getId());
+        assertThat(userRepository.revokeRole(ids, Role.DEVELOPER)).isEqualTo(1);
+
+        assertThat(userRepository.findById(reporter.getId()).orElseThrow().getRoles()).containsExactly(Role.REPORTER);
+        assertThat(userRepository.findById(developer.getId()).orElseThrow().getRoles()).containsExactly(Role.DEVELOPER);
+    }
+
+    @Test
+    @DisplayName("Should delete users and their roles by id")
+    void deleteAllByIds_ShouldDeleteUsersAndRoles() {
+
+        User first = entityManager.persist(userWithRoles(1, Role.DEVELOPER, Role.REPORTER));
+        User second = entityManager.persist(userWithRoles(2, Role.OWNER));
+        User kept = entityManager.persist(userWithRoles(3, Role.OWNER));
+        entityManager.flush();
+        entityManager.clear();
+
+        int deleted = userRepository.deleteAllByIds(List.of(first.getId(), second.getId(), 999_999L));
+
+        assertThat(deleted).isEqualTo(2);
+        assertThat(userRepository.findIdsByIdIn(List.of(first.getId(), second.getId(), kept.getId())))
+                .containsExactly(kept.getId());
+        Number roleRows = (Number) entityManager.getEntityManager()
+                .createNativeQuery("select count(*) from user_roles")
+                .getSingleResult();
+        assertThat(roleRows.intValue()).isEqualTo(1);
+    }
+
+    private static UserSearch.UserSearchBuilder search(String term) {
+        return UserSearch.builder().term(term);
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+
+    private User userWithRoles(int index, Role... roles) {
+        User user = newUser(index);
+        user.setRoles(new HashSet<>(Set.of(roles)));
+        return user;
+    }
+
+    private User newUser(int index) {
+        return User.builder()
+                .username("user." + index)
+                .email("user" + index + "@example.com")
+                .taxCode("TSTUSER90A01H50" + index)
+                .firstName("User")
+                .lastName("Number" + index)
+                .roles(new HashSet<>(Set.of(Role.REPORTER)))
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.hamid.usermanagement.security;
+
+import com.hamid.usermanagement.config.SecurityConfig;
+import com.hamid.usermanagement.dto.response.UserViews;
+import com.hamid.usermanagement.util.UserResponseFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Caller Authentication Converter Tests")
+class CallerAuthenticationConverterTest {
+
+    private final UserResponseFilter userResponseFilter = new UserResponseFilter();
+    private final AuthenticationFacade authenticationFacade = new AuthenticationFacade(userResponseFilter);
+    private CallerAuthenticationConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new CallerAuthenticationConverter(new SecurityConfig.KeycloakRoleConverter(100), userResponseFilter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should resolve the caller context once, with the token's authorities")
+    void convert_ShouldBuildCallerContext() {
+
+        AbstractAuthenticationToken authentication = converter.convert(jwt("operator"));
+
+        assertThat(authentication).isInstanceOf(CallerAuthenticationToken.class);
+        assertThat(authentication.getName()).isEqualTo("alice-id");
+        assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities()))
+                .containsExactlyInAnyOrder("ROLE_OPERATOR", "read_user");
+        CallerContext caller = ((CallerAuthenticationToken) authentication).getCaller();
+        assertThat(caller).isEqualTo(new CallerContext("alice-id", "alice-id", "alice@example.com", UserViews.Operator.class));
+        assertThat(userResponseFilter.resolveView(authentication)).isEqualTo(UserViews.Operator.class);
+    }
+
+    @Test
+    @DisplayName("Should return the precomputed context of the current request")
+    void getCaller_WithBearerToken_ShouldReturnSameContext() {
+        AbstractAuthenticationToken authentication = converter.convert(jwt("admin"));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        CallerContext caller = authenticationFacade.getCaller();
+
+        assertThat(caller).isSameAs(((CallerAuthenticationToken) authentication).getCaller());
+        assertThat(authenticationFacade.getCaller()).isSameAs(caller);
+        assertThat(authenticationFacade.getCurrentUsername()).isEqualTo("alice-id");
+        assertThat(authenticationFacade.getCurrentUserEmail()).contains("alice@example.com");
+        assertThat(userResponseFilter.resolveCurrentView()).isEqualTo(UserViews.Admin.class);
+    }
+
+    @Test
+    @DisplayName("Should resolve other authentications on each call, and anonymous requests without a view")
+    void getCaller_WithoutBearerToken_ShouldResolveFromAuthentication() {
+
+        assertThat(authenticationFacade.getCaller()).isSameAs(CallerContext.ANONYMOUS);
+
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "bob", null, AuthorityUtils.createAuthorityList("read_user")));
+
+        assertThat(authenticationFacade.getCaller())
+                .isEqualTo(new CallerContext("bob", null, null, UserViews.Basic.class));
+    }
+
+    private Jwt jwt(String realmRole) {
+        return Jwt.withTokenValue("token-" + realmRole)
+                .header("alg", "RS256")
+                .subject("alice-id")
+                .jti("jti-" + realmRole)
+                .expiresAt(Instant.now().plusSeconds(300))
+                .claim("email", "alice@example.com")
+                .claim("realm_access", Map.of("roles", List.of(realmRole)))
+                .claim("resource_access", Map.of("demo-task", Map.of("roles", List.of("read_user"))))
+                .build();
+    }
+}
@@ -1,17 +1,38 @@
 // src/test/java/com/hamid/usermanagement/service/UserServiceImplTest.java
 package com.hamid.usermanagement.service;
 
+import com.hamid.usermanagement.audit.AuditAction;
+import com.hamid.usermanagement.audit.AuditLogger;
+import com.hamid.usermanagement.cache.UserResponseCache;
+import com.hamid.usermanagement.changes.UserChangeLog;
+import com.hamid.usermanagement.changes.UserChangeType;
 import com.hamid.usermanagement.dto.request.CreateUserRequest;
+import com.hamid.usermanagement.dto.request.PatchUserRequest;
 import com.hamid.usermanagement.dto.request.UpdateUserRequest;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse;
+import com.hamid.usermanagement.dto.response.BatchCreateUsersResponse.ItemStatus;
+import com.hamid.usermanagement.dto.response.BulkOperationResponse;
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
+import com.hamid.usermanagement.dto.response.UserChangeResponse;
 import com.hamid.usermanagement.dto.response.UserResponse;
 import com.hamid.usermanagement.entity.Role;
 import com.hamid.usermanagement.entity.User;
 import com.hamid.usermanagement.event.UserCreatedEvent;
+import com.hamid.usermanagement.event.UserDeletedEvent;
+import com.hamid.usermanagement.event.UserUpdatedEvent;
+import com.hamid.usermanagement.event.UsersCreatedEvent;
+import com.hamid.usermanagement.event.UsersDeletedEvent;
+import com.hamid.usermanagement.event.UsersRoleChangedEvent;
 import com.hamid.usermanagement.exception.EmailAlreadyExistsException;
+import com.hamid.usermanagement.exception.PreconditionFailedException;
 import com.hamid.usermanagement.exception.UserNotFoundException;
 import com.hamid.usermanagement.mapper.UserMapper;
 import com.hamid.usermanagement.repository.UserRepository;
-import com.hamid.usermanagement.security.AuthenticationFacade;
+import com.hamid.usermanagement.repository.UserSearch;
+import com.hamid.usermanagement.repository.UserSelection;
+import com.hamid.usermanagement.repository.UserVersion;
+import com.hamid.usermanagement.typeahead.TypeaheadField;
+import com.hamid.usermanagement.typeahead.TypeaheadIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -21,14 +42,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,7 +74,16 @@ class UserServiceImplTest {
     private ApplicationEventPublisher eventPublisher;
 
     @Mock
-    private AuthenticationFacade authenticationFacade;
+    private AuditLogger auditLogger;
+
+    @Mock
+    private UserResponseCache userResponseCache;
+
+    @Mock
+    private TypeaheadIndex typeaheadIndex;
+
+    @Mock
+    private UserChangeLog userChangeLog;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -64,7 +102,7 @@ class UserServiceImplTest {
                 .taxCode("TSTUSER90A01H501Z")
                 .firstName("Test")
                 .lastName("User")
-                .roles(Set.of(Role.DEVELOPER))
+                .roles(new HashSet<>(Set.of(Role.DEVELOPER)))
                 .build();
 
         userResponse = UserResponse.builder()
@@ -91,30 +129,143 @@ class UserServiceImplTest {
         updateRequest.setFirstName("Updated");
         updateRequest.setLastName("User");
         updateRequest.setRoles(Set.of(Role.OPERATOR));
-
-        when(authenticationFacade.getCurrentUsername()).thenReturn("test-user");
     }
 
     @Test
-    @DisplayName("getAllUsers - Should return list of all users")
-    void getAllUsers_ShouldReturnAllUsers() {
+    @DisplayName("getUsers - Should return a keyset page of users")
+    void getUsers_ShouldReturnPage() {
 
         List<User> users = Arrays.asList(user);
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findPageAfter(0L, Limit.of(20))).thenReturn(users);
         when(userMapper.toResponse(any(User.class))).thenReturn(userResponse);
 
-        List<UserResponse> result = userService.getAllUsers();
+        List<UserResponse> result = userService.getUsers(null, null, 20);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getUsername()).isEqualTo("test.user");
-        verify(userRepository, times(1)).findAll();
+        verify(userRepository, times(1)).findPageAfter(0L, Limit.of(20));
         verify(userMapper, times(1)).toResponse(any(User.class));
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
+        verify(auditLogger, times(1)).record(AuditAction.LIST_USERS, 0L, null);
+    }
+
+    @Test
+    @DisplayName("getUsers - Should use the role filtered page when a role is given")
+    void getUsers_WithRole_ShouldQueryByRole() {
+
+        when(userRepository.findPageByRoleAfter(Role.DEVELOPER, 10L, Limit.of(20))).thenReturn(List.of(user));
+        when(userMapper.toResponse(user)).thenReturn(userResponse);
+
+        List<UserResponse> result = userService.getUsers(Role.DEVELOPER, 10L, 20);
+
+        assertThat(result).containsExactly(userResponse);
+        verify(userRepository, never()).findPageAfter(any(), any());
+    }
+
+    @Test
+    @DisplayName("getUsers - Should reject a non positive limit")
+    void getUsers_WithInvalidLimit_ShouldThrowException() {
+
+        assertThatThrownBy(() -> userService.getUsers(null, null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(userRepository, never()).findPageAfter(any(), any());
+    }
+
+    @Test
+    @DisplayName("searchUsers - Should return a keyset page of matching users")
+    void searchUsers_ShouldReturnPage() {
+
+        UserSearch search = UserSearch.builder().term("test").role(Role.DEVELOPER).build();
+        when(userRepository.findPageMatchingAfter(search, 0L, Limit.of(20))).thenReturn(List.of(user));
+        when(userMapper.toResponse(user)).thenReturn(userResponse);
+
+        List<UserResponse> result = userService.searchUsers(search, null, 20);
+
+        assertThat(result).containsExactly(userResponse);
+        verify(auditLogger, times(1)).record(AuditAction.SEARCH_USERS, 0L, "test");
+    }
+
+    @Test
+    @DisplayName("searchUsers - Should reject a blank term")
+    void searchUsers_WithBlankTerm_ShouldThrowException() {
+
+        assertThatThrownBy(() -> userService.searchUsers(UserSearch.builder().term(" ").build(), null, 20))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verify(userRepository, never()).findPageMatchingAfter(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("suggestUsers - Should serve suggestions from the typeahead index")
+    void suggestUsers_ShouldLookupIndex() {
+
+        TypeaheadSuggestion suggestion = TypeaheadSuggestion.builder().id(1L).field(TypeaheadField.USERNAME).value("test.user").build();
+        when(typeaheadIndex.lookup("tes", 10)).thenReturn(List.of(suggestion));
+
+        assertThat(userService.suggestUsers(" tes ", 10)).containsExactly(suggestion);
+        verifyNoInteractions(userRepository, auditLogger);
+    }
+
+    @Test
+    @DisplayName("streamUsers - Should read users chunk by chunk until exhausted")
+    void streamUsers_ShouldWalkAllChunks() {
+
+        List<User> fullChunk = LongStream.rangeClosed(1, 500)
+                .mapToObj(id -> User.builder().id(id).username("user" + id).build())
+                .toList();
+        when(userRepository.findPageAfter(0L, Limit.of(500))).thenReturn(fullChunk);
+        when(userRepository.findPageAfter(500L, Limit.of(500))).thenReturn(List.of(user));
+        when(userMapper.toResponse(any(User.class))).thenReturn(userResponse);
+
+        List<UserResponse> streamed = new ArrayList<>();
+        userService.streamUsers(streamed::add);
+
+        assertThat(streamed).hasSize(501);
+        verify(userRepository, times(2)).findPageAfter(any(), any());
+    }
+
+    @Test
+    @DisplayName("exportUsers - Should map every user of the repository cursor")
+    void exportUsers_ShouldMapCursorRows() {
+        doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(0);
+            consumer.accept(user);
+            consumer.accept(user);
+            return null;
+        }).when(userRepository).exportAll(any());
+        when(userMapper.toResponse(user)).thenReturn(userResponse);
+
+        List<UserResponse> exported = new ArrayList<>();
+        userService.exportUsers(exported::add);
+
+        assertThat(exported).containsExactly(userResponse, userResponse);
+        verify(auditLogger, times(1)).record(AuditAction.EXPORT_USERS, AuditLogger.NO_TARGET);
+        verify(userRepository, never()).findPageAfter(any(), any());
+    }
+
+    @Test
+    @DisplayName("getChanges - Should read the change log after the cursor")
+    void getChanges_ShouldReadLogFromCursor() {
+        UserChangeResponse change = UserChangeResponse.builder()
+                .id(43L)
+                .type(UserChangeType.UPDATED)
+                .userId(1L)
+                .user(userResponse)
+                .build();
+        when(userChangeLog.changesAfter(42L, 100)).thenReturn(List.of(change));
+
+        assertThat(userService.getChanges(42L, 100)).containsExactly(change);
+        verify(auditLogger, times(1)).record(AuditAction.LIST_CHANGES, 42L);
+
+        assertThatThrownBy(() -> userService.getChanges(null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(userChangeLog, never()).changesAfter(0L, 0);
     }
 
     @Test
     @DisplayName("getUserById - Should return user when found")
     void getUserById_WhenUserExists_ShouldReturnUser() {
+        when(userResponseCache.stamp(1L)).thenReturn(3L);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(userMapper.toResponse(user)).thenReturn(userResponse);
 
@@ -124,7 +275,20 @@ class UserServiceImplTest {
         assertThat(result.getId()).isEqualTo(1L);
         assertThat(result.getUsername()).isEqualTo("test.user");
         verify(userRepository, times(1)).findById(1L);
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
+        verify(userResponseCache, times(1)).put(userResponse, 3L);
+        verify(auditLogger, times(1)).record(AuditAction.GET_USER, 1L);
+    }
+
+    @Test
+    @DisplayName("getUserById - Should serve cached user without hitting the repository")
+    void getUserById_WhenCached_ShouldNotQueryRepository() {
+        when(userResponseCache.get(1L)).thenReturn(userResponse);
+
+        UserResponse result = userService.getUserById(1L);
+
+        assertThat(result).isSameAs(userResponse);
+        verify(userRepository, never()).findById(any());
+        verify(userMapper, never()).toResponse(any());
     }
 
     @Test
@@ -139,13 +303,12 @@ class UserServiceImplTest {
 
         verify(userRepository, times(1)).findById(999L);
         verify(userMapper, never()).toResponse(any());
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
+        verify(auditLogger, never()).record(any(), anyLong());
     }
 
     @Test
     @DisplayName("createUser - Should create user and publish event")
     void createUser_ShouldCreateUserAndPublishEvent() {
-        when(authenticationFacade.getCurrentUserEmail()).thenReturn(Optional.of("test@example.com"));  // Mock specifico
         when(userRepository.existsByEmail(createRequest.getEmail())).thenReturn(false);
         when(userRepository.existsByUsername(createRequest.getUsername())).thenReturn(false);
         when(userMapper.toEntity(createRequest)).thenReturn(user);
@@ -164,15 +327,13 @@ class UserServiceImplTest {
         assertThat(publishedEvent.getUser()).isEqualTo(user);
 
         verify(userRepository, times(1)).save(user);
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
-        verify(authenticationFacade, times(1)).getCurrentUserEmail();  // ← VERIFY
+        verify(auditLogger, times(1)).record(AuditAction.CREATE_USER, 1L, "test.user");
     }
 
     @Test
     @DisplayName("createUser - Should throw exception when email already exists")
     void createUser_WhenEmailExists_ShouldThrowException() {
         // Given
-        when(authenticationFacade.getCurrentUserEmail()).thenReturn(Optional.of("test@example.com"));  // Mock specifico
         when(userRepository.existsByEmail(createRequest.getEmail())).thenReturn(true);
 
         // When & Then
@@ -182,15 +343,13 @@ class UserServiceImplTest {
 
         verify(userRepository, never()).save(any());
         verify(eventPublisher, never()).publishEvent(any());
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
-        verify(authenticationFacade, times(1)).getCurrentUserEmail();  // ← VERIFY
+        verify(auditLogger, never()).record(any(), anyLong(), any());
     }
 
     @Test
     @DisplayName("createUser - Should throw exception when username already exists")
     void createUser_WhenUsernameExists_ShouldThrowException() {
 
-        when(authenticationFacade.getCurrentUserEmail()).thenReturn(Optional.of("test@example.com"));  // Mock specifico
         when(userRepository.existsByEmail(createRequest.getEmail())).thenReturn(false);
         when(userRepository.existsByUsername(createRequest.getUsername())).thenReturn(true);
 
@@ -200,23 +359,56 @@ class UserServiceImplTest {
 
         verify(userRepository, never()).save(any());
         verify(eventPublisher, never()).publishEvent(any());
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
-        verify(authenticationFacade, times(1)).getCurrentUserEmail();  // ← VERIFY
+        verify(auditLogger, never()).record(any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("createUsers - Should insert accepted users in bulk and reject conflicts per item")
+    @SuppressWarnings("unchecked")
+    void createUsers_ShouldRejectConflictsAndPublishSingleEvent() {
+        CreateUserRequest takenEmail = newCreateRequest("taken.email", "taken@example.com");
+        CreateUserRequest repeatedUsername = newCreateRequest("test.user", "other@example.com");
+        CreateUserRequest second = newCreateRequest("second.user", "second@example.com");
+        List<CreateUserRequest> requests = List.of(createRequest, takenEmail, repeatedUsername, second);
+
+        when(userRepository.findExistingEmails(any())).thenReturn(Set.of("taken@example.com"));
+        when(userRepository.findExistingUsernames(any())).thenReturn(Set.of());
+        when(userMapper.toEntity(any(CreateUserRequest.class))).thenAnswer(invocation -> new User());
+        when(userMapper.toResponse(any(User.class))).thenReturn(userResponse);
+
+        BatchCreateUsersResponse result = userService.createUsers(requests);
+
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(result.getResults()).extracting(BatchCreateUsersResponse.ItemResult::getStatus)
+                .containsExactly(ItemStatus.CREATED, ItemStatus.REJECTED, ItemStatus.REJECTED, ItemStatus.CREATED);
+        assertThat(result.getResults().get(1).getError()).contains("taken@example.com");
+        assertThat(result.getResults().get(2).getError()).contains("Username already in use");
+
+        ArgumentCaptor<List<User>> usersCaptor = ArgumentCaptor.forClass(List.class);
+        verify(userRepository, times(1)).insertAll(usersCaptor.capture());
+        assertThat(usersCaptor.getValue()).hasSize(2);
+        verify(userRepository, never()).save(any());
+
+        ArgumentCaptor<UsersCreatedEvent> eventCaptor = ArgumentCaptor.forClass(UsersCreatedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getUsers()).hasSize(2);
     }
 
     @Test
     @DisplayName("updateUser - Should update user successfully")
     void updateUser_ShouldUpdateUser() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
         when(userMapper.toResponse(any(User.class))).thenReturn(userResponse);
 
-        UserResponse result = userService.updateUser(1L, updateRequest);
+        UserResponse result = userService.updateUser(1L, updateRequest, null);
 
         assertThat(result).isNotNull();
         verify(userRepository, times(1)).findById(1L);
-        verify(userRepository, times(1)).save(any(User.class));
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
+        verify(userRepository, times(1)).saveAndFlush(any(User.class));
+        verify(eventPublisher, times(1)).publishEvent(any(UserUpdatedEvent.class));
+        verify(auditLogger, times(1)).record(AuditAction.UPDATE_USER, 1L);
     }
 
     @Test
@@ -224,35 +416,225 @@ class UserServiceImplTest {
     void updateUser_WhenUserNotFound_ShouldThrowException() {
         when(userRepository.findById(999L)).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> userService.updateUser(999L, updateRequest))
+        assertThatThrownBy(() -> userService.updateUser(999L, updateRequest, null))
                 .isInstanceOf(UserNotFoundException.class);
 
-        verify(userRepository, never()).save(any());
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(auditLogger, never()).record(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("updateUser - Should reject a stale expected version without writing")
+    void updateUser_WithStaleVersion_ShouldThrowPreconditionFailed() {
+        user.setVersion(3L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThatThrownBy(() -> userService.updateUser(1L, updateRequest, 2L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("version 2");
+
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("updateUser - Should turn a concurrent write into a failed precondition when conditional")
+    void updateUser_WhenConcurrentlyModified_ShouldThrowPreconditionFailed() {
+        user.setVersion(3L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"));
+
+        assertThatThrownBy(() -> userService.updateUser(1L, updateRequest, 3L))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> userService.updateUser(1L, updateRequest, null))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("updateUser - Should change the loaded role set in place")
+    void updateUser_ShouldDiffRolesInPlace() {
+        Set<Role> roles = user.getRoles();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+
+        userService.updateUser(1L, updateRequest, null);
+
+        assertThat(user.getRoles()).isSameAs(roles).containsExactly(Role.OPERATOR);
+    }
+
+    @Test
+    @DisplayName("patchUser - Should change only the fields present in the patch")
+    void patchUser_ShouldApplyPresentFields() {
+        PatchUserRequest patch = new PatchUserRequest();
+        patch.setFirstName("Patched");
+        patch.setRoles(Set.of(Role.DEVELOPER, Role.OWNER));
+        Set<Role> roles = user.getRoles();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        when(userMapper.toResponse(user)).thenReturn(userResponse);
+
+        UserResponse result = userService.patchUser(1L, patch, null);
+
+        assertThat(result).isSameAs(userResponse);
+        assertThat(user.getFirstName()).isEqualTo("Patched");
+        assertThat(user.getUsername()).isEqualTo("test.user");
+        assertThat(user.getTaxCode()).isEqualTo("TSTUSER90A01H501Z");
+        assertThat(user.getLastName()).isEqualTo("User");
+        assertThat(user.getRoles()).isSameAs(roles).containsExactlyInAnyOrder(Role.DEVELOPER, Role.OWNER);
+        verify(userRepository, times(1)).saveAndFlush(user);
+        verify(eventPublisher, times(1)).publishEvent(any(UserUpdatedEvent.class));
+        verify(auditLogger, times(1)).record(AuditAction.UPDATE_USER, 1L);
+    }
+
+    @Test
+    @DisplayName("patchUser - Should not write anything when the patch changes nothing")
+    void patchUser_WithoutChanges_ShouldNotWrite() {
+        PatchUserRequest patch = new PatchUserRequest();
+        patch.setUsername("test.user");
+        patch.setRoles(Set.of(Role.DEVELOPER));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userMapper.toResponse(user)).thenReturn(userResponse);
+
+        userService.patchUser(1L, patch, null);
+
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("patchUser - Should reject a stale expected version")
+    void patchUser_WithStaleVersion_ShouldThrowPreconditionFailed() {
+        user.setVersion(5L);
+        PatchUserRequest patch = new PatchUserRequest();
+        patch.setFirstName("Patched");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertThatThrownBy(() -> userService.patchUser(1L, patch, 4L))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        assertThat(user.getFirstName()).isEqualTo("Test");
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("getUserVersion - Should read the stored version, not the response cache")
+    void getUserVersion_ShouldReadStoredVersion() {
+        when(userRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+        when(userRepository.findVersionById(999L)).thenReturn(Optional.empty());
+
+        assertThat(userService.getUserVersion(1L)).isEqualTo(5L);
+        assertThatThrownBy(() -> userService.getUserVersion(999L))
+                .isInstanceOf(UserNotFoundException.class);
+
+        verify(userResponseCache, never()).get(any());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("getUserVersions - Should read only ids and versions of the page")
+    void getUserVersions_ShouldReturnVersionsOfPage() {
+        List<UserVersion> versions = List.of(new UserVersion(3L, 0L), new UserVersion(5L, 2L));
+        when(userRepository.findVersionsAfter(2L, Limit.of(2))).thenReturn(versions);
+        when(userRepository.findIdsByRoleAfter(Role.OWNER, 0L, Limit.of(2))).thenReturn(List.of(3L, 5L));
+        when(userRepository.findVersionsByIdIn(List.of(3L, 5L))).thenReturn(versions);
+
+        assertThat(userService.getUserVersions(null, 2L, 2)).isEqualTo(versions);
+        assertThat(userService.getUserVersions(Role.OWNER, null, 2)).isEqualTo(versions);
+
+        verify(userRepository, never()).findPageAfter(anyLong(), any());
+        verifyNoInteractions(userMapper);
     }
 
     @Test
     @DisplayName("deleteUser - Should delete user successfully")
     void deleteUser_ShouldDeleteUser() {
-        when(userRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(userRepository).deleteById(1L);
+        when(userRepository.deleteAllByIds(List.of(1L))).thenReturn(1);
 
         userService.deleteUser(1L);
 
-        verify(userRepository, times(1)).existsById(1L);
-        verify(userRepository, times(1)).deleteById(1L);
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
+        verify(userRepository, times(1)).deleteAllByIds(List.of(1L));
+        verify(userRepository, never()).deleteById(any());
+        verify(eventPublisher, times(1)).publishEvent(any(UserDeletedEvent.class));
+        verify(auditLogger, times(1)).record(AuditAction.DELETE_USER, 1L);
     }
 
     @Test
     @DisplayName("deleteUser - Should throw exception when user not found")
     void deleteUser_WhenUserNotFound_ShouldThrowException() {
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.deleteAllByIds(List.of(999L))).thenReturn(0);
 
         assertThatThrownBy(() -> userService.deleteUser(999L))
                 .isInstanceOf(UserNotFoundException.class);
 
-        verify(userRepository, never()).deleteById(any());
-        verify(authenticationFacade, times(1)).getCurrentUsername();  // ← VERIFY
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(auditLogger, never()).record(any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("deleteUsers - Should delete the existing users in chunks and publish one event")
+    void deleteUsers_ShouldDeleteExistingInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(userRepository.findIdsByIdIn(anyList())).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            return chunk.stream().filter(id -> id <= 1500).toList();
+        });
+        when(userRepository.deleteAllByIds(anyList()))
+                .thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        BulkOperationResponse result = userService.deleteUsers(ids);
+
+        assertThat(result.getMatched()).isEqualTo(1500);
+        assertThat(result.getAffected()).isEqualTo(1500);
+        verify(userRepository, times(3)).findIdsByIdIn(anyList());
+        verify(userRepository, times(2)).deleteAllByIds(anyList());
+        ArgumentCaptor<UsersDeletedEvent> eventCaptor = ArgumentCaptor.forClass(UsersDeletedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getUserIds()).hasSize(1500);
+        verify(auditLogger, times(1)).record(AuditAction.DELETE_USERS, 1500);
+    }
+
+    @Test
+    @DisplayName("changeRole - Should grant the role to the selected users lacking it")
+    void changeRole_ShouldGrantToSelectedUsers() {
+        UserSelection selection = UserSelection.builder().role(Role.DEVELOPER).build();
+        when(userRepository.countSelected(selection)).thenReturn(3L);
+        when(userRepository.findIdsForRoleChange(selection, Role.REPORTER, true)).thenReturn(List.of(1L, 2L));
+        when(userRepository.grantRole(List.of(1L, 2L), Role.REPORTER)).thenReturn(2);
+
+        BulkOperationResponse result = userService.changeRole(Role.REPORTER, true, selection);
+
+        assertThat(result.getMatched()).isEqualTo(3);
+        assertThat(result.getAffected()).isEqualTo(2);
+        verify(userRepository, never()).revokeRole(any(), any());
+        ArgumentCaptor<UsersRoleChangedEvent> eventCaptor = ArgumentCaptor.forClass(UsersRoleChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(eventCaptor.capture());
+        assertThat(eventCaptor.getValue().getUserIds()).containsExactly(1L, 2L);
+        assertThat(eventCaptor.getValue().isGranted()).isTrue();
+        verify(auditLogger, times(1)).record(AuditAction.GRANT_ROLE, 2, Role.REPORTER);
+    }
+
+    @Test
+    @DisplayName("changeRole - Should refuse to change the role of every user")
+    void changeRole_WithoutSelection_ShouldThrowException() {
+        assertThatThrownBy(() -> userService.changeRole(Role.OWNER, false, UserSelection.builder().build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> userService.changeRole(Role.OWNER, false, UserSelection.builder().term(" ").build()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(userRepository, eventPublisher);
+    }
+
+    private CreateUserRequest newCreateRequest(String username, String email) {
+        CreateUserRequest request = new CreateUserRequest();
+        request.setUsername(username);
+        request.setEmail(email);
+        request.setTaxCode("TSTUSER90A01H501Z");
+        request.setFirstName("Test");
+        request.setLastName("User");
+        request.setRoles(Set.of(Role.DEVELOPER));
+        return request;
     }
-}
\ No newline at end of file
+}
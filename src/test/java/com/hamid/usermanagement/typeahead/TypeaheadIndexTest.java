@@ -0,0 +1,158 @@
+package com.hamid.usermanagement.typeahead;
+
+import com.hamid.usermanagement.dto.response.TypeaheadSuggestion;
+import com.hamid.usermanagement.entity.User;
+import com.hamid.usermanagement.repository.UserRepository;
+import com.hamid.usermanagement.repository.UserTerms;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Typeahead Index Tests")
+class TypeaheadIndexTest {
+
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private TypeaheadIndex index;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        index = new TypeaheadIndex(userRepository, meterRegistry, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.stop();
+    }
+
+    @Test
+    @DisplayName("Should load users from the repository and match prefixes ignoring case")
+    void bootstrap_ShouldIndexRepositoryUsers() {
+        when(userRepository.findTermsAfter(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new UserTerms(1L, "mario.rossi", "mario@example.com", "Mario", "Rossi"),
+                new UserTerms(2L, "marta.bianchi", "marta@example.com", "Marta", "Bianchi"),
+                new UserTerms(3L, "luca.verdi", "luca@example.com", "Luca", "Verdi")));
+
+        index.bootstrap();
+
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(index.lookup("MAR", 10))
+                        .extracting(TypeaheadSuggestion::getId)
+                        .containsExactly(1L, 2L));
+        assertThat(index.lookup("bian", 10))
+                .extracting(TypeaheadSuggestion::getField, TypeaheadSuggestion::getValue)
+                .containsExactly(tuple(TypeaheadField.LAST_NAME, "Bianchi"));
+        assertThat(index.lookup("z", 10)).isEmpty();
+        assertThat(meterRegistry.get("typeahead.entries").gauge().value()).isEqualTo(12.0);
+    }
+
+    @Test
+    @DisplayName("Should return one suggestion per user, ordered by value, up to the limit")
+    void lookup_ShouldDeduplicateUsersAndApplyLimit() {
+        index.install(new TypeaheadSnapshot.Builder()
+                .add(1L, TypeaheadField.USERNAME, "anna")
+                .add(1L, TypeaheadField.FIRST_NAME, "Anna")
+                .add(2L, TypeaheadField.USERNAME, "annabella")
+                .add(3L, TypeaheadField.USERNAME, "annalisa")
+                .build());
+
+        List<TypeaheadSuggestion> suggestions = index.lookup("ann", 2);
+
+        assertThat(suggestions).extracting(TypeaheadSuggestion::getId).containsExactly(1L, 2L);
+        assertThat(index.lookup("ann", 10)).extracting(TypeaheadSuggestion::getId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    @DisplayName("Should reflect created, updated and deleted users before and after compaction")
+    void changes_ShouldBeVisibleImmediatelyAndSurviveCompaction() {
+        index.install(new TypeaheadSnapshot.Builder()
+                .add(1L, TypeaheadField.USERNAME, "giulia.neri")
+                .add(2L, TypeaheadField.USERNAME, "giorgio.blu")
+                .build());
+
+        index.put(List.of(user(3L, "gianni.gialli"), user(1L, "giulia.rosa")));
+        index.remove(List.of(2L));
+
+        assertThat(index.lookup("gi", 10))
+                .extracting(TypeaheadSuggestion::getValue)
+                .containsExactly("gianni.gialli", "giulia.rosa");
+        assertThat(index.lookup("giulia.n", 10)).isEmpty();
+
+        index.compact();
+
+        assertThat(index.lookup("gi", 10))
+                .extracting(TypeaheadSuggestion::getValue)
+                .containsExactly("gianni.gialli", "giulia.rosa");
+        assertThat(index.lookup("giorgio", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep one overlay entry per field when a user has the same term twice")
+    void put_ShouldIndexSameTermInEveryField() {
+        User user = user(1L, "anna");
+        user.setFirstName("Anna");
+
+        index.put(List.of(user));
+
+        assertThat(meterRegistry.get("typeahead.entries").gauge().value()).isEqualTo(3.0);
+        index.compact();
+        assertThat(meterRegistry.get("typeahead.entries").gauge().value()).isEqualTo(3.0);
+        assertThat(index.lookup("ann", 10))
+                .extracting(TypeaheadSuggestion::getId, TypeaheadSuggestion::getValue)
+                .containsExactly(tuple(1L, "anna"));
+    }
+
+    @Test
+    @DisplayName("Should keep changes committed while the snapshot was loading")
+    void install_ShouldKeepConcurrentChanges() {
+        index.put(List.of(user(1L, "paolo.nuovo")));
+
+        // snapshot read before the update committed
+        index.install(new TypeaheadSnapshot.Builder().add(1L, TypeaheadField.USERNAME, "paolo.vecchio").build());
+
+        assertThat(index.lookup("paolo", 10))
+                .extracting(TypeaheadSuggestion::getValue)
+                .containsExactly("paolo.nuovo");
+    }
+
+    @Test
+    @DisplayName("Should compact in the background once the overlay is large enough")
+    void put_ShouldCompactOverlay() {
+        index.stop();
+        index = new TypeaheadIndex(userRepository, meterRegistry, 8);
+        for (long id = 1; id <= 10; id++) {
+            index.put(List.of(user(id, "user" + id)));
+        }
+
+        await()
+                .atMost(3, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(index.memoryBytes()).isGreaterThan(TypeaheadSnapshot.EMPTY.memoryBytes()));
+        assertThat(index.lookup("user1", 10)).extracting(TypeaheadSuggestion::getId).containsExactly(1L, 10L);
+        verify(userRepository, never()).findTermsAfter(anyLong(), any());
+    }
+
+    private static User user(Long id, String username) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .build();
+    }
+}